@@ -0,0 +1,134 @@
+package de.rubenmaurer.punk.core.akka;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.io.Tcp;
+import akka.pattern.Patterns;
+import akka.util.ByteString;
+import de.rubenmaurer.punk.util.Log;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receive handling of the {@link ConnectionHandler} on synthetic {@link Tcp.Received} bursts.
+ * One operation sends a burst of frames to the handler and waits until it processed all of them.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionHandlerBenchmark {
+
+    /**
+     * Frames per burst.
+     */
+    private static final int FRAMES = 64;
+
+    /**
+     * Replies the frames are built from.
+     */
+    private static final String[] REPLIES = {
+            ":irc.example.net 353 max = #Blackwell :@max chloe rachel",
+            ":irc.example.net 366 max #Blackwell :End of NAMES list",
+            ":chloe!elisabeth@irc.example.net PRIVMSG #Blackwell :Wowser",
+            ":irc.example.net 372 max :- Welcome to Arcadia Bay"
+    };
+
+    /**
+     * Lines per frame.
+     */
+    @Param({"1", "16", "128"})
+    public int lines;
+
+    /**
+     * Split the frames in the middle of a line?
+     */
+    @Param({"false", "true"})
+    public boolean split;
+
+    /**
+     * The actor system.
+     */
+    private ActorSystem system;
+
+    /**
+     * The handler.
+     */
+    private ActorRef handler;
+
+    /**
+     * The frames of a burst.
+     */
+    private List<Tcp.Received> burst;
+
+    /**
+     * Spawn the handler and build the frames.
+     */
+    @Setup
+    public void setup() {
+        Log.level(Log.Level.OFF);
+
+        system = ActorSystem.create("bench");
+        handler = system.actorOf(ConnectionHandler.props("127.0.0.1", 6667, new ConnectionState(), new Latencies()));
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < FRAMES * lines; i++) sb.append(REPLIES[i % REPLIES.length]).append("\r\n");
+
+        byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+        int size = data.length / FRAMES;
+        int offset = split ? size / 2 : 0;
+
+        burst = new ArrayList<>();
+        for (int from = 0, frame = 0; frame < FRAMES; frame++) {
+            int to = frame == FRAMES - 1 ? data.length : Math.min(data.length, lineEnd(data, (frame + 1) * size) + offset);
+            burst.add(new Tcp.Received(ByteString.fromArray(data, from, to - from)));
+            from = to;
+        }
+    }
+
+    /**
+     * Get the index behind the line which contains a position.
+     *
+     * @param data the data
+     * @param position the position
+     * @return the index
+     */
+    private static int lineEnd(byte[] data, int position) {
+        int i = Math.min(position, data.length - 1);
+        while (i < data.length && data[i] != '\n') i++;
+
+        return Math.min(data.length, i + 1);
+    }
+
+    /**
+     * Stop the actor system.
+     */
+    @TearDown
+    public void tearDown() {
+        system.terminate();
+    }
+
+    /**
+     * Send a burst and wait until it is processed.
+     *
+     * @return the mark of the reply log
+     * @throws Exception if the handler did not answer
+     */
+    @Benchmark
+    public Object receive() throws Exception {
+        for (Tcp.Received frame : burst) handler.tell(frame, ActorRef.noSender());
+
+        return Patterns.ask(handler, LogQuery.mark(), Duration.ofSeconds(10)).toCompletableFuture().get();
+    }
+}
@@ -0,0 +1,80 @@
+package de.rubenmaurer.punk.core.facade;
+
+import akka.actor.ActorRef;
+import akka.io.Tcp;
+import akka.util.ByteString;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.evaluation.Response;
+import de.rubenmaurer.punk.util.Log;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Client#logOrEmpty(Response)} against a handler which logged a given amount of replies.
+ * Measures the question to the handler, the copy of the answer and the way back.
+ * No server is needed, the replies are handed to the handler as if they were received.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientBenchmark {
+
+    /**
+     * Amount of logged replies with the queried code.
+     */
+    @Param({"1", "64", "512"})
+    public int replies;
+
+    /**
+     * The client.
+     */
+    private Client client;
+
+    /**
+     * Create the client and fill the reply log of its handler.
+     *
+     * @throws Exception if the client could not be created
+     */
+    @Setup
+    public void setup() throws Exception {
+        Log.level(Log.Level.OFF);
+        Session.initiate(Settings.hostname(), Settings.port(), Settings.executable());
+
+        client = Client.create(Client.Preset.MAX);
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < replies; i++) sb.append(String.format(":irc.example.net 353 max = #Blackwell :@max u%d\r\n", i));
+
+        client.async().connection().tell(new Tcp.Received(ByteString.fromString(sb.toString())), ActorRef.noSender());
+
+        int logged = client.async().count(Response.NAME_RPLY.value).toCompletableFuture().get();
+        if (logged != replies) throw new IllegalStateException(String.format("%d of %d replies logged", logged, replies));
+    }
+
+    /**
+     * Terminate the session.
+     */
+    @TearDown
+    public void tearDown() {
+        Session.terminate();
+    }
+
+    /**
+     * Query all logged replies.
+     *
+     * @return the replies
+     */
+    @Benchmark
+    public List<?> logOrEmpty() {
+        return client.logOrEmpty(Response.NAME_RPLY);
+    }
+}
@@ -0,0 +1,117 @@
+package de.rubenmaurer.punk.evaluation.antlr;
+
+import de.rubenmaurer.punk.IRCParser;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.Response;
+import de.rubenmaurer.punk.util.Log;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Parser#parse(ParseRequest)} for each grammar rule used by the evaluation.
+ * The generic response rule is measured twice, once for a reply the fast path accepts and once for
+ * a reply only ANTLR validates.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    /**
+     * The rule to parse with.
+     */
+    @Param({"pong", "quit", "private_message", "notice", "topic", "server_response", "part", "response", "response_fast"})
+    public String rule;
+
+    /**
+     * The request to parse.
+     */
+    private ParseRequest request;
+
+    /**
+     * Build the request and check that it is valid.
+     *
+     * @throws Exception if a client could not be created
+     */
+    @Setup
+    public void setup() throws Exception {
+        Settings.storeOverride("debug", "true");
+        Log.level(Log.Level.OFF);
+
+        Client max = Client.create(Client.Preset.MAX);
+        Client chloe = Client.create(Client.Preset.CHLOE);
+
+        Map<String, String> values = new HashMap<>();
+        values.put("channel", "#Blackwell");
+        values.put("target", "#Blackwell");
+        values.put("topic", "Everyday Heroes");
+        values.put("message", "Wowser");
+
+        switch (rule) {
+            case "pong":
+                request = request(max, max, Response.NONE, "PONG irc.example.net", values, IRCParser.RULE_pong);
+                break;
+            case "quit":
+                values.put("message", "Client Quit");
+                request = request(max, max, Response.NONE, "ERROR :Closing Link: irc.example.net (Client Quit)", values, IRCParser.RULE_quit);
+                break;
+            case "private_message":
+                request = request(chloe, max, Response.NONE, ":chloe!elisabeth@irc.example.net PRIVMSG #Blackwell :Wowser", values, IRCParser.RULE_private_message);
+                break;
+            case "notice":
+                request = request(chloe, max, Response.NONE, ":chloe!elisabeth@irc.example.net NOTICE #Blackwell :Wowser", values, IRCParser.RULE_notice);
+                break;
+            case "topic":
+                request = request(max, max, Response.TOPIC, ":max!maxine@irc.example.net TOPIC #Blackwell :Everyday Heroes", values, IRCParser.RULE_topic);
+                break;
+            case "server_response":
+                request = request(max, max, Response.NONE, ":max!maxine@irc.example.net JOIN #Blackwell", values, IRCParser.RULE_server_response);
+                break;
+            case "part":
+                request = request(max, max, Response.NONE, ":max!maxine@irc.example.net PART #Blackwell", values, IRCParser.RULE_part);
+                break;
+            case "response":
+                request = request(max, max, Response.TOPIC, ":irc.example.net 332 max #Blackwell :Everyday Heroes", values, IRCParser.RULE_response);
+                break;
+            default:
+                request = request(max, max, Response.WELCOME, ":irc.example.net 001 max :Welcome to the Internet Relay Network max!maxine@localhost", values, IRCParser.RULE_response);
+        }
+
+        Parser.parse(request);
+    }
+
+    /**
+     * Create a request.
+     *
+     * @param sender the sender
+     * @param receiver the receiver
+     * @param code the expected response
+     * @param line the line
+     * @param values the values
+     * @param rule the rule
+     * @return the request
+     */
+    private static ParseRequest request(Client sender, Client receiver, Response code, String line, Map<String, String> values, int rule) {
+        return ParseRequest.create(sender, receiver, code, IrcMessage.parse(line), values).withRule(rule);
+    }
+
+    /**
+     * Parse the request.
+     */
+    @Benchmark
+    public void parse() {
+        Parser.parse(request);
+    }
+}
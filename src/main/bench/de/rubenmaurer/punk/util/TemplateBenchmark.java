@@ -0,0 +1,82 @@
+package de.rubenmaurer.punk.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of every entry of requests.stg, filled with the values a test would use.
+ * Compares {@link Template#get(String)} and {@link Template#render()} with the precompiled {@link Encoder}.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+    /**
+     * The template to render.
+     */
+    @Param({"nick", "user", "whois", "privmsg", "privmsgchannel", "notice", "quit", "join", "part", "topic_set", "topic_get", "who", "names"})
+    public String template;
+
+    /**
+     * Names of the parameters.
+     */
+    private List<String> parameters;
+
+    /**
+     * The values, in the order of the parameters.
+     */
+    private String[] values;
+
+    /**
+     * Pick the values for the template.
+     */
+    @Setup
+    public void setup() {
+        parameters = Encoder.get(template).parameters();
+        values = new String[parameters.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            switch (parameters.get(i)) {
+                case "nickname": values[i] = "chloe"; break;
+                case "username": values[i] = "maxine"; break;
+                case "fullname": values[i] = "Maxine Caulfield"; break;
+                case "channel": values[i] = "Blackwell"; break;
+                case "topic": values[i] = "Everyday Heroes"; break;
+                default: values[i] = "Wowser";
+            }
+        }
+    }
+
+    /**
+     * Render the template with a string template instance.
+     *
+     * @return the rendered template
+     */
+    @Benchmark
+    public String template() {
+        Template t = Template.get(template);
+        for (int i = 0; i < values.length; i++) t.single(parameters.get(i), values[i]);
+
+        return t.render();
+    }
+
+    /**
+     * Render the precompiled template.
+     *
+     * @return the rendered template
+     */
+    @Benchmark
+    public String encoder() {
+        return Encoder.get(template).render(values);
+    }
+}
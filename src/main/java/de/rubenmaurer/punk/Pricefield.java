@@ -1,5 +1,7 @@
 package de.rubenmaurer.punk;
 
+import de.rubenmaurer.punk.evaluation.antlr.ParsingEngine;
+import de.rubenmaurer.punk.load.LoadLauncher;
 import de.rubenmaurer.punk.util.CLI;
 import de.rubenmaurer.punk.util.Terminal;
 import org.fusesource.jansi.AnsiConsole;
@@ -33,6 +35,12 @@ public class Pricefield {
 
         Terminal.printHeader();
 
+        //Fill the parsers prediction caches before the first test
+        ParsingEngine.warmUp();
+
+        //Run a load scenario instead of the tests
+        if (!Settings.load().equals("none")) LoadLauncher.launch();
+
         //Launch the tests
         TestLauncher.launch();
     }
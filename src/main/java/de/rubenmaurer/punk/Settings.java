@@ -1,5 +1,6 @@
 package de.rubenmaurer.punk;
 
+import de.rubenmaurer.punk.util.Log;
 import de.rubenmaurer.punk.util.Template;
 import de.rubenmaurer.punk.util.Terminal;
 import de.rubenmaurer.punk.util.version.Build;
@@ -45,6 +46,11 @@ public class Settings {
      */
     private static Settings self = new Settings();
 
+    /**
+     * Placeholder inside the start parameters which is replaced by the servers port.
+     */
+    private static final String PORT_PLACEHOLDER = "{port}";
+
     /**
      * Collection of settings overrides.
      */
@@ -148,8 +154,10 @@ public class Settings {
                 }
             }
 
-            System.setErr(new PrintStream(new FileOutputStream(
-                    new File(String.format("%s/%s/pricefield.log", Settings.logs(), Pricefield.runtimeID)))));
+            File log = new File(String.format("%s/%s/pricefield.log", Settings.logs(), Pricefield.runtimeID));
+
+            Log.open(log);
+            System.setErr(new PrintStream(new FileOutputStream(log, true)));
 
         } catch(IOException e) {
             Terminal.printError(e.getMessage());
@@ -258,26 +266,40 @@ public class Settings {
         return "";
     }
 
+    /**
+     * Load a start parameter and insert the servers port.
+     *
+     * @param id parameter id
+     * @param port the port the server should listen on
+     * @return the parameter
+     */
+    private static String parameter(int id, int port) {
+        return parameter(id).replace(PORT_PLACEHOLDER, String.valueOf(port));
+    }
+
     /**
      * Create a server setup for a non-java server.
      *
      * @param server the server
+     * @param port the port the server should listen on
      * @return the setup
      */
-    public static String[] serverSetup(String server) {
+    public static String[] serverSetup(String server, int port) {
         return new String[] {
-                server, parameter(0), parameter(1), parameter(2)
+                server, parameter(0, port), parameter(1, port), parameter(2, port)
         };
     }
+
     /**
      * Create a server setup for a java server.
      *
      * @param server the server
+     * @param port the port the server should listen on
      * @return the setup
      */
-    public static String[] javaServerSetup(String server) {
+    public static String[] javaServerSetup(String server, int port) {
         return new String[] {
-          "java", "-jar", server, parameter(0), parameter(1), parameter(2)
+          "java", "-jar", server, parameter(0, port), parameter(1, port), parameter(2, port)
         };
     }
 
@@ -319,12 +341,36 @@ public class Settings {
     }
 
     /**
-     * Get the max amount of shutdown tries.
+     * Get the amount of parallel workers.
+     *
+     * @return the amount of workers
+     */
+    public static int workers() {
+        String ovr = loadOverride("workers");
+        if (!ovr.equals("none")) {
+            return Math.max(1, Integer.parseInt(ovr));
+        }
+
+        return 1;
+    }
+
+    /**
+     * Run the tests on parallel workers?
+     * Only possible if the servers port can be passed via a start parameter.
+     *
+     * @return run in parallel?
+     */
+    public static boolean parallel() {
+        return workers() > 1 && portConfigurable();
+    }
+
+    /**
+     * Can the servers port be passed via a start parameter?
      *
-     * @return the amount of shutdown tries
+     * @return port configurable?
      */
-    public static int shutdownTries() {
-        return Integer.parseInt(self.internal.getProperty("shutdownTries"));
+    public static boolean portConfigurable() {
+        return parameter(0).contains(PORT_PLACEHOLDER) || parameter(1).contains(PORT_PLACEHOLDER) || parameter(2).contains(PORT_PLACEHOLDER);
     }
 
     /**
@@ -336,6 +382,15 @@ public class Settings {
         return Integer.parseInt(self.internal.getProperty("expectedLines"));
     }
 
+    /**
+     * Get the charset used for the communication with the server.
+     *
+     * @return the charset name
+     */
+    public static String charset() {
+        return self.properties.getProperty("charset", "UTF-8");
+    }
+
     /**
      * Get the timeout.
      *
@@ -354,6 +409,105 @@ public class Settings {
         return Integer.parseInt(self.properties.getProperty("startDelay"));
     }
 
+    /**
+     * Get the regex which marks the server as ready inside its log.
+     *
+     * @return the pattern, empty if none is configured
+     */
+    public static String readyPattern() {
+        return self.properties.getProperty("readyPattern", "");
+    }
+
+    /**
+     * Get the initial backoff between two readiness probes.
+     *
+     * @return the backoff in milliseconds
+     */
+    public static int readyBackoff() {
+        return Integer.parseInt(self.internal.getProperty("readyBackoff"));
+    }
+
+    /**
+     * Get the max backoff between two readiness probes.
+     *
+     * @return the max backoff in milliseconds
+     */
+    public static int readyMaxBackoff() {
+        return Integer.parseInt(self.internal.getProperty("readyMaxBackoff"));
+    }
+
+    /**
+     * Get the connect timeout of a single readiness probe.
+     *
+     * @return the timeout in milliseconds
+     */
+    public static int readyConnectTimeout() {
+        return Integer.parseInt(self.internal.getProperty("readyConnectTimeout"));
+    }
+
+    /**
+     * Get the max. amount of unrequested responses kept per connection.
+     *
+     * @return the amount, 0 for no limit
+     */
+    public static int trashEntries() {
+        return Integer.parseInt(self.internal.getProperty("trashEntries"));
+    }
+
+    /**
+     * Get the max. size of the unrequested responses kept per connection.
+     *
+     * @return the size in bytes, 0 for no limit
+     */
+    public static long trashBytes() {
+        return Long.parseLong(self.internal.getProperty("trashBytes"));
+    }
+
+    /**
+     * Get the max. age of the unrequested responses kept per connection.
+     *
+     * @return the age in seconds, 0 for no limit
+     */
+    public static int trashAge() {
+        return Integer.parseInt(self.internal.getProperty("trashAge"));
+    }
+
+    /**
+     * Get the max. amount of replies with a response code kept per connection.
+     *
+     * @return the amount, 0 for no limit
+     */
+    public static int logEntries() {
+        return Integer.parseInt(self.internal.getProperty("logEntries"));
+    }
+
+    /**
+     * Get the max. size of the replies with a response code kept per connection.
+     *
+     * @return the size in bytes, 0 for no limit
+     */
+    public static long logBytes() {
+        return Long.parseLong(self.internal.getProperty("logBytes"));
+    }
+
+    /**
+     * Get the max. age of the replies with a response code kept per connection.
+     *
+     * @return the age in seconds, 0 for no limit
+     */
+    public static int logAge() {
+        return Integer.parseInt(self.internal.getProperty("logAge"));
+    }
+
+    /**
+     * Get the max. amount of writes waiting for the previous write to be acknowledged, per connection.
+     *
+     * @return the amount
+     */
+    public static int writeQueue() {
+        return Integer.parseInt(self.internal.getProperty("writeQueue"));
+    }
+
     /**
      * Get the debug value.
      *
@@ -363,8 +517,50 @@ public class Settings {
         return Boolean.parseBoolean(loadOverride("log"));
     }
 
+    /**
+     * Get the log level, one of 'off', 'error' or 'debug'.
+     *
+     * @return the log level
+     */
+    public static String logLevel() {
+        return self.properties.getProperty("logLevel", "debug");
+    }
+
+    /**
+     * Get the capacity of the queue holding log events until they are written.
+     *
+     * @return the capacity
+     */
+    public static int logQueue() {
+        return Integer.parseInt(self.internal.getProperty("logQueue"));
+    }
+
+    /**
+     * Validate common numeric replies without ANTLR?
+     *
+     * @return use fast path?
+     */
+    public static boolean fastPath() {
+        return Boolean.parseBoolean(self.internal.getProperty("fastPath", "true"));
+    }
+
+    /**
+     * Parse the replies accepted by the fast path with ANTLR too and compare the results?
+     *
+     * @return check fast path?
+     */
+    public static boolean fastPathCheck() {
+        String ovr = loadOverride("fastPathCheck");
+        if (!ovr.equals("none")) {
+            return Boolean.parseBoolean(ovr);
+        }
+
+        return Boolean.parseBoolean(self.internal.getProperty("fastPathCheck", "false"));
+    }
+
     /**
      * Get the stop delay.
+     * The max seconds to wait for the server to exit and for its port to be released.
      *
      * @return the stop delay
      */
@@ -373,12 +569,147 @@ public class Settings {
     }
 
     /**
-     * Get the amount of expected auth lines.
+     * Get the load scenario to run instead of the tests.
+     *
+     * @return the name of the scenario, 'none' if the tests are run
+     */
+    public static String load() {
+        return loadOverride("load");
+    }
+
+    /**
+     * Get the amount of clients simulated by a load scenario.
+     *
+     * @return the amount of clients
+     */
+    public static int loadClients() {
+        return Integer.parseInt(setting("loadClients", "1000"));
+    }
+
+    /**
+     * Get the amount of clients a load scenario connects per second while ramping up.
+     *
+     * @return the clients per second
+     */
+    public static int loadRate() {
+        return Math.max(1, Integer.parseInt(setting("loadRate", "100")));
+    }
+
+    /**
+     * Get the duration of a load scenario after all clients are connected.
+     *
+     * @return the duration in seconds
+     */
+    public static int loadDuration() {
+        return Integer.parseInt(setting("loadDuration", "60"));
+    }
+
+    /**
+     * Get the mean time a simulated client waits between two commands.
+     *
+     * @return the interval in milliseconds
+     */
+    public static int loadInterval() {
+        return Integer.parseInt(setting("loadInterval", "1000"));
+    }
+
+    /**
+     * Get the amount of channels used by a load scenario.
+     *
+     * @return the amount of channels
+     */
+    public static int loadChannels() {
+        return Math.max(1, Integer.parseInt(setting("loadChannels", "16")));
+    }
+
+    /**
+     * Get the command mix of a load scenario, e.g. 'privmsg:70,join:10,part:10,ping:10'.
+     *
+     * @return the weight of every command
+     */
+    public static String loadMix() {
+        return setting("loadMix", "privmsg:70,join:10,part:10,ping:10");
+    }
+
+    /**
+     * Get the channel sizes swept by the fan-out scenario.
+     *
+     * @return the amounts of members
+     */
+    public static int[] loadMembers() {
+        return Arrays.stream(setting("loadMembers", "10,50,100,500,1000,5000").split(","))
+                .mapToInt(m -> Integer.parseInt(m.trim())).toArray();
+    }
+
+    /**
+     * Get the amount of members sending messages in the fan-out scenario.
+     *
+     * @return the amount of senders
+     */
+    public static int loadSenders() {
+        return Math.max(1, Integer.parseInt(setting("loadSenders", "4")));
+    }
+
+    /**
+     * Get the amount of messages each sender sends in the fan-out scenario.
+     *
+     * @return the amount of messages
+     */
+    public static int loadMessages() {
+        return Integer.parseInt(setting("loadMessages", "25"));
+    }
+
+    /**
+     * Get the amount of loopback source addresses (127.0.0.1, 127.0.0.2, ...) used by the connection storm.
+     * 1 lets the operating system pick the source address.
+     *
+     * @return the amount of source addresses
+     */
+    public static int loadSources() {
+        return Math.max(1, Math.min(254, Integer.parseInt(setting("loadSources", "1"))));
+    }
+
+    /**
+     * Get the seconds between two samples of the server resources in the soak scenario.
+     *
+     * @return the seconds
+     */
+    public static int loadSample() {
+        return Math.max(1, Integer.parseInt(setting("loadSample", "10")));
+    }
+
+    /**
+     * Get the amount of clients which stop reading in the slow consumer scenario.
      *
-     * @return the expected line count
+     * @return the amount of slow clients
      */
-    public static int authLines() {
-        return Integer.parseInt(self.properties.getProperty("authLines"));
+    public static int loadSlow() {
+        return Integer.parseInt(setting("loadSlow", "1"));
+    }
+
+    /**
+     * Get the operation mix of the churn scenario, e.g. 'join:40,part:40,nick:20'.
+     *
+     * @return the mix
+     */
+    public static String loadChurn() {
+        return setting("loadChurn", "join:40,part:40,nick:20");
+    }
+
+    /**
+     * Get a user setting, an override takes precedence.
+     *
+     * @param key the key
+     * @param fallback the value if the setting is missing
+     * @return the value
+     */
+    private static String setting(String key, String fallback) {
+        String ovr = loadOverride(key);
+        if (!ovr.equals("none")) {
+            return ovr;
+        }
+
+        return self.properties.getProperty(key, fallback);
     }
 
     /**
@@ -1,6 +1,10 @@
 package de.rubenmaurer.punk;
 
+import de.rubenmaurer.punk.core.akka.Latencies;
+import de.rubenmaurer.punk.core.facade.Session;
 import de.rubenmaurer.punk.core.junit.PricefieldUnitListener;
+import de.rubenmaurer.punk.evaluation.antlr.Parser;
+import de.rubenmaurer.punk.evaluation.antlr.ParsingEngine;
 import de.rubenmaurer.punk.util.Template;
 import de.rubenmaurer.punk.util.Terminal;
 import org.junit.platform.engine.DiscoverySelector;
@@ -43,7 +47,22 @@ class TestLauncher {
         List<DiscoverySelector> selectors = new LinkedList<>();
 
         Settings.tests().forEach(t -> selectors.add(DiscoverySelectors.selectClass(t)));
-        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request().selectors(selectors).build();
+        LauncherDiscoveryRequestBuilder builder = LauncherDiscoveryRequestBuilder.request().selectors(selectors);
+
+        if (Settings.workers() > 1 && !Settings.parallel()) {
+            System.out.println(Terminal.center(Template.get("NO_PORT_PARAMETER").single("workers", Settings.workers()).render()));
+        }
+
+        // Test classes run concurrently, the tests of a class stay on the thread owning its session
+        if (Settings.parallel()) {
+            builder.configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+                    .configurationParameter("junit.jupiter.execution.parallel.mode.default", "same_thread")
+                    .configurationParameter("junit.jupiter.execution.parallel.mode.classes.default", "concurrent")
+                    .configurationParameter("junit.jupiter.execution.parallel.config.strategy", "fixed")
+                    .configurationParameter("junit.jupiter.execution.parallel.config.fixed.parallelism", String.valueOf(Settings.workers()));
+        }
+
+        LauncherDiscoveryRequest request = builder.build();
 
         org.junit.platform.launcher.Launcher launcher = LauncherFactory.create();
 
@@ -51,7 +70,7 @@ class TestLauncher {
             PrintWriter printer = new PrintWriter(new File(String.format("%s/results.xml", Settings.logs())));
 
             // Register a listener of your choice
-            TestExecutionListener listener = new PricefieldUnitListener();
+            TestExecutionListener listener = new PricefieldUnitListener(Settings.parallel());
             TestExecutionListener sumListener = new LegacyXmlReportGeneratingListener(Paths.get(Settings.logs()), printer);
             launcher.registerTestExecutionListeners(listener);
 
@@ -69,6 +88,26 @@ class TestLauncher {
 
                 System.out.println();
             });
+
+            System.out.println("STARTUP: ");
+            Session.startupTimes().forEach((test, time) -> System.out.println(time < 0
+                    ? String.format("- %s: not ready after %d s", test, Settings.startDelay())
+                    : String.format("- %s: %d ms", test, time)));
+
+            long parses = ParsingEngine.parses();
+            double seconds = ParsingEngine.nanos() / 1e9;
+
+            System.out.println();
+            System.out.println("PARSER: ");
+            System.out.println(String.format("- warm-up: %d lines in %d ms", ParsingEngine.warmUpLines(), ParsingEngine.warmUpTime()));
+            System.out.println(String.format("- parsed: %d lines in %.1f ms (%.0f lines/s)", parses, seconds * 1000, seconds > 0 ? parses / seconds : 0));
+            System.out.println(String.format("- LL fallbacks: %d (%.1f%%)", ParsingEngine.fallbacks(), parses > 0 ? ParsingEngine.fallbacks() * 100.0 / parses : 0));
+            System.out.println(String.format("- fast path: %d accepted, %d handed to ANTLR, %d mismatches",
+                    Parser.fastPathAccepted(), Parser.fastPathRejected(), Parser.fastPathMismatches()));
+
+            System.out.println();
+            System.out.println("LATENCY: ");
+            Latencies.total().summary().forEach(System.out::println);
         } catch (FileNotFoundException e) {
             Terminal.debugErro(e.getMessage());
         }
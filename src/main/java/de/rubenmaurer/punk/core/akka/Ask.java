@@ -1,9 +1,14 @@
 package de.rubenmaurer.punk.core.akka;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents a question to gather data from a {@link ConnectionHandler}.
  * Mainly used for telling the {@link ConnectionHandler} what to send to the irc server,
  * or to gather the last received lines/ log entries.
+ * An ask can carry several messages, those are written to the server at once (pipelined).
  *
  * @author Ruben Maurer
  * @version 1.0
@@ -12,42 +17,75 @@ package de.rubenmaurer.punk.core.akka;
 public class Ask {
 
     /**
-     * The message to ask.
+     * The messages to ask.
      */
-    private String message;
+    private List<String> messages;
 
     /**
-     * Expected lines of the answer.
+     * Condition which completes the answer.
      */
-    private int lineCount;
+    private Expectation expectation;
 
     /**
-     * Getter for the message.
+     * The commands of the messages, e.g. 'USER+NICK'.
+     */
+    private String command;
+
+    /**
+     * Getter for the message, the last one if there are several.
      *
      * @return the message
      */
     public String message() {
-        return message;
+        return messages.get(messages.size() - 1);
+    }
+
+    /**
+     * Getter for all messages.
+     *
+     * @return the immutable list of messages, in the order they are written
+     */
+    public List<String> messages() {
+        return messages;
     }
 
     /**
-     * Getter for the count of lines.
+     * Getter for the expectation.
      *
-     * @return the count of lines.
+     * @return the expectation.
      */
-    int lineCount() {
-        return lineCount;
+    Expectation expectation() {
+        return expectation;
+    }
+
+    /**
+     * Getter for the commands of the messages, joined by '+', used as key for the latencies.
+     *
+     * @return the commands, e.g. 'JOIN' or 'USER+NICK'
+     */
+    String command() {
+        return command;
     }
 
     /**
      * Constructor for constructing a new {@link Ask} object.
      *
-     * @param message the message to ask.
-     * @param lineCount the expected lines.
+     * @param messages the messages to ask.
+     * @param expectation the condition which completes the answer.
      */
-    private Ask(String message, int lineCount) {
-        this.message = message;
-        this.lineCount = lineCount;
+    private Ask(List<String> messages, Expectation expectation) {
+        this.messages = messages;
+        this.expectation = expectation;
+
+        StringBuilder sb = new StringBuilder();
+        for (String message : messages) {
+            // the first word, at most 16 characters, robustness tests send garbage as well
+            int end = message.indexOf(' ');
+            if (sb.length() > 0) sb.append('+');
+            sb.append(message.substring(0, Math.min(end < 0 ? message.length() : end, 16)).toUpperCase());
+        }
+
+        this.command = sb.toString();
     }
 
     /**
@@ -58,6 +96,30 @@ public class Ask {
      * @return the new {@link Ask} object.
      */
     public static Ask create(String message, int lineCount) {
-        return new Ask(message, lineCount);
+        return create(message, Expectation.lines(lineCount));
+    }
+
+    /**
+     * Method for creating a new {@link Ask} object.
+     *
+     * @param message the message to ask.
+     * @param expectation the condition which completes the answer.
+     * @return the new {@link Ask} object.
+     */
+    public static Ask create(String message, Expectation expectation) {
+        return new Ask(Collections.singletonList(message), expectation);
+    }
+
+    /**
+     * Method for creating a new {@link Ask} object with several messages.
+     *
+     * @param messages the messages to ask, must not be empty.
+     * @param expectation the condition which completes the answer to all messages.
+     * @return the new {@link Ask} object.
+     */
+    public static Ask create(List<String> messages, Expectation expectation) {
+        if (messages.isEmpty()) throw new IllegalArgumentException("Nothing to ask");
+
+        return new Ask(Collections.unmodifiableList(new ArrayList<>(messages)), expectation);
     }
 }
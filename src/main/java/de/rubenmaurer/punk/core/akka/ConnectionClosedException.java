@@ -0,0 +1,43 @@
+package de.rubenmaurer.punk.core.akka;
+
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.util.Template;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Answer to an ask whose connection was closed before the expectation was met.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConnectionClosedException extends RuntimeException {
+
+    /**
+     * Messages received for the ask until the connection was closed.
+     */
+    private final List<IrcMessage> response;
+
+    /**
+     * Create a new exception.
+     *
+     * @param remote the server address
+     * @param command the commands of the ask
+     * @param response the messages received for the ask
+     */
+    ConnectionClosedException(InetSocketAddress remote, String command, List<IrcMessage> response) {
+        super(Template.get("CONNECTION_CLOSED").single("remote", remote).single("command", command).render());
+        this.response = response;
+    }
+
+    /**
+     * Get the messages received for the ask until the connection was closed.
+     *
+     * @return the incomplete response
+     */
+    public List<IrcMessage> response() {
+        return response;
+    }
+}
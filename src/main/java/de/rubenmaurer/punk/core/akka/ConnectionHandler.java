@@ -1,26 +1,34 @@
 package de.rubenmaurer.punk.core.akka;
 
-import akka.actor.AbstractActor;
+import akka.actor.AbstractActorWithStash;
 import akka.actor.ActorRef;
 import akka.actor.Props;
+import akka.actor.Status;
 import akka.io.Tcp;
 import akka.io.TcpMessage;
 import akka.util.ByteString;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.core.irc.LineEncoder;
+import de.rubenmaurer.punk.util.Template;
 import de.rubenmaurer.punk.util.Terminal;
 
 import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Class for handling the connection to the irc server.
+ * Writes are acknowledged by the tcp layer, only one is in flight at a time. Writes issued meanwhile wait in
+ * a bounded queue and are sent together once the previous write was acknowledged.
+ * Messages arriving while the connection is still being established are stashed until it is.
  *
  * @author Ruben Maurer
  * @version 1.0
  * @since 1.0
  */
-public class ConnectionHandler extends AbstractActor {
+public class ConnectionHandler extends AbstractActorWithStash {
 
     /**
      * IRC server address
@@ -37,25 +45,81 @@ public class ConnectionHandler extends AbstractActor {
      */
     private ActorRef manager;
 
+    /**
+     * Time the connect command was handed to the tcp layer, see {@link System#nanoTime()}.
+     */
+    private long connecting;
+
+    /**
+     * Did the connect fail?
+     */
+    private boolean unreachable;
+
+    /**
+     * State of the connection, updated for the clients
+     */
+    private ConnectionState state;
+
     /**
      * Actor which sends an ask
      */
     private ActorRef questioner;
 
     /**
-     * Expected response lines
+     * Condition which completes the current response
+     */
+    private Expectation expectation;
+
+    /**
+     * Commands of the current ask, null if there is none.
+     */
+    private String command;
+
+    /**
+     * Time the messages of the current ask were handed to the tcp layer, see {@link System#nanoTime()},
+     * 0 while they wait in the write queue. Time spent in the queue is not part of the latencies.
+     */
+    private long asked;
+
+    /**
+     * Time the first byte after the current ask was received, 0 if nothing was received yet.
+     */
+    private long firstByte;
+
+    /**
+     * Latencies of the server, shared by the handlers of a session.
      */
-    private int expectedLines;
+    private Latencies latencies;
+
+    /**
+     * Notified about every received message, null if there is none.
+     */
+    private Listener listener;
 
     /**
      * Response
      */
-    private String response = "";
+    private List<IrcMessage> response = new ArrayList<>();
+
+    /**
+     * Splits the received data into lines.
+     */
+    private LineFramer framer = new LineFramer();
+
+    /**
+     * Charset used for en- and decoding messages.
+     */
+    private Charset charset;
+
+    /**
+     * Encodes outgoing lines.
+     */
+    private LineEncoder lines;
 
     /**
      * Received 'trash'.
      */
-    private LinkedList<String> trash;
+    private RingBuffer<List<IrcMessage>> trash = new RingBuffer<>(Retention.trash(), Retention::size);
 
     /**
      * Incoming data is trash?
@@ -63,21 +127,107 @@ public class ConnectionHandler extends AbstractActor {
     private boolean trashing = true;
 
     /**
-     * Map for storing every received message which includes a status code.
+     * Log of every received numeric reply.
+     */
+    private ReplyLog log = new ReplyLog(Retention.log());
+
+    /**
+     * Writes waiting for the previous write to be acknowledged.
      */
-    private Map<Integer, LinkedList<String>> log;
+    private Deque<Outgoing> queue = new ArrayDeque<>();
+
+    /**
+     * Max. amount of queued writes.
+     */
+    private int capacity;
+
+    /**
+     * The write in flight, null if there is none.
+     */
+    private Outgoing writing;
+
+    /**
+     * Was writing suspended by a rejected write?
+     */
+    private boolean suspended;
+
+    /**
+     * Write counters, see {@link ConnectionState}.
+     */
+    private long written, queued, failed, resumed, overflowed, lost;
+
+    /**
+     * Writes dropped since the queue became full, 0 if it is not full.
+     */
+    private long dropping;
+
+    /**
+     * Event sent by the tcp layer once a write was handed to the operating system.
+     */
+    private static final class Ack implements Tcp.Event {
+
+        /**
+         * The only instance.
+         */
+        static final Ack INSTANCE = new Ack();
+    }
+
+    /**
+     * Data of a write together with the amount of lines it contains and whether it carries an ask.
+     */
+    private static final class Outgoing {
+
+        /**
+         * The encoded lines.
+         */
+        final ByteString data;
+
+        /**
+         * Amount of lines.
+         */
+        final int lines;
+
+        /**
+         * Does the write carry the messages of an ask?
+         */
+        final boolean ask;
+
+        /**
+         * Time the write was handed to the tcp layer, see {@link System#nanoTime()}, 0 while it is queued.
+         */
+        long sent;
+
+        /**
+         * Create a new write.
+         *
+         * @param data the encoded lines
+         * @param lines the amount of lines
+         * @param ask carries the messages of an ask?
+         */
+        Outgoing(ByteString data, int lines, boolean ask) {
+            this.data = data;
+            this.lines = lines;
+            this.ask = ask;
+        }
+    }
 
     /**
      * Instantiates a new Connection handler.
      *
      * @param host the host
      * @param port the port
+     * @param state the state to keep up to date
+     * @param latencies the latencies to record into
+     * @param capacity max. amount of queued writes
      */
-    public ConnectionHandler(String host, int port) {
+    public ConnectionHandler(String host, int port, ConnectionState state, Latencies latencies, int capacity) {
         this.remote = new InetSocketAddress(host, port);
+        this.state = state;
+        this.latencies = latencies;
         this.manager = Tcp.get(getContext().getSystem()).getManager();
-        this.trash = new LinkedList<>();
-        this.log = new HashMap<>();
+        this.charset = Charset.forName(Settings.charset());
+        this.lines = new LineEncoder(charset);
+        this.capacity = capacity;
     }
 
     /**
@@ -85,33 +235,154 @@ public class ConnectionHandler extends AbstractActor {
      */
     private void connect() {
         this.questioner = getSender();
+        this.connecting = System.nanoTime();
         this.manager.tell(TcpMessage.connect(remote), getSelf());
     }
 
     /**
-     * Count the lines in a given string.
+     * Establish connection between client and server from a given local address.
+     * Lets many connections use several source addresses, each one has its own range of ephemeral ports.
+     *
+     * @param local the local address, port 0 picks any free port
+     */
+    private void connect(InetSocketAddress local) {
+        this.questioner = getSender();
+        this.connecting = System.nanoTime();
+        this.manager.tell(TcpMessage.connect(remote, local, Collections.emptyList(), Duration.ofSeconds(Settings.timeout()), false), getSelf());
+    }
+
+    /**
+     * Is the connection still being established?
+     *
+     * @return a connect was issued and neither succeeded nor failed yet?
+     */
+    private boolean establishing() {
+        return remoteActor == null && connecting != 0 && !unreachable;
+    }
+
+    /**
+     * Get the error for messages which can not be written because there is no connection.
+     *
+     * @param messages the messages
+     * @return the error
+     */
+    private String notConnected(List<String> messages) {
+        return Template.get("NOT_CONNECTED").single("remote", remote).single("message", String.join(" | ", messages)).render();
+    }
+
+    /**
+     * Get an immutable copy of the current response.
+     *
+     * @return the response
+     */
+    private List<IrcMessage> answer() {
+        return Collections.unmodifiableList(new ArrayList<>(response));
+    }
+
+    /**
+     * Write messages to the server with a single write.
+     * The write is queued if another one is in flight.
+     * A full queue is reported once when it starts dropping writes and once with the count when it accepts them again,
+     * the dropped messages themselves are only logged on debug level.
      *
-     * @param lines the string
-     * @return line count
+     * @param messages the messages
+     * @param ask are the messages of an ask?
+     * @return the written or queued write, null if the queue is full and the messages were dropped
      */
-    private int getLineCount(String lines) {
-        return lines.split("\r\n").length;
+    private Outgoing write(List<String> messages, boolean ask) {
+        Outgoing outgoing = new Outgoing(lines.encode(messages), messages.size(), ask);
+
+        if (writing == null && !suspended) {
+            send(outgoing);
+        } else if (queue.size() < capacity) {
+            queue.add(outgoing);
+            queued++;
+        } else {
+            if (dropping++ == 0) Terminal.debugErro(overflow(messages));
+            messages.forEach(Terminal::debugDrop);
+
+            overflowed++;
+            updateWrites();
+            return null;
+        }
+
+        if (dropping > 0) {
+            Terminal.debugErro(Template.get("WRITE_QUEUE_DRAINED").single("count", dropping).render());
+            dropping = 0;
+        }
+
+        messages.forEach(Terminal::debugSend);
+        updateWrites();
+        return outgoing;
     }
 
     /**
-     * Detect irc codes in strings.
+     * Hand a write to the tcp layer, acknowledged by an {@link Ack}.
+     * The latencies of an ask are measured from here on.
      *
-     * @param message the message to search
-     * @return the code which was found
-     */
-    private int detectCode(String message) {
-        Matcher matcher = Pattern.compile(" \\d{3} ").matcher(message);
-        if (matcher.find()) {
-            String match = matcher.group().trim();
-            return Integer.parseInt(match);
+     * @param outgoing the write
+     */
+    private void send(Outgoing outgoing) {
+        outgoing.sent = System.nanoTime();
+        if (outgoing.ask) asked = outgoing.sent;
+
+        writing = outgoing;
+        this.remoteActor.tell(TcpMessage.write(outgoing.data, Ack.INSTANCE), self());
+    }
+
+    /**
+     * Send all queued writes as a single write.
+     */
+    private void sendQueued() {
+        if (queue.isEmpty()) return;
+        if (queue.size() == 1) {
+            send(queue.poll());
+            return;
         }
 
-        return -1;
+        ByteString data = ByteString.emptyByteString();
+        int count = 0;
+        boolean ask = false;
+
+        while (!queue.isEmpty()) {
+            Outgoing outgoing = queue.poll();
+            data = data.concat(outgoing.data);
+            count += outgoing.lines;
+            ask |= outgoing.ask;
+        }
+
+        send(new Outgoing(data, count, ask));
+    }
+
+    /**
+     * Get the error for messages dropped because the write queue is full.
+     *
+     * @param messages the dropped messages
+     * @return the error
+     */
+    private String overflow(List<String> messages) {
+        return Template.get("WRITE_QUEUE_FULL").single("capacity", capacity)
+                .single("message", String.join(" | ", messages)).render();
+    }
+
+    /**
+     * Publish the write counters.
+     */
+    private void updateWrites() {
+        state.writes(written, queued, failed, resumed, overflowed, lost);
+    }
+
+    /**
+     * Account for the writes which can not be acknowledged anymore because the connection was closed.
+     * They are reported instead of silently vanishing, they were already logged as sent.
+     */
+    private void discardWrites() {
+        if (writing != null) lost += writing.lines;
+        while (!queue.isEmpty()) lost += queue.poll().lines;
+        writing = null;
+
+        if (lost > 0) Terminal.debugErro(Template.get("WRITES_LOST").single("remote", remote).single("count", lost).render());
+        updateWrites();
     }
 
     /**
@@ -122,73 +393,161 @@ public class ConnectionHandler extends AbstractActor {
     public Receive createReceive() {
         return receiveBuilder()
                 .match(Ask.class, ask -> {
+                    if (establishing()) {
+                        stash();
+                        return;
+                    }
+
+                    if (this.remoteActor == null) {
+                        getSender().tell(new Status.Failure(new IllegalStateException(notConnected(ask.messages()))), self());
+                        return;
+                    }
+
+                    Outgoing outgoing = write(ask.messages(), true);
+                    if (outgoing == null) {
+                        getSender().tell(new Status.Failure(new IllegalStateException(overflow(ask.messages()))), self());
+                        return;
+                    }
+
+                    // the previous ask was abandoned by its questioner
+                    if (!trashing) latencies.unanswered(command);
+
                     questioner = getSender();
-                    expectedLines = ask.lineCount();
+                    expectation = ask.expectation();
                     trashing = false;
+                    command = ask.command();
+                    asked = outgoing.sent;
+                    firstByte = 0;
 
-                    self().tell(ask.message(), self());
+                    // nothing to wait for, e.g. a message without reply
+                    if (expectation.met()) {
+                        questioner.tell(answer(), self());
+                        expectation = null;
+                        trashing = true;
+                    }
                 })
                 .matchEquals("connect", s -> connect())
-                .matchEquals("connected", s -> getSender().tell(remoteActor != null, self()))
-                .matchEquals("last", s -> getSender().tell(response, self()))
-                .matchEquals("trash", s -> getSender().tell(trash.getLast(), self()))
-                .matchEquals("clear", s -> response = "")
+                .match(InetSocketAddress.class, this::connect)
+                .matchEquals("last", s -> getSender().tell(answer(), self()))
+                .matchEquals("trash", s -> {
+                    List<IrcMessage> last = trash.last(System.currentTimeMillis());
+                    getSender().tell(last != null ? last : Collections.emptyList(), self());
+                })
+                .matchEquals("clear", s -> {
+                    response.clear();
+                })
+                .matchEquals("suspend", s -> {
+                    // the operating system keeps buffering until its receive buffer is full, then the server has to
+                    if (this.remoteActor != null) this.remoteActor.tell(TcpMessage.suspendReading(), self());
+                })
+                .matchEquals("resume", s -> {
+                    if (this.remoteActor != null) this.remoteActor.tell(TcpMessage.resumeReading(), self());
+                })
                 .match(Tcp.Connected.class, s -> {
                     getSender().tell(TcpMessage.register(getSelf()), getSelf());
                     this.remoteActor = getSender();
+                    this.state.connected(System.nanoTime() - connecting);
                     this.questioner.tell(true, self());
+                    unstashAll();
+                })
+                .match(Ack.class, ack -> {
+                    written += writing.lines;
+                    writing = null;
+
+                    sendQueued();
+                    updateWrites();
+                })
+                .match(Tcp.CommandFailed.class, failed -> {
+                    if (failed.cmd() instanceof Tcp.Connect) {
+                        // the stashed messages are answered as failed now
+                        unreachable = true;
+                        this.questioner.tell(false, self());
+                        unstashAll();
+                    }
+
+                    if (failed.cmd() instanceof Tcp.Write && writing != null) {
+                        // retry the rejected write first once the tcp layer accepts writes again
+                        this.failed++;
+                        queue.addFirst(writing);
+                        writing = null;
+                        suspended = true;
+
+                        getSender().tell(TcpMessage.resumeWriting(), self());
+                        updateWrites();
+                    }
+                })
+                .match(Tcp.WritingResumed.class, resume -> {
+                    resumed++;
+                    suspended = false;
+
+                    sendQueued();
+                    updateWrites();
                 })
                 .match(String.class, msg -> {
+                    if (establishing()) {
+                        stash();
+                        return;
+                    }
+
+                    List<String> messages = Collections.singletonList(msg);
                     if (this.remoteActor == null) {
-                        self().tell(msg, getSender());
+                        Terminal.debugErro(notConnected(messages));
                         return;
                     }
 
-                    this.remoteActor.tell(TcpMessage.write(ByteString.fromString(msg.intern() + '\r' + '\n')), sender());
-                    Terminal.debugSend(msg);
+                    write(messages, false);
                 })
-                .match(Integer.class, code -> {
-                    List<String> l = log.getOrDefault(code, new LinkedList<>());
+                .match(Listener.class, l -> listener = l)
+                .match(LogQuery.class, query -> getSender().tell(log.answer(query), self()))
+                .match(Tcp.ConnectionClosed.class, msg -> {
+                    discardWrites();
+                    state.closed();
 
-                    StringBuilder sb = new StringBuilder();
-                    l.forEach(s -> sb.append(String.format("%s;", s)));
+                    // the answer will never arrive, the questioner does not have to wait for its timeout
+                    if (!trashing) {
+                        latencies.unanswered(command);
+
+                        questioner.tell(new Status.Failure(new ConnectionClosedException(remote, command, answer())), self());
+                        trashing = true;
+                        response.clear();
+                    }
 
-                    getSender().tell(sb.toString(), self());
+                    getContext().stop(getSelf());
                 })
-                .match(Tcp.ConnectionClosed.class, msg -> getContext().stop(getSelf()))
                 .match(Tcp.Received.class, msg -> {
-                    String incoming = msg.data().decodeString("US-ASCII");
-                    Terminal.debugRecv(incoming);
+                    long now = System.nanoTime();
+                    if (!trashing && asked != 0 && firstByte == 0) firstByte = now;
 
-                    String[] splitted = incoming.split("\r\n");
+                    List<IrcMessage> incoming = new ArrayList<>();
+                    boolean[] met = { false };
 
-                    for (String split : splitted) {
-                        if (split.isEmpty()) continue;
-                        int code = detectCode(split);
-                        if (code != -1) {
-                            if (log.getOrDefault(code, null) == null) {
-                                log.put(code, new LinkedList<>());
-                            }
+                    framer.feed(msg.data(), bytes -> {
+                        IrcMessage message = IrcMessage.parse(bytes.decodeString(charset));
+                        log.add(message);
+                        if (listener != null) listener.received(message, now);
 
-                            log.get(code).add(split);
+                        if (!trashing && expectation.offer(message)) {
+                            met[0] = true;
                         }
 
-                        Terminal.debugRecv(split);
-                    }
+                        incoming.add(message);
+                        Terminal.debugRecv(message.raw());
+                    });
 
                     if (!trashing) {
-                        response = response.concat(incoming);
+                        response.addAll(incoming);
 
-                        if (getLineCount(response) >= expectedLines) {
-                            questioner.tell(response, self());
+                        if (met[0] || expectation.met()) {
+                            if (asked != 0) latencies.record(command, firstByte - asked, System.nanoTime() - asked);
+                            questioner.tell(answer(), self());
                             trashing = true;
-                            response = "";
+                            response.clear();
                         }
-
-                        return;
+                    } else if (!incoming.isEmpty()) {
+                        trash.add(Collections.unmodifiableList(incoming), System.currentTimeMillis());
                     }
 
-                    trash.add(incoming);
+                    state.evicted(trash.evicted(), log.evicted());
                 }).build();
     }
 
@@ -197,9 +556,25 @@ public class ConnectionHandler extends AbstractActor {
      *
      * @param host the servers hostname
      * @param port the servers port
+     * @param state the state to keep up to date
+     * @param latencies the latencies to record into
+     * @return the properties
+     */
+    static Props props(String host, int port, ConnectionState state, Latencies latencies) {
+        return props(host, port, state, latencies, Settings.writeQueue());
+    }
+
+    /**
+     * Get the props for spawning a new actor with a given write queue capacity.
+     *
+     * @param host the servers hostname
+     * @param port the servers port
+     * @param state the state to keep up to date
+     * @param latencies the latencies to record into
+     * @param capacity max. amount of queued writes
      * @return the properties
      */
-    static Props props(String host, int port) {
-        return Props.create(ConnectionHandler.class, host, port);
+    static Props props(String host, int port, ConnectionState state, Latencies latencies, int capacity) {
+        return Props.create(ConnectionHandler.class, host, port, state, latencies, capacity);
     }
 }
@@ -23,24 +23,32 @@ public class ConnectionManager extends AbstractActor {
      */
     private int port;
 
+    /**
+     * Latencies recorded by the connection handlers
+     */
+    private Latencies latencies;
+
     /**
      * Instantiates a new Connection manager.
      *
      * @param host the host
      * @param port the port
+     * @param latencies the latencies recorded by the connection handlers
      */
-    public ConnectionManager(String host, int port) {
+    public ConnectionManager(String host, int port, Latencies latencies) {
         this.host = host;
         this.port = port;
+        this.latencies = latencies;
     }
 
     /**
      * Spawn a new connection handler.
      *
+     * @param state the state the handler keeps up to date
      * @return the connection handler
      */
-    private ActorRef createClient() {
-        return context().actorOf(ConnectionHandler.props(host, port));
+    private ActorRef createClient(ConnectionState state) {
+        return context().actorOf(ConnectionHandler.props(host, port, state, latencies));
     }
 
     /**
@@ -50,7 +58,7 @@ public class ConnectionManager extends AbstractActor {
      */
     public Receive createReceive() {
         return receiveBuilder()
-                .matchEquals("connection-request", s -> sender().tell(createClient(), self()))
+                .match(ConnectionState.class, state -> sender().tell(createClient(state), self()))
                 .build();
     }
 
@@ -59,9 +67,10 @@ public class ConnectionManager extends AbstractActor {
      *
      * @param host the servers hostname
      * @param port the servers port
+     * @param latencies the latencies recorded by the connection handlers
      * @return the properties
      */
-    public static Props props(String host, int port) {
-        return Props.create(ConnectionManager.class, host, port);
+    public static Props props(String host, int port, Latencies latencies) {
+        return Props.create(ConnectionManager.class, host, port, latencies);
     }
 }
@@ -0,0 +1,219 @@
+package de.rubenmaurer.punk.core.akka;
+
+/**
+ * State of a single connection to the irc server.
+ * Written by the {@link ConnectionHandler} whenever the connection changes,
+ * so clients can read it at any time without asking the actor.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConnectionState {
+
+    /**
+     * Is the connection established?
+     */
+    private volatile boolean connected;
+
+    /**
+     * Was the connection closed?
+     */
+    private volatile boolean closed;
+
+    /**
+     * Time from the connect command to the established connection in nanoseconds.
+     */
+    private volatile long connectTime;
+
+    /**
+     * Amount of unrequested responses evicted from the trash.
+     */
+    private volatile long trashEvicted;
+
+    /**
+     * Amount of replies evicted from the reply log.
+     */
+    private volatile long logEvicted;
+
+    /**
+     * Amount of lines whose write was acknowledged.
+     */
+    private volatile long written;
+
+    /**
+     * Amount of writes which had to wait for the previous one.
+     */
+    private volatile long queued;
+
+    /**
+     * Amount of writes rejected by the tcp layer.
+     */
+    private volatile long failed;
+
+    /**
+     * Amount of times writing was resumed after a rejected write.
+     */
+    private volatile long resumed;
+
+    /**
+     * Amount of writes dropped because the queue was full.
+     */
+    private volatile long overflowed;
+
+    /**
+     * Amount of lines never written because the connection was closed.
+     */
+    private volatile long lost;
+
+    /**
+     * Is the connection established?
+     *
+     * @return connection established?
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Was the connection closed, either by the client or the server?
+     *
+     * @return connection closed?
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Get the time the connection took to be established, from handing the connect command to the tcp layer
+     * until the tcp layer reported the connection.
+     *
+     * @return the time in nanoseconds, 0 if the connection is not established yet
+     */
+    public long connectTime() {
+        return connectTime;
+    }
+
+    /**
+     * Get the amount of unrequested responses evicted from the trash.
+     *
+     * @return the amount
+     */
+    public long trashEvicted() {
+        return trashEvicted;
+    }
+
+    /**
+     * Get the amount of replies evicted from the reply log.
+     *
+     * @return the amount
+     */
+    public long logEvicted() {
+        return logEvicted;
+    }
+
+    /**
+     * Get the amount of lines whose write was acknowledged by the tcp layer.
+     * Every line counted here was handed to the operating system.
+     *
+     * @return the amount
+     */
+    public long written() {
+        return written;
+    }
+
+    /**
+     * Get the amount of writes which had to wait for the previous one to be acknowledged.
+     *
+     * @return the amount
+     */
+    public long queued() {
+        return queued;
+    }
+
+    /**
+     * Get the amount of writes rejected by the tcp layer, they are retried after writing was resumed.
+     *
+     * @return the amount
+     */
+    public long failed() {
+        return failed;
+    }
+
+    /**
+     * Get the amount of times writing was resumed after a rejected write.
+     *
+     * @return the amount
+     */
+    public long resumed() {
+        return resumed;
+    }
+
+    /**
+     * Get the amount of writes dropped because the write queue was full.
+     *
+     * @return the amount
+     */
+    public long overflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Get the amount of lines which were queued or in flight when the connection was closed.
+     * They were never acknowledged, so they are not part of {@link #written()}.
+     *
+     * @return the amount
+     */
+    public long lost() {
+        return lost;
+    }
+
+    /**
+     * Update the write counters.
+     * Only called by the connection handler, so there is a single writer.
+     *
+     * @param written acknowledged lines
+     * @param queued queued writes
+     * @param failed rejected writes
+     * @param resumed resumed writes
+     * @param overflowed dropped writes
+     * @param lost lines lost by closing the connection
+     */
+    void writes(long written, long queued, long failed, long resumed, long overflowed, long lost) {
+        this.written = written;
+        this.queued = queued;
+        this.failed = failed;
+        this.resumed = resumed;
+        this.overflowed = overflowed;
+        this.lost = lost;
+    }
+
+    /**
+     * Update the eviction counters.
+     *
+     * @param trash evicted unrequested responses
+     * @param log evicted replies
+     */
+    void evicted(long trash, long log) {
+        trashEvicted = trash;
+        logEvicted = log;
+    }
+
+    /**
+     * Mark the connection as established.
+     *
+     * @param time the time the connection took to be established in nanoseconds
+     */
+    void connected(long time) {
+        connectTime = time;
+        connected = true;
+    }
+
+    /**
+     * Mark the connection as closed.
+     */
+    void closed() {
+        connected = false;
+        closed = true;
+    }
+}
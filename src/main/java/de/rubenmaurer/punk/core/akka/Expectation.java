@@ -0,0 +1,284 @@
+package de.rubenmaurer.punk.core.akka;
+
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.Response;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Condition which completes an {@link Ask}.
+ * Every message received after the question was sent is offered to the expectation,
+ * the answer is complete as soon as the expectation is met.
+ * Expectations keep track of what they have seen, so each one is only used for a single {@link Ask}.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class Expectation {
+
+    /**
+     * Offer a received message.
+     *
+     * @param message the message
+     * @return expectation met?
+     */
+    abstract boolean offer(IrcMessage message);
+
+    /**
+     * Is the expectation met without seeing any further message?
+     *
+     * @return expectation met?
+     */
+    boolean met() {
+        return false;
+    }
+
+    /**
+     * Get the amount of leading messages up to and including the one which meets this expectation.
+     * Splits the response to pipelined messages, e.g. the welcome burst from the reply to a following join.
+     * Offers the messages to this expectation, so it has to be a fresh one.
+     *
+     * @param messages the messages
+     * @return the amount, the amount of all messages if the expectation is never met
+     */
+    public int end(List<IrcMessage> messages) {
+        for (int i = 0; i < messages.size(); i++) {
+            if (offer(messages.get(i))) return i + 1;
+        }
+
+        return messages.size();
+    }
+
+    /**
+     * Create an expectation which is met if either this or another expectation is met.
+     *
+     * @param other the other expectation
+     * @return the combined expectation
+     */
+    public Expectation or(Expectation other) {
+        Expectation self = this;
+
+        return new Expectation() {
+            @Override
+            boolean offer(IrcMessage message) {
+                // both sides have to see every message
+                boolean first = self.offer(message);
+                return other.offer(message) || first;
+            }
+
+            @Override
+            boolean met() {
+                return self.met() || other.met();
+            }
+
+            @Override
+            public String toString() {
+                return String.format("%s or %s", self, other);
+            }
+        };
+    }
+
+    /**
+     * Create an expectation which is met once this and then another expectation are met.
+     * Messages are offered to this expectation until it is met, all following messages to the other one.
+     * Used for pipelined messages, whose replies arrive in the order the messages were sent.
+     *
+     * @param next the expectation for the replies to the following messages
+     * @return the combined expectation
+     */
+    public Expectation then(Expectation next) {
+        Expectation self = this;
+
+        return new Expectation() {
+            private boolean first;
+            private boolean second;
+
+            @Override
+            boolean offer(IrcMessage message) {
+                if (first || self.met()) {
+                    first = true;
+                    second = second || next.offer(message);
+                } else {
+                    first = self.offer(message);
+                }
+
+                return met();
+            }
+
+            @Override
+            boolean met() {
+                return second || ((first || self.met()) && next.met());
+            }
+
+            @Override
+            public String toString() {
+                return String.format("%s then %s", self, next);
+            }
+        };
+    }
+
+    /**
+     * Expect a number of lines.
+     *
+     * @param count the amount of lines
+     * @return the expectation
+     */
+    public static Expectation lines(int count) {
+        return new Expectation() {
+            private int seen;
+
+            @Override
+            boolean offer(IrcMessage message) {
+                return ++seen >= count;
+            }
+
+            @Override
+            boolean met() {
+                return seen >= count;
+            }
+
+            @Override
+            public String toString() {
+                return String.format("%d lines", count);
+            }
+        };
+    }
+
+    /**
+     * Expect a numeric reply with one of the given codes.
+     *
+     * @param responses the responses
+     * @return the expectation
+     */
+    public static Expectation reply(Response... responses) {
+        return reply(Arrays.stream(responses).mapToInt(r -> r.value).toArray());
+    }
+
+    /**
+     * Expect a numeric reply with one of the given codes.
+     *
+     * @param codes the codes
+     * @return the expectation
+     */
+    public static Expectation reply(int... codes) {
+        return new Expectation() {
+            @Override
+            boolean offer(IrcMessage message) {
+                for (int c : codes) {
+                    if (c == message.numeric()) return true;
+                }
+
+                return false;
+            }
+
+            @Override
+            public String toString() {
+                return String.format("reply %s", Arrays.stream(codes).mapToObj(c -> String.format("%03d", c)).collect(Collectors.joining("/")));
+            }
+        };
+    }
+
+    /**
+     * Expect an error reply (code 400 to 599).
+     *
+     * @return the expectation
+     */
+    public static Expectation error() {
+        return new Expectation() {
+            @Override
+            boolean offer(IrcMessage message) {
+                return message.numeric() >= 400 && message.numeric() < 600;
+            }
+
+            @Override
+            public String toString() {
+                return "error reply";
+            }
+        };
+    }
+
+    /**
+     * Expect no reply at all, the response collects whatever arrives until the timeout.
+     * The first message ends the wait early, the response then shows the unexpected reply.
+     *
+     * @return the expectation
+     */
+    public static Expectation silence() {
+        return new Expectation() {
+            @Override
+            boolean offer(IrcMessage message) {
+                return true;
+            }
+
+            @Override
+            public String toString() {
+                return "no reply";
+            }
+        };
+    }
+
+    /**
+     * Expect a message containing a match of the given regex.
+     *
+     * @param regex the regex
+     * @return the expectation
+     */
+    public static Expectation matching(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+
+        return new Expectation() {
+            @Override
+            boolean offer(IrcMessage message) {
+                return pattern.matcher(message.raw()).find();
+            }
+
+            @Override
+            public String toString() {
+                return String.format("line matching '%s'", regex);
+            }
+        };
+    }
+
+    /**
+     * Expect a message with the given command, e.g. PONG or JOIN.
+     *
+     * @param command the command
+     * @return the expectation
+     */
+    public static Expectation command(String command) {
+        return new Expectation() {
+            @Override
+            boolean offer(IrcMessage message) {
+                return message.is(command);
+            }
+
+            @Override
+            public String toString() {
+                return command;
+            }
+        };
+    }
+
+    /**
+     * Expect the end of the welcome burst sent after a successful authentication,
+     * or an error, e.g. the rejection of the nickname.
+     *
+     * @return the expectation
+     */
+    public static Expectation welcome() {
+        return reply(Response.END_OF_MOTD, Response.NO_MOTD).or(error());
+    }
+
+    /**
+     * Expect the end of the names list sent after joining a channel, or an error.
+     *
+     * @return the expectation
+     */
+    public static Expectation joined() {
+        return reply(Response.END_OF_NAMES).or(error());
+    }
+}
@@ -0,0 +1,166 @@
+package de.rubenmaurer.punk.core.akka;
+
+import de.rubenmaurer.punk.Pricefield;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.util.Histogram;
+import de.rubenmaurer.punk.util.Terminal;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of the server, per command.
+ * Every {@link ConnectionHandler} records the time from writing a question until the first byte of the answer
+ * and until its expectation was met. Questions without an answer are counted as unanswered.
+ * Recording is lock-free, the handlers of a session share one instance.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Latencies {
+
+    /**
+     * The latencies of all sessions.
+     */
+    private static final Latencies total = new Latencies();
+
+    /**
+     * The latencies by command.
+     */
+    private final Map<String, Entry> commands = new ConcurrentSkipListMap<>();
+
+    /**
+     * Latencies of a single command.
+     */
+    private static final class Entry {
+
+        /**
+         * Microseconds until the first byte of the answer.
+         */
+        final Histogram firstByte = new Histogram();
+
+        /**
+         * Microseconds until the expectation was met.
+         */
+        final Histogram complete = new Histogram();
+
+        /**
+         * Amount of questions without an answer.
+         */
+        final LongAdder unanswered = new LongAdder();
+    }
+
+    /**
+     * Get the latencies of all sessions which ended so far.
+     *
+     * @return the latencies
+     */
+    public static Latencies total() {
+        return total;
+    }
+
+    /**
+     * Get the entry of a command.
+     *
+     * @param command the command
+     * @return the entry
+     */
+    private Entry entry(String command) {
+        return commands.computeIfAbsent(command.isEmpty() ? "<empty>" : command, c -> new Entry());
+    }
+
+    /**
+     * Record an answered question.
+     *
+     * @param command the command
+     * @param firstByte nanoseconds from the write until the first byte, negative if nothing was received
+     * @param complete nanoseconds from the write until the expectation was met
+     */
+    void record(String command, long firstByte, long complete) {
+        Entry entry = entry(command);
+
+        if (firstByte >= 0) entry.firstByte.record(TimeUnit.NANOSECONDS.toMicros(firstByte));
+        entry.complete.record(TimeUnit.NANOSECONDS.toMicros(complete));
+    }
+
+    /**
+     * Record a question without an answer.
+     *
+     * @param command the command
+     */
+    void unanswered(String command) {
+        entry(command).unanswered.increment();
+    }
+
+    /**
+     * Add the latencies of another instance.
+     *
+     * @param other the other latencies
+     */
+    public void add(Latencies other) {
+        other.commands.forEach((command, o) -> {
+            Entry entry = entry(command);
+
+            entry.firstByte.add(o.firstByte);
+            entry.complete.add(o.complete);
+            entry.unanswered.add(o.unanswered.sum());
+        });
+    }
+
+    /**
+     * Get a line per command with the amount of answers and the percentiles.
+     *
+     * @return the lines, sorted by command
+     */
+    public List<String> summary() {
+        List<String> lines = new ArrayList<>();
+
+        commands.forEach((command, entry) -> lines.add(entry.complete.count() == 0
+                ? String.format("- %s: 0, %d unanswered", command, entry.unanswered.sum())
+                : String.format("- %s: %d, first byte p50 %s, p99 %s, complete p50 %s, p99 %s, max %s, %d unanswered",
+                        command, entry.complete.count(), millis(entry.firstByte.percentile(50)), millis(entry.firstByte.percentile(99)),
+                        millis(entry.complete.percentile(50)), millis(entry.complete.percentile(99)), millis(entry.complete.max()),
+                        entry.unanswered.sum())));
+
+        return lines;
+    }
+
+    /**
+     * Format microseconds as milliseconds.
+     *
+     * @param micros the microseconds
+     * @return the formatted milliseconds
+     */
+    private static String millis(long micros) {
+        return String.format("%.3f ms", micros / 1000.0);
+    }
+
+    /**
+     * Append the latencies of a test class to 'latency.log' and add them to the total.
+     *
+     * @param test the name of the test class
+     */
+    public void publish(String test) {
+        total.add(this);
+        if (commands.isEmpty()) return;
+
+        List<String> lines = summary();
+        synchronized (total) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(String.format("%s/%s/latency.log", Settings.logs(), Pricefield.runtimeID), true))) {
+                out.println(String.format("%s: ", test));
+                lines.forEach(out::println);
+                out.println();
+            } catch (IOException e) {
+                Terminal.debugErro(e.getMessage());
+            }
+        }
+    }
+}
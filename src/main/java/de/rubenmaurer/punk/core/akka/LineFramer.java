@@ -0,0 +1,97 @@
+package de.rubenmaurer.punk.core.akka;
+
+import akka.util.ByteString;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits the byte stream received from the irc server into lines.
+ * Works directly on the received {@link ByteString}s, so complete lines are
+ * only slices of the received data. A line split across two segments is kept
+ * until its end arrives. Lines are terminated by LF, a preceding CR is dropped.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+class LineFramer {
+
+    /**
+     * Carriage return.
+     */
+    private static final byte CR = '\r';
+
+    /**
+     * Line feed.
+     */
+    private static final byte LF = '\n';
+
+    /**
+     * Received bytes not terminated by a line feed yet.
+     */
+    private ByteString pending = ByteString.empty();
+
+    /**
+     * Amount of lines emitted so far.
+     */
+    private long lineCount;
+
+    /**
+     * Getter for the amount of lines emitted so far.
+     *
+     * @return the line count
+     */
+    long lineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Getter for the amount of buffered bytes which do not form a complete line yet.
+     *
+     * @return the amount of bytes
+     */
+    int pending() {
+        return pending.length();
+    }
+
+    /**
+     * Feed a received segment into the framer.
+     * Every line completed by this segment is passed to the sink exactly once,
+     * without its line terminator. Empty lines are skipped.
+     *
+     * @param data the received segment
+     * @param sink the consumer for the completed lines
+     * @return the amount of lines completed by this segment
+     */
+    int feed(ByteString data, Consumer<ByteString> sink) {
+        int completed = 0;
+        int from = 0;
+        int end;
+
+        while ((end = data.indexOf(LF, from)) >= 0) {
+            ByteString line = data.slice(from, end);
+            from = end + 1;
+
+            if (!pending.isEmpty()) {
+                line = pending.concat(line);
+                pending = ByteString.empty();
+            }
+
+            if (!line.isEmpty() && line.apply(line.length() - 1) == CR) {
+                line = line.take(line.length() - 1);
+            }
+
+            if (line.isEmpty()) continue;
+
+            lineCount++;
+            completed++;
+            sink.accept(line);
+        }
+
+        if (from < data.length()) {
+            pending = pending.concat(data.drop(from));
+        }
+
+        return completed;
+    }
+}
@@ -0,0 +1,23 @@
+package de.rubenmaurer.punk.core.akka;
+
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+
+/**
+ * Listener notified by a {@link ConnectionHandler} about every received message, whether requested or not.
+ * Called on the thread of the handler, so it has to be cheap and thread-safe.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface Listener {
+
+    /**
+     * A message was received.
+     *
+     * @param message the message
+     * @param time the time the data was received, see {@link System#nanoTime()}
+     */
+    void received(IrcMessage message, long time);
+}
@@ -0,0 +1,169 @@
+package de.rubenmaurer.punk.core.akka;
+
+/**
+ * Represents a query for the replies a {@link ConnectionHandler} has logged.
+ * The answer is an immutable list of lines, or a number for count and mark queries.
+ * A latest query answers several codes at once, so all its replies come from the same state of the log.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public class LogQuery {
+
+    /**
+     * The kinds of queries.
+     */
+    enum Type {
+        ALL, LAST, COUNT, MARK, SINCE, LATEST
+    }
+
+    /**
+     * The kind of the query.
+     */
+    private Type type;
+
+    /**
+     * The queried response code.
+     */
+    private int code;
+
+    /**
+     * The amount of queried lines.
+     */
+    private int amount;
+
+    /**
+     * The mark to start from.
+     */
+    private long from;
+
+    /**
+     * The queried response codes of a latest query.
+     */
+    private int[] codes;
+
+    /**
+     * Getter for the type.
+     *
+     * @return the type
+     */
+    Type type() {
+        return type;
+    }
+
+    /**
+     * Getter for the code.
+     *
+     * @return the code
+     */
+    int code() {
+        return code;
+    }
+
+    /**
+     * Getter for the amount.
+     *
+     * @return the amount
+     */
+    int amount() {
+        return amount;
+    }
+
+    /**
+     * Getter for the mark to start from.
+     *
+     * @return the mark
+     */
+    long from() {
+        return from;
+    }
+
+    /**
+     * Getter for the codes of a latest query.
+     *
+     * @return the codes
+     */
+    int[] codes() {
+        return codes;
+    }
+
+    /**
+     * Constructor for constructing a new {@link LogQuery} object.
+     *
+     * @param type the kind of the query
+     * @param code the response code
+     * @param amount the amount of lines
+     * @param from the mark to start from
+     */
+    private LogQuery(Type type, int code, int amount, long from) {
+        this.type = type;
+        this.code = code;
+        this.amount = amount;
+        this.from = from;
+    }
+
+    /**
+     * Query the newest reply of several response codes at once.
+     * The answer holds one entry per code in the same order, an empty message for missing codes.
+     *
+     * @param codes the codes
+     * @return the query
+     */
+    public static LogQuery latest(int... codes) {
+        LogQuery query = new LogQuery(Type.LATEST, 0, 1, 0);
+        query.codes = codes.clone();
+
+        return query;
+    }
+
+    /**
+     * Query all replies with a response code.
+     *
+     * @param code the code
+     * @return the query
+     */
+    public static LogQuery all(int code) {
+        return new LogQuery(Type.ALL, code, 0, 0);
+    }
+
+    /**
+     * Query the last replies with a response code.
+     *
+     * @param code the code
+     * @param amount the max. amount of replies
+     * @return the query
+     */
+    public static LogQuery last(int code, int amount) {
+        return new LogQuery(Type.LAST, code, amount, 0);
+    }
+
+    /**
+     * Query the amount of replies with a response code.
+     *
+     * @param code the code
+     * @return the query
+     */
+    public static LogQuery count(int code) {
+        return new LogQuery(Type.COUNT, code, 0, 0);
+    }
+
+    /**
+     * Query a mark for the current end of the log.
+     *
+     * @return the query
+     */
+    public static LogQuery mark() {
+        return new LogQuery(Type.MARK, 0, 0, 0);
+    }
+
+    /**
+     * Query all replies of any code received after a mark, in the order they were received.
+     *
+     * @param mark the mark
+     * @return the query
+     */
+    public static LogQuery since(long mark) {
+        return new LogQuery(Type.SINCE, 0, 0, mark);
+    }
+}
@@ -0,0 +1,390 @@
+package de.rubenmaurer.punk.core.akka;
+
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stores every received message which is a numeric reply.
+ * The replies are kept in one buffer per code, the buffers are indexed directly by the code.
+ * Every reply gets a sequence number, so the replies received after a mark can be collected.
+ * The log is bounded by a {@link Retention}, the oldest replies of all codes are evicted first, the newest is always kept.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+class ReplyLog {
+
+    /**
+     * Amount of possible response codes.
+     */
+    static final int CODES = 1000;
+
+    /**
+     * The limits.
+     */
+    private final Retention retention;
+
+    /**
+     * The buffers, indexed by response code.
+     */
+    private final Replies[] replies = new Replies[CODES];
+
+    /**
+     * Code of every stored reply in the order they were received, as ring.
+     */
+    private int[] order = new int[64];
+
+    /**
+     * Time every stored reply was received, in the same order.
+     */
+    private long[] times = new long[64];
+
+    /**
+     * Index of the oldest reply inside the ring.
+     */
+    private int head;
+
+    /**
+     * Amount of stored replies.
+     */
+    private int size;
+
+    /**
+     * Size of all stored replies in bytes.
+     */
+    private long bytes;
+
+    /**
+     * Amount of evicted replies.
+     */
+    private long evicted;
+
+    /**
+     * Sequence number of the next reply.
+     */
+    private long sequence;
+
+    /**
+     * Create a new log without limits.
+     */
+    ReplyLog() {
+        this(new Retention(0, 0, 0));
+    }
+
+    /**
+     * Create a new log.
+     *
+     * @param retention the limits
+     */
+    ReplyLog(Retention retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * Add a message.
+     * Messages which are no numeric reply are ignored.
+     *
+     * @param message the message
+     */
+    void add(IrcMessage message) {
+        add(message, System.currentTimeMillis());
+    }
+
+    /**
+     * Add a message.
+     * Messages which are no numeric reply are ignored.
+     *
+     * @param message the message
+     * @param now the current time in milliseconds
+     */
+    void add(IrcMessage message, long now) {
+        int code = message.numeric();
+        if (code < 0 || code >= CODES) return;
+        expire(now);
+
+        if (replies[code] == null) replies[code] = new Replies();
+        replies[code].add(sequence++, message);
+
+        if (size == order.length) grow();
+
+        int tail = (head + size) % order.length;
+        order[tail] = code;
+        times[tail] = now;
+        bytes += Retention.size(message);
+        size++;
+
+        while (size > 1 && retention.exceeded(size, bytes)) {
+            removeFirst();
+        }
+    }
+
+    /**
+     * Get all replies with a response code.
+     *
+     * @param code the code
+     * @return the replies
+     */
+    List<IrcMessage> all(int code) {
+        return last(code, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the last replies with a response code.
+     *
+     * @param code the code
+     * @param amount the max. amount of replies
+     * @return the replies, oldest first
+     */
+    List<IrcMessage> last(int code, int amount) {
+        if (code < 0 || code >= CODES || replies[code] == null) return Collections.emptyList();
+
+        Replies r = replies[code];
+        return r.range(Math.max(r.start, r.end - Math.max(0, amount)), r.end);
+    }
+
+    /**
+     * Get the newest reply of several response codes.
+     *
+     * @param codes the codes
+     * @return one reply per code in the same order, {@link IrcMessage#EMPTY} for missing codes
+     */
+    List<IrcMessage> latest(int[] codes) {
+        IrcMessage[] messages = new IrcMessage[codes.length];
+
+        for (int i = 0; i < codes.length; i++) {
+            int code = codes[i];
+            Replies r = code < 0 || code >= CODES ? null : replies[code];
+
+            messages[i] = r == null || r.start == r.end ? IrcMessage.EMPTY : r.messages[r.end - 1];
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(messages));
+    }
+
+    /**
+     * Get the amount of replies with a response code.
+     *
+     * @param code the code
+     * @return the amount
+     */
+    int count(int code) {
+        if (code < 0 || code >= CODES || replies[code] == null) return 0;
+        return replies[code].end - replies[code].start;
+    }
+
+    /**
+     * Get a mark for the current end of the log.
+     *
+     * @return the mark
+     */
+    long mark() {
+        return sequence;
+    }
+
+    /**
+     * Get the replies of any code received after a mark.
+     *
+     * @param mark the mark
+     * @return the replies in the order they were received
+     */
+    List<IrcMessage> since(long mark) {
+        List<long[]> positions = new ArrayList<>();
+
+        for (int code = 0; code < CODES; code++) {
+            Replies r = replies[code];
+            if (r == null) continue;
+
+            for (int i = r.indexOf(mark); i < r.end; i++) {
+                positions.add(new long[] { r.sequences[i], code, i });
+            }
+        }
+
+        positions.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        IrcMessage[] messages = new IrcMessage[positions.size()];
+        for (int i = 0; i < messages.length; i++) {
+            long[] p = positions.get(i);
+            messages[i] = replies[(int) p[1]].messages[(int) p[2]];
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(messages));
+    }
+
+    /**
+     * Get the amount of stored replies.
+     *
+     * @return the amount
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the size of all stored replies.
+     *
+     * @return the size in bytes
+     */
+    long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the amount of replies evicted so far.
+     *
+     * @return the amount
+     */
+    long evicted() {
+        return evicted;
+    }
+
+    /**
+     * Answer a query.
+     *
+     * @param query the query
+     * @return the replies, or the count/ mark
+     */
+    Object answer(LogQuery query) {
+        expire(System.currentTimeMillis());
+
+        switch (query.type()) {
+            case ALL: return all(query.code());
+            case LAST: return last(query.code(), query.amount());
+            case COUNT: return count(query.code());
+            case MARK: return mark();
+            case LATEST: return latest(query.codes());
+            default: return since(query.from());
+        }
+    }
+
+    /**
+     * Evict all expired replies except the newest one.
+     *
+     * @param now the current time in milliseconds
+     */
+    private void expire(long now) {
+        while (size > 1 && retention.expired(times[head], now)) {
+            removeFirst();
+        }
+    }
+
+    /**
+     * Evict the oldest reply.
+     */
+    private void removeFirst() {
+        bytes -= Retention.size(replies[order[head]].removeFirst());
+        head = (head + 1) % order.length;
+        size--;
+        evicted++;
+    }
+
+    /**
+     * Double the capacity of the ring, keeping the replies in order.
+     */
+    private void grow() {
+        int[] grownOrder = new int[order.length * 2];
+        long[] grownTimes = new long[order.length * 2];
+
+        for (int i = 0; i < size; i++) {
+            grownOrder[i] = order[(head + i) % order.length];
+            grownTimes[i] = times[(head + i) % order.length];
+        }
+
+        order = grownOrder;
+        times = grownTimes;
+        head = 0;
+    }
+
+    /**
+     * The replies of a single response code.
+     * Stored from start (inclusive) to end (exclusive).
+     */
+    private static class Replies {
+
+        /**
+         * The replies.
+         */
+        private IrcMessage[] messages = new IrcMessage[4];
+
+        /**
+         * The sequence number of each reply.
+         */
+        private long[] sequences = new long[4];
+
+        /**
+         * Index of the oldest reply.
+         */
+        private int start;
+
+        /**
+         * Index behind the newest reply.
+         */
+        private int end;
+
+        /**
+         * Add a reply.
+         *
+         * @param sequence the sequence number
+         * @param message the reply
+         */
+        private void add(long sequence, IrcMessage message) {
+            if (end == messages.length) {
+                int count = end - start;
+
+                if (start > 0) {
+                    System.arraycopy(messages, start, messages, 0, count);
+                    System.arraycopy(sequences, start, sequences, 0, count);
+                    Arrays.fill(messages, count, end, null);
+                } else {
+                    messages = Arrays.copyOf(messages, end * 2);
+                    sequences = Arrays.copyOf(sequences, end * 2);
+                }
+
+                start = 0;
+                end = count;
+            }
+
+            messages[end] = message;
+            sequences[end++] = sequence;
+        }
+
+        /**
+         * Remove the oldest reply.
+         *
+         * @return the removed reply
+         */
+        private IrcMessage removeFirst() {
+            IrcMessage message = messages[start];
+            messages[start++] = null;
+
+            if (start == end) start = end = 0;
+            return message;
+        }
+
+        /**
+         * Get the index of the first reply with a sequence number not lower than the given one.
+         *
+         * @param sequence the sequence number
+         * @return the index, end if there is none
+         */
+        private int indexOf(long sequence) {
+            int i = Arrays.binarySearch(sequences, start, end, sequence);
+            return i < 0 ? -(i + 1) : i;
+        }
+
+        /**
+         * Get an immutable copy of a range of replies.
+         *
+         * @param from first index, inclusive
+         * @param to last index, exclusive
+         * @return the replies
+         */
+        private List<IrcMessage> range(int from, int to) {
+            return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(messages, from, to)));
+        }
+    }
+}
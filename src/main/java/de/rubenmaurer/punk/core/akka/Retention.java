@@ -0,0 +1,108 @@
+package de.rubenmaurer.punk.core.akka;
+
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+
+import java.util.List;
+
+/**
+ * Limits for how much received data a {@link ConnectionHandler} keeps.
+ * A limit of 0 disables it. When a limit is exceeded the oldest entries are evicted first.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+class Retention {
+
+    /**
+     * Max. amount of entries.
+     */
+    final int entries;
+
+    /**
+     * Max. amount of bytes, counted as two bytes per character.
+     */
+    final long bytes;
+
+    /**
+     * Max. age of an entry in milliseconds.
+     */
+    final long age;
+
+    /**
+     * Create new limits.
+     *
+     * @param entries the max. amount of entries
+     * @param bytes the max. amount of bytes
+     * @param age the max. age in milliseconds
+     */
+    Retention(int entries, long bytes, long age) {
+        this.entries = entries;
+        this.bytes = bytes;
+        this.age = age;
+    }
+
+    /**
+     * Is an amount of entries and bytes above the limits?
+     *
+     * @param entries the amount of entries
+     * @param bytes the amount of bytes
+     * @return limits exceeded?
+     */
+    boolean exceeded(int entries, long bytes) {
+        return (this.entries > 0 && entries > this.entries) || (this.bytes > 0 && bytes > this.bytes);
+    }
+
+    /**
+     * Is an entry expired?
+     *
+     * @param time the time the entry was added
+     * @param now the current time
+     * @return entry expired?
+     */
+    boolean expired(long time, long now) {
+        return age > 0 && now - time > age;
+    }
+
+    /**
+     * Get the size of a message.
+     *
+     * @param message the message
+     * @return the size in bytes
+     */
+    static long size(IrcMessage message) {
+        return message.raw().length() * 2L;
+    }
+
+    /**
+     * Get the size of several messages.
+     *
+     * @param messages the messages
+     * @return the size in bytes
+     */
+    static long size(List<IrcMessage> messages) {
+        long size = 0;
+        for (IrcMessage message : messages) size += size(message);
+
+        return size;
+    }
+
+    /**
+     * Get the configured limits for the trash.
+     *
+     * @return the limits
+     */
+    static Retention trash() {
+        return new Retention(Settings.trashEntries(), Settings.trashBytes(), Settings.trashAge() * 1000L);
+    }
+
+    /**
+     * Get the configured limits for the reply log.
+     *
+     * @return the limits
+     */
+    static Retention log() {
+        return new Retention(Settings.logEntries(), Settings.logBytes(), Settings.logAge() * 1000L);
+    }
+}
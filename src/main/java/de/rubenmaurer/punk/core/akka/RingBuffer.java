@@ -0,0 +1,169 @@
+package de.rubenmaurer.punk.core.akka;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Ring buffer for received data, bounded by a {@link Retention}.
+ * Adding an entry evicts the oldest entries until the buffer is within its limits again.
+ * The newest entry is always kept, even if it exceeds the limits or expired.
+ *
+ * @param <T> the type of the entries
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+class RingBuffer<T> {
+
+    /**
+     * The limits.
+     */
+    private final Retention retention;
+
+    /**
+     * Calculates the size of an entry in bytes.
+     */
+    private final ToLongFunction<T> sizer;
+
+    /**
+     * The entries.
+     */
+    private Object[] items = new Object[16];
+
+    /**
+     * The time each entry was added.
+     */
+    private long[] times = new long[16];
+
+    /**
+     * Index of the oldest entry.
+     */
+    private int head;
+
+    /**
+     * Amount of entries.
+     */
+    private int size;
+
+    /**
+     * Size of all entries in bytes.
+     */
+    private long bytes;
+
+    /**
+     * Amount of evicted entries.
+     */
+    private long evicted;
+
+    /**
+     * Create a new buffer.
+     *
+     * @param retention the limits
+     * @param sizer calculates the size of an entry in bytes
+     */
+    RingBuffer(Retention retention, ToLongFunction<T> sizer) {
+        this.retention = retention;
+        this.sizer = sizer;
+    }
+
+    /**
+     * Add an entry.
+     *
+     * @param item the entry
+     * @param now the current time in milliseconds
+     */
+    void add(T item, long now) {
+        expire(now);
+
+        if (size == items.length) grow();
+
+        int tail = (head + size) % items.length;
+        items[tail] = item;
+        times[tail] = now;
+        bytes += sizer.applyAsLong(item);
+        size++;
+
+        while (size > 1 && retention.exceeded(size, bytes)) {
+            removeFirst();
+        }
+    }
+
+    /**
+     * Get the newest entry.
+     *
+     * @param now the current time in milliseconds
+     * @return the entry, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    T last(long now) {
+        expire(now);
+
+        return size == 0 ? null : (T) items[(head + size - 1) % items.length];
+    }
+
+    /**
+     * Get the amount of entries.
+     *
+     * @return the amount
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the size of all entries.
+     *
+     * @return the size in bytes
+     */
+    long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the amount of entries evicted so far.
+     *
+     * @return the amount
+     */
+    long evicted() {
+        return evicted;
+    }
+
+    /**
+     * Evict all expired entries except the newest one.
+     *
+     * @param now the current time in milliseconds
+     */
+    private void expire(long now) {
+        while (size > 1 && retention.expired(times[head], now)) {
+            removeFirst();
+        }
+    }
+
+    /**
+     * Evict the oldest entry.
+     */
+    @SuppressWarnings("unchecked")
+    private void removeFirst() {
+        bytes -= sizer.applyAsLong((T) items[head]);
+        items[head] = null;
+        head = (head + 1) % items.length;
+        size--;
+        evicted++;
+    }
+
+    /**
+     * Double the capacity, keeping the entries in order.
+     */
+    private void grow() {
+        Object[] grown = new Object[items.length * 2];
+        long[] grownTimes = new long[items.length * 2];
+
+        for (int i = 0; i < size; i++) {
+            grown[i] = items[(head + i) % items.length];
+            grownTimes[i] = times[(head + i) % items.length];
+        }
+
+        items = grown;
+        times = grownTimes;
+        head = 0;
+    }
+}
@@ -0,0 +1,293 @@
+package de.rubenmaurer.punk.core.facade;
+
+import akka.actor.ActorRef;
+import akka.pattern.Patterns;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Ask;
+import de.rubenmaurer.punk.core.akka.ConnectionState;
+import de.rubenmaurer.punk.core.akka.Expectation;
+import de.rubenmaurer.punk.core.akka.Listener;
+import de.rubenmaurer.punk.core.akka.LogQuery;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking access to a single connection to the irc server.
+ * Every operation returns a {@link CompletionStage} which completes with the answer of the
+ * {@link de.rubenmaurer.punk.core.akka.ConnectionHandler}, or exceptionally after the timeout.
+ * The connection state is read from the {@link ConnectionState} the handler keeps up to date.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public class AsyncClient {
+
+    /**
+     * The {@link de.rubenmaurer.punk.core.akka.ConnectionHandler} used for
+     * communicate with the irc server.
+     */
+    private ActorRef connection;
+
+    /**
+     * State of the connection.
+     */
+    private ConnectionState state;
+
+    /**
+     * Create a new {@link AsyncClient}.
+     *
+     * @param connection the connection handler
+     * @param state the state of the connection
+     */
+    private AsyncClient(ActorRef connection, ConnectionState state) {
+        this.connection = connection;
+        this.state = state;
+    }
+
+    /**
+     * Get the timeout for a single question.
+     *
+     * @return the timeout
+     */
+    private static Duration timeout() {
+        return Duration.ofSeconds(Settings.timeout());
+    }
+
+    /**
+     * Is a connection with the irc server established?
+     *
+     * @return connection established?
+     */
+    public boolean isConnected() {
+        return state.isConnected();
+    }
+
+    /**
+     * Getter for the connection handler.
+     *
+     * @return the handler
+     */
+    ActorRef connection() {
+        return connection;
+    }
+
+    /**
+     * Getter for the state of the connection, including the write counters.
+     *
+     * @return the state
+     */
+    public ConnectionState state() {
+        return state;
+    }
+
+    /**
+     * Tries to establish an connection to the irc-server, if there is none yet.
+     *
+     * @return connection established?
+     */
+    public CompletionStage<Boolean> connect() {
+        if (state.isConnected()) return CompletableFuture.completedFuture(true);
+        if (state.isClosed()) return CompletableFuture.completedFuture(false);
+
+        return Patterns.ask(connection, "connect", timeout()).thenApply(Boolean.class::cast);
+    }
+
+    /**
+     * Tries to establish an connection to the irc-server from a given local address, if there is none yet.
+     *
+     * @param local the local address, port 0 picks any free port
+     * @return connection established?
+     */
+    public CompletionStage<Boolean> connect(InetSocketAddress local) {
+        if (state.isConnected()) return CompletableFuture.completedFuture(true);
+        if (state.isClosed()) return CompletableFuture.completedFuture(false);
+
+        return Patterns.ask(connection, local, timeout()).thenApply(Boolean.class::cast);
+    }
+
+    /**
+     * Send a message to the irc server and wait until the expectation is met.
+     * Connects to the server first if needed.
+     *
+     * @param message the message to send
+     * @param until the condition which completes the response
+     * @return the immutable list of received messages
+     */
+    public CompletionStage<List<IrcMessage>> sendAndReceive(String message, Expectation until) {
+        return ask(Ask.create(message, until));
+    }
+
+    /**
+     * Send a list of messages to the irc server with a single write and wait until the expectation is met.
+     * The messages are pipelined, the expectation sees every reply to all of them,
+     * {@link Expectation#then(Expectation)} combines the expectations of the single messages.
+     *
+     * @param messages the messages to send
+     * @param until the condition which completes the response to all messages
+     * @return the immutable list of received messages
+     */
+    public CompletionStage<List<IrcMessage>> sendAndReceiveAll(List<String> messages, Expectation until) {
+        return ask(Ask.create(messages, until));
+    }
+
+    /**
+     * Connect if needed, send the messages of an ask and wait for the answer.
+     *
+     * @param ask the ask
+     * @return the immutable list of received messages
+     */
+    private CompletionStage<List<IrcMessage>> ask(Ask ask) {
+        return connect().thenCompose(connected -> {
+            if (!connected) {
+                CompletableFuture<List<IrcMessage>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException("Client not connected"));
+
+                return failed;
+            }
+
+            connection.tell("clear", ActorRef.noSender());
+            return query(ask);
+        });
+    }
+
+    /**
+     * Send a message to the irc server without waiting for an answer.
+     * Does nothing if the connection was closed.
+     *
+     * @param message the message to send
+     */
+    public void send(String message) {
+        if (!state.isClosed()) connection.tell(message, ActorRef.noSender());
+    }
+
+    /**
+     * Stop reading from the connection, like a client which does not consume what the server sends.
+     * Received data piles up in the buffers of the operating system and then in the server.
+     */
+    public void suspendReading() {
+        connection.tell("suspend", ActorRef.noSender());
+    }
+
+    /**
+     * Continue reading from the connection after {@link #suspendReading()}.
+     */
+    public void resumeReading() {
+        connection.tell("resume", ActorRef.noSender());
+    }
+
+    /**
+     * Notify a listener about every message received from now on, replacing the previous one.
+     *
+     * @param listener the listener, called on the thread of the connection handler
+     */
+    public void listen(Listener listener) {
+        connection.tell(listener, ActorRef.noSender());
+    }
+
+    /**
+     * Retrieves all server replies with a specific response code.
+     *
+     * @param code the code to search for
+     * @return the immutable list of replies, empty if there are none
+     */
+    public CompletionStage<List<IrcMessage>> log(int code) {
+        return query(LogQuery.all(code));
+    }
+
+    /**
+     * Retrieves the last server replies with a specific response code.
+     *
+     * @param code the code to search for
+     * @param amount the max. amount of replies
+     * @return the immutable list of replies, oldest first
+     */
+    public CompletionStage<List<IrcMessage>> log(int code, int amount) {
+        return query(LogQuery.last(code, amount));
+    }
+
+    /**
+     * Retrieves the last server reply of several response codes in a single query.
+     *
+     * @param codes the codes to search for
+     * @return the immutable list of replies, one per code in the same order, an empty message for missing codes
+     */
+    public CompletionStage<List<IrcMessage>> latest(int... codes) {
+        return query(LogQuery.latest(codes));
+    }
+
+    /**
+     * Count the server replies with a specific response code.
+     *
+     * @param code the code to count
+     * @return the amount of replies
+     */
+    public CompletionStage<Integer> count(int code) {
+        return Patterns.ask(connection, LogQuery.count(code), timeout()).thenApply(Integer.class::cast);
+    }
+
+    /**
+     * Mark the current end of the reply log.
+     *
+     * @return the mark
+     */
+    public CompletionStage<Long> mark() {
+        return Patterns.ask(connection, LogQuery.mark(), timeout()).thenApply(Long.class::cast);
+    }
+
+    /**
+     * Retrieves all server replies with any response code received after a mark.
+     *
+     * @param mark the mark
+     * @return the immutable list of replies, in the order they were received
+     */
+    public CompletionStage<List<IrcMessage>> since(long mark) {
+        return query(LogQuery.since(mark));
+    }
+
+    /**
+     * Ask the connection handler for received messages.
+     *
+     * @param question the question
+     * @return the messages
+     */
+    @SuppressWarnings("unchecked")
+    private CompletionStage<List<IrcMessage>> query(Object question) {
+        return Patterns.ask(connection, question, timeout()).thenApply(result -> (List<IrcMessage>) result);
+    }
+
+    /**
+     * Retrieves the messages received since the last message was sent.
+     *
+     * @return the last received messages
+     */
+    public CompletionStage<List<IrcMessage>> last() {
+        return query("last");
+    }
+
+    /**
+     * Retrieves the last response which is stored inside the 'trash'.
+     *
+     * @return the messages of the last trashed response, empty if there is none
+     */
+    public CompletionStage<List<IrcMessage>> trash() {
+        return query("trash");
+    }
+
+    /**
+     * Create a new {@link AsyncClient} with its own connection handler.
+     *
+     * @param manager the {@link de.rubenmaurer.punk.core.akka.ConnectionManager} to request the handler from
+     * @return the client
+     */
+    static CompletionStage<AsyncClient> create(ActorRef manager) {
+        ConnectionState state = new ConnectionState();
+
+        return Patterns.ask(manager, state, timeout()).thenApply(handler -> new AsyncClient((ActorRef) handler, state));
+    }
+}
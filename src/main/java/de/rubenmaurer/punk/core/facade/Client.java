@@ -1,20 +1,24 @@
 package de.rubenmaurer.punk.core.facade;
 
-import akka.actor.ActorRef;
-import akka.pattern.Patterns;
-import akka.util.Timeout;
 import de.rubenmaurer.punk.Settings;
-import de.rubenmaurer.punk.core.akka.Ask;
+import de.rubenmaurer.punk.core.akka.ConnectionClosedException;
+import de.rubenmaurer.punk.core.akka.Expectation;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
 import de.rubenmaurer.punk.util.*;
 import de.rubenmaurer.punk.evaluation.Response;
 import de.rubenmaurer.punk.util.Template;
-import scala.concurrent.Await;
-import scala.concurrent.Future;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -69,6 +73,53 @@ public class Client {
         return fullname;
     }
 
+    /**
+     * The last received messages.
+     */
+    private List<IrcMessage> lastMessages = Collections.emptyList();
+
+    /**
+     * Getter for the last received messages.
+     *
+     * @return the immutable list of messages
+     */
+    public List<IrcMessage> lastMessages() {
+        return lastMessages;
+    }
+
+    /**
+     * Get the first of the last received messages.
+     *
+     * @return the message, {@link IrcMessage#EMPTY} if nothing was received
+     */
+    public IrcMessage firstMessage() {
+        return lastMessages.isEmpty() ? IrcMessage.EMPTY : lastMessages.get(0);
+    }
+
+    /**
+     * Get the first of the last received messages with the given command.
+     * Pipelined requests receive the replies of several commands at once, this picks the one of interest.
+     *
+     * @param command the command
+     * @return the message, the first message if there is none with the command
+     */
+    public IrcMessage firstMessage(String command) {
+        for (IrcMessage message : lastMessages) {
+            if (message.is(command)) return message;
+        }
+
+        return firstMessage();
+    }
+
+    /**
+     * Get the last of the last received messages.
+     *
+     * @return the message, {@link IrcMessage#EMPTY} if nothing was received
+     */
+    public IrcMessage lastMessage() {
+        return lastMessages.isEmpty() ? IrcMessage.EMPTY : lastMessages.get(lastMessages.size() - 1);
+    }
+
     /**
      * The last received lines.
      */
@@ -86,7 +137,7 @@ public class Client {
     /**
      * The last received response.
      */
-    String lastResponse;
+    String lastResponse = "";
 
     /**
      * Getter for the last response.
@@ -99,20 +150,23 @@ public class Client {
     }
 
     /**
-     * The {@link de.rubenmaurer.punk.core.akka.ConnectionHandler} used for
-     * communicate with the irc server.
+     * The non-blocking client used for communicate with the irc server.
      */
-    private ActorRef connection;
+    private AsyncClient async;
 
     /**
-     * The {@link de.rubenmaurer.punk.core.akka.ConnectionManager} used for
-     * creating and retrieving new {@link de.rubenmaurer.punk.core.akka.ConnectionHandler}.
+     * Getter for the non-blocking client.
+     * Operations on it do not update the last received lines.
+     *
+     * @return the non-blocking client
      */
-    static ActorRef connectionManager;
+    public AsyncClient async() {
+        return async;
+    }
 
     /**
      * Create a new {@link Client} and requests a {@link de.rubenmaurer.punk.core.akka.ConnectionHandler}
-     * for the communication with the irc server.
+     * for the communication with the irc server from the {@link Session} of the current thread.
      *
      * @param nickname the clients nickname
      * @param username the clients username
@@ -125,9 +179,49 @@ public class Client {
         this.fullname = fullname;
 
         if (!Settings.isDebug()) {
-            Timeout timeout = new Timeout(Settings.timeout(), TimeUnit.SECONDS);
-            Future<Object> future = Patterns.ask(connectionManager, "connection-request", timeout);
-            this.connection = (ActorRef) Await.result(future, timeout.duration());
+            this.async = await(AsyncClient.create(Session.connectionManager()));
+        }
+    }
+
+    /**
+     * Create a new {@link Client} using an existing non-blocking client.
+     *
+     * @param nickname the clients nickname
+     * @param username the clients username
+     * @param fullname the clients fullname
+     * @param async the non-blocking client
+     */
+    private Client(String nickname, String username, String fullname, AsyncClient async) {
+        this.nickname = nickname;
+        this.username = username;
+        this.fullname = fullname;
+        this.async = async;
+    }
+
+    /**
+     * Store the last received messages.
+     *
+     * @param messages the messages
+     */
+    private void store(List<IrcMessage> messages) {
+        lastMessages = messages;
+        lastLines = messages.isEmpty() ? new String[] {""} : messages.stream().map(IrcMessage::raw).toArray(String[]::new);
+        lastResponse = String.join(Settings.delimiter(), lastLines);
+    }
+
+    /**
+     * Block until a stage completes.
+     *
+     * @param stage the stage
+     * @param <T> the type of the result
+     * @return the result
+     * @throws Exception the exception the stage completed with
+     */
+    private static <T> T await(CompletionStage<T> stage) throws Exception {
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
         }
     }
 
@@ -139,11 +233,9 @@ public class Client {
      */
     public Boolean connect() {
         boolean connected = false;
-        Timeout timeout = new Timeout(Settings.timeout(), TimeUnit.SECONDS);
-        Future<Object> future = Patterns.ask(connection, "connect", timeout);
 
         try {
-            connected = (Boolean) Await.result(future, timeout.duration());
+            connected = await(async.connect());
         } catch (Exception e) {
             Terminal.printError(e.getMessage());
         }
@@ -156,19 +248,85 @@ public class Client {
      * Sends both nick and user message.
      */
     public void authenticate() {
-        this.sendAndReceiveAll(Utilities.auth(this), Settings.authLines());
+        this.sendAndReceiveAll(Utilities.auth(this), Expectation.welcome());
+    }
+
+    /**
+     * Authenticate several clients at once.
+     * The clients authenticate concurrently, this method returns when all of them are done.
+     *
+     * @param clients the clients
+     */
+    public static void authenticateAll(Client... clients) {
+        CompletableFuture<?>[] auths = Arrays.stream(clients)
+                .map(c -> c.async.sendAndReceiveAll(Utilities.auth(c), Expectation.welcome())
+                        .thenAccept(c::store).toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            CompletableFuture.allOf(auths).join();
+        } catch (CompletionException e) {
+            Terminal.debugErro(e.getCause().getMessage());
+        }
     }
 
     /**
      * Authenticate the client and let it join a channel.
-     * Sends a nick, a user and a join message.
+     * The user, nick and join messages are pipelined, the last response is the reply to the join,
+     * as if the join was sent after the authentication.
      *
      * @param channel the channel to join
      */
     public void authenticateAndJoin(String channel) {
-        authenticate();
+        List<String> messages = new ArrayList<>(Utilities.auth(this));
+        messages.add(Utilities.joinChannel(channel));
 
-        sendAndReceive(Utilities.joinChannel(channel));
+        this.sendAndReceiveAll(messages, Expectation.welcome().then(Expectation.joined()));
+        store(lastMessages.subList(Expectation.welcome().end(lastMessages), lastMessages.size()));
+    }
+
+    /**
+     * Let the client join a channel.
+     * Waits until the end of the names list or an error is received.
+     *
+     * @param channel the channel to join
+     * @return the response
+     */
+    public String[] join(String channel) {
+        return sendAndReceive(Utilities.joinChannel(channel), Expectation.joined());
+    }
+
+    /**
+     * Send a WHO query for a channel, '*' queries all visible users.
+     * Waits until the end of the who list or an error is received.
+     *
+     * @param channel the channel
+     * @return the response
+     */
+    public String[] who(String channel) {
+        return sendAndReceive(Utilities.who(channel), Expectation.reply(Response.END_OF_WHO).or(Expectation.error()));
+    }
+
+    /**
+     * Send a LIST query for a channel.
+     * Waits until the end of the list or an error is received.
+     *
+     * @param channel the channel
+     * @return the response
+     */
+    public String[] list(String channel) {
+        return sendAndReceive(Utilities.list(channel), Expectation.reply(Response.LIST_END).or(Expectation.error()));
+    }
+
+    /**
+     * Send a NAMES query for a channel.
+     * Waits until the end of the names list or an error is received.
+     *
+     * @param channel the channel
+     * @return the response
+     */
+    public String[] names(String channel) {
+        return sendAndReceive(Utilities.names(channel), Expectation.reply(Response.END_OF_NAMES).or(Expectation.error()));
     }
 
     /**
@@ -178,17 +336,11 @@ public class Client {
      * @param code the code to search for
      * @return the list of responses
      */
-    private LinkedList<String> logOrEmpty(int code) {
-        String result;
-        LinkedList<String> resultList = new LinkedList<>();
-        Timeout timeout = new Timeout(Settings.timeout(), TimeUnit.SECONDS);
-        Future<Object> future = Patterns.ask(connection, code, timeout);
+    private LinkedList<IrcMessage> logOrEmpty(int code) {
+        LinkedList<IrcMessage> resultList = new LinkedList<>();
 
         try {
-            result = (String) Await.result(future, timeout.duration());
-            if (result != null) {
-                resultList = Arrays.stream(result.split(";")).filter(s -> !s.isEmpty()).collect(Collectors.toCollection(LinkedList::new));
-            }
+            resultList.addAll(await(async.log(code)));
         } catch (Exception e) {
             Terminal.debugErro(e.getMessage());
         }
@@ -207,7 +359,7 @@ public class Client {
      * @param response the {@link Response} which code is used
      * @return the list of responses
      */
-    public LinkedList<String> logOrEmpty(Response response) {
+    public LinkedList<IrcMessage> logOrEmpty(Response response) {
         return logOrEmpty(response.value);
     }
 
@@ -218,41 +370,142 @@ public class Client {
      * @param response the {@link Response} which code is used
      * @return the list of responses
      */
-    public LinkedList<String> logOrThrow(Response response) {
-        LinkedList<String> result = logOrEmpty(response);
+    public LinkedList<IrcMessage> logOrThrow(Response response) {
+        LinkedList<IrcMessage> result = logOrEmpty(response);
+        if (result.isEmpty()) throw missing(response);
 
-        if (result.isEmpty()) {
-            if (response != Response.NONE) {
-                throw new RuntimeException(
-                        Template.get("EMPTY_STRING_MISSING_CODE")
-                                .single("code", response.value < 100 ? String.format("%03d", response.value) : Integer.toString(response.value)).render()
-                );
-            }
+        return result;
+    }
+
+    /**
+     * Retrieves the last server reply with a specific response code.
+     * If no response matching the given code is found, an exception occurs.
+     *
+     * @param response the {@link Response} which code is used
+     * @return the last response
+     */
+    public IrcMessage lastOrThrow(Response response) {
+        List<IrcMessage> result = Collections.emptyList();
 
-            throw new RuntimeException(Template.get("EMPTY_STRING_FOR_PARSER").render());
+        try {
+            result = await(async.log(response.value, 1));
+        } catch (Exception e) {
+            Terminal.debugErro(e.getMessage());
         }
 
-        return result;
+        if (Settings.devMode()) {
+            Terminal.devLog(String.format("Looking for last message with code: %d", response.value));
+        }
+
+        if (result.isEmpty()) throw missing(response);
+        return result.get(0);
     }
 
     /**
-     * Is a connection with the irc server established?
+     * Retrieves the last server reply of several response codes with a single query,
+     * so all replies are taken from the same state of the reply log.
+     * If no response matching one of the given codes is found, an exception occurs.
      *
-     * @return connection established?
+     * @param responses the {@link Response}s which codes are used
+     * @return the last response of every code, in the given order
      */
-    public boolean isConnected() {
-        boolean result = false;
+    public Map<Response, IrcMessage> latestOrThrow(Response... responses) {
+        int[] codes = new int[responses.length];
+        for (int i = 0; i < responses.length; i++) codes[i] = responses[i].value;
 
-        Timeout timeout = new Timeout(Settings.timeout(), TimeUnit.SECONDS);
-        Future<Object> future = Patterns.ask(connection, "connected", timeout);
+        List<IrcMessage> result = Collections.emptyList();
 
         try {
-            result = (Boolean) Await.result(future, timeout.duration());
+            result = await(async.latest(codes));
         } catch (Exception e) {
             Terminal.debugErro(e.getMessage());
         }
 
-        return result;
+        if (Settings.devMode()) {
+            Terminal.devLog(String.format("Looking for last messages with codes: %s", Arrays.toString(codes)));
+        }
+
+        Map<Response, IrcMessage> latest = new LinkedHashMap<>();
+        for (int i = 0; i < responses.length; i++) {
+            if (i >= result.size() || result.get(i).isEmpty()) throw missing(responses[i]);
+            latest.put(responses[i], result.get(i));
+        }
+
+        return latest;
+    }
+
+    /**
+     * Create the exception for a missing server reply.
+     *
+     * @param response the missing {@link Response}
+     * @return the exception
+     */
+    private static RuntimeException missing(Response response) {
+        if (response != Response.NONE) {
+            return new RuntimeException(
+                    Template.get("EMPTY_STRING_MISSING_CODE")
+                            .single("code", response.value < 100 ? String.format("%03d", response.value) : Integer.toString(response.value)).render()
+            );
+        }
+
+        return new RuntimeException(Template.get("EMPTY_STRING_FOR_PARSER").render());
+    }
+
+    /**
+     * Count the server replies with a specific response code.
+     *
+     * @param response the {@link Response} which code is used
+     * @return the amount of replies
+     */
+    public int count(Response response) {
+        try {
+            return await(async.count(response.value));
+        } catch (Exception e) {
+            Terminal.debugErro(e.getMessage());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Mark the current end of the reply log.
+     * Use {@link #since(long)} to get the replies received afterwards.
+     *
+     * @return the mark
+     */
+    public long mark() {
+        try {
+            return await(async.mark());
+        } catch (Exception e) {
+            Terminal.debugErro(e.getMessage());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Retrieves all server replies with any response code received after a mark.
+     *
+     * @param mark the mark
+     * @return the replies, in the order they were received
+     */
+    public List<IrcMessage> since(long mark) {
+        try {
+            return await(async.since(mark));
+        } catch (Exception e) {
+            Terminal.debugErro(e.getMessage());
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Is a connection with the irc server established?
+     *
+     * @return connection established?
+     */
+    public boolean isConnected() {
+        return async.isConnected();
     }
 
     /**
@@ -285,43 +538,30 @@ public class Client {
      * @return the response
      */
     public String[] sendAndReceive(String message, int expectedLines, boolean sendLast) {
-        if (!isConnected()) connect();
-        lastResponse = "";
-        lastLines = new String[]{ "" };
-
-        if (isConnected()) {
-            connection.tell("clear", ActorRef.noSender());
-
-            Timeout timeout = new Timeout(Settings.timeout(), TimeUnit.SECONDS);
-            Future<Object> future = Patterns.ask(connection, Ask.create(message, expectedLines), timeout);
-
-            try {
-                lastResponse = (String) Await.result(future, timeout.duration());
-                lastLines = lastResponse.split(Settings.delimiter());
-            } catch (Exception exception) {
-                if (sendLast && expectedLines > 0) {
-                    Timeout t = new Timeout(Settings.timeout(), TimeUnit.SECONDS);
-                    Future<Object> f = Patterns.ask(connection, "last", timeout);
-
-                    try {
-                        lastResponse = (String) Await.result(f, t.duration());
-                        lastLines = lastResponse.split(Settings.delimiter());
-                    } catch (Exception e) {
-                        Terminal.debugErro(e.getMessage());
-                    }
-
-                    if (expectedLines < lastLines.length) {
-                        Terminal.debugErro(Template.get("MISSING_LINES").single("lineCount", expectedLines).single("actual", lastLines.length).render());
-                    }
-
-                    Terminal.printLastResponse(lastLines);
-                }
-            }
+        return sendAndReceive(message, Expectation.lines(expectedLines), sendLast && expectedLines > 0);
+    }
 
-            return lastLines;
-        }
+    /**
+     * Send a message to the irc server and wait until the expectation is met.
+     *
+     * @param message the message to send
+     * @param until the condition which completes the response
+     * @return the response
+     */
+    public String[] sendAndReceive(String message, Expectation until) {
+        return sendAndReceive(message, until, true);
+    }
 
-        throw new RuntimeException("Client not connected");
+    /**
+     * Send a message to the irc server and wait until the expectation is met.
+     *
+     * @param message the message to send
+     * @param until the condition which completes the response
+     * @param sendLast on error send last received lines?
+     * @return the response
+     */
+    public String[] sendAndReceive(String message, Expectation until, boolean sendLast) {
+        return receive(async.sendAndReceive(message, until), until, sendLast);
     }
 
     /**
@@ -332,13 +572,48 @@ public class Client {
      * @return the response
      */
     public String[] sendAndReceiveAll(List<String> messages, int expectedLines) {
-        int index = 1;
-        int lineCount = 0;
+        return sendAndReceiveAll(messages, Expectation.lines(expectedLines));
+    }
+
+    /**
+     * Send a list of messages to the irc server with a single write and wait until the expectation is met.
+     * The response holds the replies to all messages.
+     *
+     * @param messages the message to send
+     * @param until the condition which completes the response to all messages
+     * @return the response
+     */
+    public String[] sendAndReceiveAll(List<String> messages, Expectation until) {
+        return receive(async.sendAndReceiveAll(messages, until), until, true);
+    }
+
+    /**
+     * Wait for a response and store it as the last received lines.
+     *
+     * @param response the pending response
+     * @param until the condition which completes the response
+     * @param sendLast on error send last received lines?
+     * @return the response
+     */
+    private String[] receive(CompletionStage<List<IrcMessage>> response, Expectation until, boolean sendLast) {
+        store(Collections.emptyList());
+
+        try {
+            store(await(response));
+        } catch (IllegalStateException exception) {
+            throw new RuntimeException(exception.getMessage());
+        } catch (Exception exception) {
+            if (sendLast) {
+                try {
+                    // the handler of a closed connection is gone, its last lines came with the error
+                    store(exception instanceof ConnectionClosedException ? ((ConnectionClosedException) exception).response() : await(async.last()));
+                } catch (Exception e) {
+                    Terminal.debugErro(e.getMessage());
+                }
 
-        for (String messsage : messages) {
-            if (index == messages.size()) lineCount = expectedLines;
-            sendAndReceive(messsage, lineCount);
-            index++;
+                Terminal.debugErro(Template.get("UNMET_EXPECTATION").single("expectation", until).single("actual", lastMessages.size()).render());
+                Terminal.printLastResponse(lastLines);
+            }
         }
 
         return lastLines;
@@ -346,11 +621,12 @@ public class Client {
 
     /**
      * Send a message to the irc server.
+     * Returns once the message is written, without waiting for any reply.
      *
      * @param message the message to send
      */
     public void send(String message) {
-        sendAndReceive(message, 0); //TODO: disable timeouts
+        sendAndReceive(message, 0);
     }
 
     /**
@@ -360,11 +636,8 @@ public class Client {
      * @return the last received lines
      */
     public String last() {
-        Timeout t = new Timeout(Settings.timeout(), TimeUnit.SECONDS);
-        Future<Object> f = Patterns.ask(connection, "last", t);
-
         try {
-            return (String) Await.result(f, t.duration());
+            return await(async.last()).stream().map(IrcMessage::raw).collect(Collectors.joining(Settings.delimiter()));
         } catch (Exception e) {
             if (Settings.debug()) {
                 System.err.println(Template.get("DEBUG").single("message", e.getMessage()).render());
@@ -378,15 +651,14 @@ public class Client {
      * Retrieves the last response which is stored inside the 'trash'.
      * 'Trashed' messages are messages that have not been requested
      *
-     * @return the last trash line
+     * @return the first message of the last trashed response, {@link IrcMessage#EMPTY} if there is none
      */
-    public String trash() {
-        String result = "";
-        Timeout t = new Timeout(Settings.timeout(), TimeUnit.SECONDS);
-        Future<Object> f = Patterns.ask(connection, "trash", t);
+    public IrcMessage trash() {
+        IrcMessage result = IrcMessage.EMPTY;
 
         try {
-            result = ((String) Await.result(f, t.duration())).split("\r\n")[0];
+            List<IrcMessage> trashed = await(async.trash());
+            if (!trashed.isEmpty()) result = trashed.get(0);
         } catch (Exception e) {
             if (Settings.debug()) {
                 System.err.println(Template.get("DEBUG").single("message", e.getMessage()).render());
@@ -394,12 +666,40 @@ public class Client {
         }
 
         if (Settings.devMode()) {
-            Terminal.devLog(result);
+            Terminal.devLog(result.raw());
         }
 
         return result;
     }
 
+    /**
+     * Retrieves the message containing the given text from the last response stored inside the 'trash', at most waiting one timeout.
+     * Relayed messages arrive independently of the answer to their sender, so they may still be on their way,
+     * and several of them may arrive as a single response.
+     *
+     * @param text the text to wait for, e.g. the relayed message
+     * @return the message, the first message of the last trashed response if none contains the text, see {@link #trash()}
+     */
+    public IrcMessage trash(String text) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Settings.timeout());
+
+        try {
+            while (System.nanoTime() < deadline) {
+                for (IrcMessage message : await(async.trash())) {
+                    if (message.raw().contains(text)) return message;
+                }
+
+                Thread.sleep(10);
+            }
+        } catch (Exception e) {
+            if (Settings.debug()) {
+                System.err.println(Template.get("DEBUG").single("message", e.getMessage()).render());
+            }
+        }
+
+        return trash();
+    }
+
     /**
      * Create a new client.
      *
@@ -424,6 +724,52 @@ public class Client {
         return new Client(preset.nickname(), preset.username(), preset.fullname());
     }
 
+    /**
+     * Create one of arbitrary many distinct clients.
+     * The first clients are the presets, the following ones are derived from them with a numeric suffix,
+     * e.g. 'max1' or 'victori12'. Nicknames never exceed nine characters.
+     *
+     * @param index the index of the client
+     * @return the client
+     * @throws Exception the exception
+     */
+    public static Client create(int index) throws Exception {
+        String[] identity = identity(index);
+        return new Client(identity[0], identity[1], identity[2]);
+    }
+
+    /**
+     * Create one of arbitrary many distinct clients without blocking, see {@link #create(int)}.
+     * The connection handler is requested from the {@link Session} of the current thread, the stage completes once
+     * it was spawned. Lets a caller open many connections at once instead of waiting for each handler in turn.
+     *
+     * @param index the index of the client
+     * @return the client
+     */
+    public static CompletionStage<Client> createAsync(int index) {
+        String[] identity = identity(index);
+
+        return AsyncClient.create(Session.connectionManager())
+                .thenApply(async -> new Client(identity[0], identity[1], identity[2], async));
+    }
+
+    /**
+     * Get the nickname, username and fullname of one of arbitrary many distinct clients.
+     *
+     * @param index the index of the client
+     * @return nickname, username and fullname
+     */
+    private static String[] identity(int index) {
+        Preset preset = Preset.values()[index % Preset.values().length];
+        int generation = index / Preset.values().length;
+        if (generation == 0) return new String[] { preset.nickname(), preset.username(), preset.fullname() };
+
+        String suffix = String.valueOf(generation);
+        String nickname = preset.nickname().substring(0, Math.min(preset.nickname().length(), 9 - suffix.length()));
+
+        return new String[] { nickname + suffix, preset.username() + suffix, String.format("%s %s", preset.fullname(), suffix) };
+    }
+
     /**
      * Represents a {@link Client} preset.
      * Is used for easily creating a new client.
@@ -502,7 +848,7 @@ public class Client {
     }
 
     /**
-     * Utilities for easy {@link Template} access.
+     * Utilities for building requests from the precompiled request templates, see {@link Encoder}.
      *
      * @author Ruben Maurer
      * @version 1.0
@@ -517,7 +863,17 @@ public class Client {
          * @return the NICK message
          */
         public static String nick(Client client) {
-            return Template.get("nick").single("nickname", client.nickname()).render();
+            return nick(client.nickname());
+        }
+
+        /**
+         * Get a NICK message for a nickname, e.g. to change the nickname of a registered client.
+         *
+         * @param nickname the nickname
+         * @return the NICK message
+         */
+        public static String nick(String nickname) {
+            return Encoder.get("nick").render(nickname);
         }
 
         /**
@@ -527,9 +883,7 @@ public class Client {
          * @return the USER message
          */
         public static String user(Client client) {
-            return Template.get("user")
-                    .single("username", client.username())
-                    .single("fullname", client.fullname()).render();
+            return Encoder.get("user").render(client.username(), client.fullname());
         }
 
         /**
@@ -554,9 +908,7 @@ public class Client {
          * @return the PRIVMSG message
          */
         public static String privateMessage(Client target, String message) {
-            return Template.get("privmsg")
-                    .single("nickname", target.nickname())
-                    .single("message", message).render();
+            return Encoder.get("privmsg").render(target.nickname(), message);
         }
 
         /**
@@ -567,9 +919,7 @@ public class Client {
          * @return the PRIVMSG message
          */
         public static String privateMessage(String channel, String message) {
-            return Template.get("privmsgchannel")
-                    .single("channel", channel)
-                    .single("message", message).render();
+            return Encoder.get("privmsgchannel").render(channel, message);
         }
 
         /**
@@ -580,9 +930,7 @@ public class Client {
          * @return the NOTICE message
          */
         public static String notice(String target, String message) {
-            return Template.get("notice")
-                    .single("nickname", target)
-                    .single("message", message).render();
+            return Encoder.get("notice").render(target, message);
         }
 
         /**
@@ -603,7 +951,7 @@ public class Client {
          * @return the QUIT message
          */
         public static String quit(String message) {
-            return Template.get("quit").single("message", message).render();
+            return Encoder.get("quit").render(message);
         }
 
         /**
@@ -613,7 +961,7 @@ public class Client {
          * @return the JOIN message
          */
         public static String joinChannel(String channel) {
-            return Template.get("join").single("channel", channel).render();
+            return Encoder.get("join").render(channel);
         }
 
         /**
@@ -623,7 +971,7 @@ public class Client {
          * @return the WHOIS message
          */
         public static String whoIs(String user) {
-            return Template.get("whois").single("nickname", user).render();
+            return Encoder.get("whois").render(user);
         }
 
         /**
@@ -634,7 +982,7 @@ public class Client {
          * @return the PART message
          */
         public static String part(String channel, String message) {
-            return Template.get("part").single("channel", channel).single("message", message).render();
+            return Encoder.get("part").render(channel, message);
         }
 
         /**
@@ -645,7 +993,7 @@ public class Client {
          * @return the TOPIC message
          */
         public static String setTopic(String channel, String topic) {
-            return Template.get("topic_set").single("channel", channel).single("topic", topic).render();
+            return Encoder.get("topic_set").render(channel, topic);
         }
 
         /**
@@ -655,7 +1003,7 @@ public class Client {
          * @return the TOPIC message
          */
         public static String getTopic(String channel) {
-            return Template.get("topic_get").single("channel", channel).render();
+            return Encoder.get("topic_get").render(channel);
         }
 
         /**
@@ -676,5 +1024,25 @@ public class Client {
         public static String list(String channel) {
             return String.format("%s #%s", list(), channel);
         }
+
+        /**
+         * Get a WHO message for a channel, '*' queries all visible users.
+         *
+         * @param channel the channel
+         * @return the WHO message
+         */
+        public static String who(String channel) {
+            return channel.equals("*") ? "WHO *" : Encoder.get("who").render(channel);
+        }
+
+        /**
+         * Get a NAMES message for a channel.
+         *
+         * @param channel the channel
+         * @return the NAMES message
+         */
+        public static String names(String channel) {
+            return Encoder.get("names").render(channel);
+        }
     }
 }
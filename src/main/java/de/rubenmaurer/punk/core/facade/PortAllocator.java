@@ -0,0 +1,58 @@
+package de.rubenmaurer.punk.core.facade;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Hands out free ports for the servers of parallel workers.
+ * A port is never handed out twice until it was released.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+class PortAllocator {
+
+    /**
+     * Ports currently in use by a worker.
+     */
+    private static final Set<Integer> leased = new HashSet<>();
+
+    /**
+     * Private constructor.
+     */
+    private PortAllocator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Allocate a port which is currently free on the given host.
+     *
+     * @param hostname the host the server will listen on
+     * @return the port
+     */
+    static synchronized int allocate(String hostname) {
+        while (true) {
+            try (ServerSocket socket = new ServerSocket()) {
+                socket.setReuseAddress(true);
+                socket.bind(new InetSocketAddress(hostname, 0));
+
+                if (leased.add(socket.getLocalPort())) return socket.getLocalPort();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Release a port.
+     *
+     * @param port the port
+     */
+    static synchronized void release(int port) {
+        leased.remove(port);
+    }
+}
@@ -0,0 +1,194 @@
+package de.rubenmaurer.punk.core.facade;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resources consumed by a process and all of its descendants at a single point in time, read from '/proc'.
+ * Wrapper scripts starting the actual server are covered, the values of all processes are summed up.
+ * On systems without '/proc' every value is 0.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ProcessSample {
+
+    /**
+     * Root of the proc filesystem.
+     */
+    private static final Path PROC = Paths.get("/proc");
+
+    /**
+     * Clock ticks per second, the unit of the cpu times in '/proc/[pid]/stat'.
+     */
+    private static final long TICKS = ticksPerSecond();
+
+    /**
+     * Amount of sampled processes.
+     */
+    private final int processes;
+
+    /**
+     * Resident set size in kB.
+     */
+    private final long rss;
+
+    /**
+     * Amount of threads.
+     */
+    private final long threads;
+
+    /**
+     * Amount of open file descriptors.
+     */
+    private final long fds;
+
+    /**
+     * Cpu time spent in user and kernel mode in clock ticks.
+     */
+    private final long ticks;
+
+    /**
+     * Create a new sample.
+     *
+     * @param processes amount of sampled processes
+     * @param rss resident set size in kB
+     * @param threads amount of threads
+     * @param fds amount of open file descriptors
+     * @param ticks cpu time in clock ticks
+     */
+    private ProcessSample(int processes, long rss, long threads, long fds, long ticks) {
+        this.processes = processes;
+        this.rss = rss;
+        this.threads = threads;
+        this.fds = fds;
+        this.ticks = ticks;
+    }
+
+    /**
+     * Sample a process and all of its descendants.
+     * Processes vanishing while they are sampled are skipped.
+     *
+     * @param pid the pid of the process
+     * @return the sample
+     */
+    public static ProcessSample of(long pid) {
+        List<Long> pids = new ArrayList<>();
+        if (pid >= 0 && ProcessTree.isAlive(pid)) pids.add(pid);
+        pids.addAll(ProcessTree.descendants(pid));
+
+        int processes = 0;
+        long rss = 0, threads = 0, fds = 0, ticks = 0;
+
+        for (long p : pids) {
+            Path dir = PROC.resolve(String.valueOf(p));
+
+            try {
+                for (String line : Files.readAllLines(dir.resolve("status"), StandardCharsets.US_ASCII)) {
+                    if (line.startsWith("VmRSS:")) rss += Long.parseLong(line.replaceAll("[^0-9]", ""));
+                    if (line.startsWith("Threads:")) threads += Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+
+                // the command name may contain spaces, so the fields are counted after its closing bracket
+                String stat = new String(Files.readAllBytes(dir.resolve("stat")), StandardCharsets.US_ASCII);
+                String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                ticks += Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+
+                fds += count(dir.resolve("fd"));
+                processes++;
+            } catch (IOException | RuntimeException ignore) {
+                // the process vanished
+            }
+        }
+
+        return new ProcessSample(processes, rss, threads, fds, ticks);
+    }
+
+    /**
+     * Count the entries of a directory.
+     *
+     * @param dir the directory
+     * @return the amount of entries
+     * @throws IOException if the directory can not be read
+     */
+    private static long count(Path dir) throws IOException {
+        long count = 0;
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path ignore : entries) count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the clock ticks per second of the system.
+     *
+     * @return the ticks, 100 if they can not be determined
+     */
+    private static long ticksPerSecond() {
+        try {
+            Process getconf = new ProcessBuilder("getconf", "CLK_TCK").redirectErrorStream(true).start();
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(getconf.getInputStream(), StandardCharsets.US_ASCII))) {
+                return Long.parseLong(reader.readLine().trim());
+            }
+        } catch (IOException | RuntimeException e) {
+            return 100;
+        }
+    }
+
+    /**
+     * Get the amount of sampled processes, 0 if the process is not running.
+     *
+     * @return the amount
+     */
+    public int processes() {
+        return processes;
+    }
+
+    /**
+     * Get the resident set size.
+     *
+     * @return the size in kB
+     */
+    public long rss() {
+        return rss;
+    }
+
+    /**
+     * Get the amount of threads.
+     *
+     * @return the amount
+     */
+    public long threads() {
+        return threads;
+    }
+
+    /**
+     * Get the amount of open file descriptors.
+     *
+     * @return the amount
+     */
+    public long fds() {
+        return fds;
+    }
+
+    /**
+     * Get the cpu time spent in user and kernel mode.
+     *
+     * @return the time in milliseconds
+     */
+    public long cpu() {
+        return ticks * 1000 / TICKS;
+    }
+}
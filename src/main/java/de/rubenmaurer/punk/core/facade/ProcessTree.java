@@ -0,0 +1,143 @@
+package de.rubenmaurer.punk.core.facade;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Helper for inspecting and signalling a process and all of its descendants.
+ * Descendants are looked up via '/proc', so they are only found on linux.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+class ProcessTree {
+
+    /**
+     * Root of the proc filesystem.
+     */
+    private static final Path PROC = Paths.get("/proc");
+
+    /**
+     * Private constructor.
+     */
+    private ProcessTree() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Get the pid of a process.
+     *
+     * @param process the process
+     * @return the pid, -1 if it could not be determined
+     */
+    static long pid(Process process) {
+        try {
+            return (long) Process.class.getMethod("pid").invoke(process);
+        } catch (ReflectiveOperationException ignore) {
+            // pre java 9 runtime
+        }
+
+        try {
+            Field field = process.getClass().getDeclaredField("pid");
+            field.setAccessible(true);
+
+            return field.getInt(process);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Get all living descendants of a process.
+     *
+     * @param pid the pid of the process
+     * @return the pids of the descendants, children first
+     */
+    static List<Long> descendants(long pid) {
+        List<Long> result = new LinkedList<>();
+        if (pid < 0 || !Files.isDirectory(PROC)) return result;
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(PROC, "[0-9]*")) {
+            for (Path entry : entries) {
+                long parent = parent(entry);
+                if (parent > 0) {
+                    children.computeIfAbsent(parent, p -> new LinkedList<>()).add(Long.parseLong(entry.getFileName().toString()));
+                }
+            }
+        } catch (IOException ignore) {
+            return result;
+        }
+
+        Deque<Long> open = new ArrayDeque<>(children.getOrDefault(pid, Collections.emptyList()));
+        while (!open.isEmpty()) {
+            long child = open.poll();
+            result.add(child);
+            open.addAll(children.getOrDefault(child, Collections.emptyList()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Read the parent pid of a '/proc' entry.
+     *
+     * @param entry the entry
+     * @return the parent pid, -1 if the entry vanished
+     */
+    private static long parent(Path entry) {
+        try {
+            String stat = new String(Files.readAllBytes(entry.resolve("stat")), StandardCharsets.US_ASCII);
+
+            // the command name may contain spaces, so the fields are counted after its closing bracket
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            return Long.parseLong(fields[1]);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Is a process still running?
+     * Zombies are treated as dead.
+     *
+     * @param pid the pid
+     * @return process is running?
+     */
+    static boolean isAlive(long pid) {
+        try {
+            String stat = new String(Files.readAllBytes(PROC.resolve(String.valueOf(pid)).resolve("stat")), StandardCharsets.US_ASCII);
+            return stat.charAt(stat.lastIndexOf(')') + 2) != 'Z';
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Send a signal to a list of processes.
+     *
+     * @param signal the signal name, e.g. TERM or KILL
+     * @param pids the pids
+     */
+    static void signal(String signal, List<Long> pids) {
+        if (pids.isEmpty()) return;
+
+        List<String> command = new LinkedList<>(Arrays.asList("kill", String.format("-%s", signal)));
+        pids.forEach(pid -> command.add(String.valueOf(pid)));
+
+        try {
+            new ProcessBuilder(command).redirectErrorStream(true).start().waitFor();
+        } catch (IOException ignore) {
+            // no kill command available
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
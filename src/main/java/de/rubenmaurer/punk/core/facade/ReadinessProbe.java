@@ -0,0 +1,149 @@
+package de.rubenmaurer.punk.core.facade;
+
+import de.rubenmaurer.punk.Settings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Probe for detecting the moment the irc server is ready.
+ * Polls the servers address with fast tcp connects and an exponential backoff.
+ * If a pattern is configured, the server log is watched for it as well.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+class ReadinessProbe {
+
+    /**
+     * The servers hostname.
+     */
+    private String host;
+
+    /**
+     * The servers port.
+     */
+    private int port;
+
+    /**
+     * The server log to watch.
+     */
+    private File log;
+
+    /**
+     * Pattern to watch for, or null.
+     */
+    private Pattern pattern;
+
+    /**
+     * Position in the server log up to which it was already searched.
+     */
+    private long offset;
+
+    /**
+     * Incomplete last line of the server log.
+     */
+    private String carry = "";
+
+    /**
+     * Pattern was found inside the server log?
+     */
+    private boolean patternSeen;
+
+    /**
+     * Creates a new probe.
+     * Content written to the log before the creation of the probe is ignored.
+     *
+     * @param host the servers hostname
+     * @param port the servers port
+     * @param log the server log to watch
+     * @param pattern regex to watch for inside the log, empty for none
+     */
+    ReadinessProbe(String host, int port, File log, String pattern) {
+        this.host = host;
+        this.port = port;
+        this.log = log;
+        this.offset = log.length();
+        this.pattern = pattern == null || pattern.isEmpty() ? null : Pattern.compile(pattern);
+        this.patternSeen = this.pattern == null;
+    }
+
+    /**
+     * Wait until the server is ready, has died or the timeout is reached.
+     *
+     * @param process the server process
+     * @param timeout the max time to wait in milliseconds
+     * @return the time it took the server to become ready in milliseconds, -1 if it never got ready
+     * @throws InterruptedException if interrupted while waiting
+     */
+    long await(Process process, long timeout) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeout * 1_000_000L;
+        long backoff = Settings.readyBackoff();
+
+        while (process.isAlive()) {
+            long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+            if (remaining <= 0) break;
+
+            if (!patternSeen) patternSeen = scanLog();
+            if (patternSeen && accepts(host, port, (int) Math.min(remaining, Settings.readyConnectTimeout()))) {
+                return (System.nanoTime() - start) / 1_000_000L;
+            }
+
+            Thread.sleep(Math.max(1, Math.min(backoff, remaining)));
+            backoff = Math.min(backoff * 2, Settings.readyMaxBackoff());
+        }
+
+        return -1;
+    }
+
+    /**
+     * Searches the newly written part of the server log for the pattern.
+     *
+     * @return pattern found?
+     */
+    private boolean scanLog() {
+        if (log.length() <= offset) return false;
+
+        try (RandomAccessFile file = new RandomAccessFile(log, "r")) {
+            byte[] buffer = new byte[(int) (file.length() - offset)];
+            file.seek(offset);
+            file.readFully(buffer);
+            offset += buffer.length;
+
+            String[] lines = carry.concat(new String(buffer, StandardCharsets.UTF_8)).split("\r?\n", -1);
+            carry = lines[lines.length - 1];
+
+            for (String line : lines) {
+                if (pattern.matcher(line).find()) return true;
+            }
+        } catch (IOException ignore) {
+            // log not written yet
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the server accepts tcp connections.
+     *
+     * @param host the servers hostname
+     * @param port the servers port
+     * @param timeout the connect timeout in milliseconds
+     * @return connection accepted?
+     */
+    static boolean accepts(String host, int port, int timeout) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), Math.max(1, timeout));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -7,6 +7,13 @@ import de.rubenmaurer.punk.util.Template;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class for controlling the irc server.
@@ -23,27 +30,37 @@ public class Server {
     private String path;
 
     /**
-     * The Server process.
+     * The servers hostname.
      */
-    private Process server;
+    private String hostname;
 
     /**
-     * The amount of tries to shut the server down.
+     * The port the server listens on.
      */
-    private int shutdownTries = 1;
+    private int port;
 
     /**
-     * Server singleton
+     * The Server process.
      */
-    private static Server self;
+    private Process server;
+
+    /**
+     * Time each test had to wait for the server to become ready, in milliseconds.
+     * A negative value means the server never got ready.
+     */
+    private static final Map<String, Long> startupTimes = Collections.synchronizedMap(new LinkedHashMap<>());
 
     /**
      * Creates a new ServerManager.
      *
      * @param path the servers executable path.
+     * @param hostname the servers hostname
+     * @param port the port the server listens on
      */
-    private Server(String path) {
+    Server(String path, String hostname, int port) {
         this.path = path;
+        this.hostname = hostname;
+        this.port = port;
     }
 
     /**
@@ -51,89 +68,155 @@ public class Server {
      *
      * @return server is online?
      */
-    static boolean start(String test) {
-        if (self != null) {
-            try {
-                ProcessBuilder pb = new ProcessBuilder(Settings.javaServerSetup(self.path));
+    boolean start(String test) {
+        try {
+            ProcessBuilder pb = new ProcessBuilder(Settings.javaServerSetup(path, port));
 
-                if (!Settings.java()) {
-                    pb = new ProcessBuilder(Settings.serverSetup(self.path));
-                }
+            if (!Settings.java()) {
+                pb = new ProcessBuilder(Settings.serverSetup(path, port));
+            }
 
-                pb.redirectOutput(ProcessBuilder.Redirect.appendTo(
-                        new File(String.format("%s/%s/server_logs/%s.log", Settings.logs(), Pricefield.runtimeID, test))));
+            File log = new File(String.format("%s/%s/server_logs/%s.log", Settings.logs(), Pricefield.runtimeID, test));
+            pb.redirectOutput(ProcessBuilder.Redirect.appendTo(log));
 
-                pb.redirectError(ProcessBuilder.Redirect.appendTo(
-                        new File(String.format("%s/%s/server_error/%s.log", Settings.logs(), Pricefield.runtimeID, test))));
+            pb.redirectError(ProcessBuilder.Redirect.appendTo(
+                    new File(String.format("%s/%s/server_error/%s.log", Settings.logs(), Pricefield.runtimeID, test))));
 
-                self.server = pb.start();
-                Thread.sleep(Settings.startDelay() * 1000);
+            ReadinessProbe probe = new ReadinessProbe(hostname, port, log, Settings.readyPattern());
 
-                return self.server.isAlive();
-            } catch (IOException | InterruptedException e) {
-                Terminal.printError(e.getMessage());
-                System.out.println("\r\n");
-                System.out.println(Terminal.center(Template.get("TERMINATE_MESSAGE").single("id", Pricefield.runtimeID).render()));
+            server = pb.start();
+            long ready = probe.await(server, Settings.startDelay() * 1000L);
+            startupTimes.put(test, ready);
 
-                System.exit(-1);
+            if (ready < 0) {
+                Terminal.debugErro(Template.get("SERVER_NOT_READY").single("test", test).single("delay", Settings.startDelay()).render());
             }
+
+            return server.isAlive();
+        } catch (IOException | InterruptedException e) {
+            Terminal.printError(e.getMessage());
+            System.out.println("\r\n");
+            System.out.println(Terminal.center(Template.get("TERMINATE_MESSAGE").single("id", Pricefield.runtimeID).render()));
+
+            System.exit(-1);
         }
 
         return false;
     }
 
     /**
-     * Try to stop the server
+     * Try to stop the server.
+     * Sends a SIGTERM to the server and all of its descendants, kills whatever
+     * survives the stop delay and waits until the servers port is released.
      *
      * @return server has stopped?
      */
-    static boolean stop() {
-        if (self != null) {
-            try {
-                self.server.destroy();
-
-                while (self.server.isAlive()) {
-                    Thread.sleep(Settings.stopDelay() * 1000);
+    boolean stop() {
+        if (server == null) return true;
 
-                    if (self.shutdownTries < Settings.shutdownTries()) {
-                        self.server.destroy();
-                        continue;
-                    }
+        try {
+            long pid = ProcessTree.pid(server);
+            List<Long> tree = ProcessTree.descendants(pid);
 
-                    self.server = self.server.destroyForcibly();
-                }
+            server.destroy();
+            ProcessTree.signal("TERM", tree);
 
-                return !self.server.isAlive();
-            } catch(InterruptedException e) {
-                Terminal.printError(e.getMessage());
-                System.out.println(Terminal.center(Template.get("TERMINATE_MESSAGE").single("id", Pricefield.runtimeID).render()));
+            if (!server.waitFor(Settings.stopDelay() * 1000L, TimeUnit.MILLISECONDS) || anyAlive(tree)) {
+                tree.addAll(ProcessTree.descendants(pid));
+                ProcessTree.signal("KILL", tree);
 
-                System.exit(-1);
+                server.destroyForcibly().waitFor(Settings.stopDelay() * 1000L, TimeUnit.MILLISECONDS);
             }
+
+            return !server.isAlive() && !anyAlive(tree) && portReleased(System.nanoTime() + Settings.stopDelay() * 1_000_000_000L);
+        } catch(InterruptedException e) {
+            Terminal.printError(e.getMessage());
+            System.out.println(Terminal.center(Template.get("TERMINATE_MESSAGE").single("id", Pricefield.runtimeID).render()));
+
+            System.exit(-1);
         }
 
         return false;
     }
 
+    /**
+     * Is any process of a list still running?
+     *
+     * @param pids the pids
+     * @return any process running?
+     */
+    private static boolean anyAlive(List<Long> pids) {
+        return pids.stream().anyMatch(ProcessTree::isAlive);
+    }
+
+    /**
+     * Wait until the servers port can be bound again, so the next start does not fail with EADDRINUSE.
+     * A refused connect is not enough, e.g. sockets in TIME_WAIT still block a bind.
+     *
+     * @param deadline the deadline as {@link System#nanoTime()}
+     * @return port released before the deadline?
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private boolean portReleased(long deadline) throws InterruptedException {
+        while (!bindable(hostname, port)) {
+            if (System.nanoTime() > deadline) return false;
+
+            Thread.sleep(Settings.readyBackoff());
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if a port can be bound, like a server setting SO_REUSEADDR does. The socket is closed right away.
+     *
+     * @param host the hostname
+     * @param port the port
+     * @return port can be bound?
+     */
+    private static boolean bindable(String host, int port) {
+        try (ServerSocket socket = new ServerSocket()) {
+            socket.setReuseAddress(true);
+            socket.bind(new InetSocketAddress(host, port));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     /**
      * Is server alive?
      *
      * @return server alive?
      */
-    static boolean isAlive() {
-        if (self != null) {
-            return self.server.isAlive();
-        }
+    boolean isAlive() {
+        return server != null && server.isAlive();
+    }
 
-        return false;
+    /**
+     * Get the pid of the server process.
+     *
+     * @return the pid, -1 if the server is not running or the pid could not be determined
+     */
+    long pid() {
+        return isAlive() ? ProcessTree.pid(server) : -1;
+    }
+
+    /**
+     * Get the port the server listens on.
+     *
+     * @return the port
+     */
+    int port() {
+        return port;
     }
 
     /**
-     * Create a new server.
+     * Get the time each test had to wait for the server to become ready.
      *
-     * @param path the executables path
+     * @return the startup times in milliseconds, negative if the server never got ready
      */
-    public static void create(String path) {
-        self = new Server(path);
+    static Map<String, Long> startupTimes() {
+        return startupTimes;
     }
 }
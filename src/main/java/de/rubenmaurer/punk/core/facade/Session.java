@@ -1,13 +1,23 @@
 package de.rubenmaurer.punk.core.facade;
 
+import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import de.rubenmaurer.punk.Settings;
 import de.rubenmaurer.punk.core.akka.ConnectionManager;
+import de.rubenmaurer.punk.core.akka.Latencies;
 import de.rubenmaurer.punk.util.Template;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Representing a single test session.
+ * Every worker thread owns its own session with its own server process,
+ * port and {@link ConnectionManager}. Without parallel workers all threads
+ * share one session, a load scenario always shares it with the threads it spawns.
  *
  * @author Ruben Maurer
  * @version 1.0
@@ -16,18 +26,39 @@ import de.rubenmaurer.punk.util.Template;
 public class Session {
 
     /**
-     * Session status
+     * The actor system shared by all sessions.
      */
-    private static boolean initiated = false;
+    private static ActorSystem system;
 
     /**
-     * Is session initiated?
-     *
-     * @return is initiated?
+     * Counter for naming the connection managers.
      */
-    public static boolean isInitiated() {
-        return initiated;
-    }
+    private static final AtomicInteger managers = new AtomicInteger();
+
+    /**
+     * The session used when no worker session is bound to the current thread.
+     */
+    private static Session shared;
+
+    /**
+     * The session bound to the current worker thread.
+     */
+    private static final ThreadLocal<Session> worker = new ThreadLocal<>();
+
+    /**
+     * The irc server of this session.
+     */
+    private Server server;
+
+    /**
+     * The {@link ConnectionManager} used for creating new connections to the server.
+     */
+    private ActorRef connectionManager;
+
+    /**
+     * Latencies of the server, recorded by all connections of this session.
+     */
+    private Latencies latencies = new Latencies();
 
     /**
      * Instantiates a new Session.
@@ -37,33 +68,126 @@ public class Session {
      * @param executable the executable
      */
     private Session(String hostname, int port, String executable) {
-        if (!initiated) {
-            Server.create(executable);
-            Config cfg = ConfigFactory.load("resources/application.conf");
-            Client.connectionManager = ActorSystem.apply("pricefield", cfg).actorOf(ConnectionManager.props(hostname, port), "de.rubenmaurer.punk.test.connection-manager");
+        Config cfg = ConfigFactory.load("resources/application.conf");
 
-            initiated = true;
+        synchronized (Session.class) {
+            if (system == null) system = ActorSystem.apply("pricefield", cfg);
         }
+
+        this.server = new Server(executable, hostname, port);
+        this.connectionManager = system.actorOf(ConnectionManager.props(hostname, port, latencies),
+                String.format("de.rubenmaurer.punk.test.connection-manager-%d", managers.incrementAndGet()));
+    }
+
+    /**
+     * Get the session of the current thread.
+     *
+     * @return the session, null if none is initiated
+     */
+    private static Session current() {
+        Session session = worker.get();
+        return session != null ? session : shared;
+    }
+
+    /**
+     * Get the session of the current thread, failing if there is none.
+     *
+     * @return the session
+     * @throws IllegalStateException if no session is bound to the current thread
+     */
+    private static Session required() {
+        Session session = current();
+        if (session == null) {
+            throw new IllegalStateException(Template.get("NO_SESSION").single("thread", Thread.currentThread().getName()).render());
+        }
+
+        return session;
+    }
+
+    /**
+     * Is session initiated?
+     *
+     * @return is initiated?
+     */
+    public static boolean isInitiated() {
+        return current() != null;
     }
 
     /**
      * Initiate a session.
+     * With parallel workers every calling thread gets its own session on a free port.
      *
      * @param hostname the servers executable
      * @param port the port
      * @param executable the hostname
      */
     public static void initiate(String hostname, int port, String executable) {
-        new Session(hostname, port, executable);
+        if (Settings.parallel()) {
+            if (worker.get() == null) worker.set(new Session(hostname, PortAllocator.allocate(hostname), executable));
+            return;
+        }
+
+        initiateShared(hostname, port, executable);
+    }
+
+    /**
+     * Initiate the session shared by all threads, also with parallel workers.
+     * Used if clients are created on threads other than the initiating one, e.g. by the load scenarios.
+     *
+     * @param hostname the hostname
+     * @param port the port
+     * @param executable the servers executable
+     */
+    public static void initiateShared(String hostname, int port, String executable) {
+        synchronized (Session.class) {
+            if (shared == null) shared = new Session(hostname, port, executable);
+        }
+    }
+
+    /**
+     * Terminate the session and publish the latencies recorded during it.
+     *
+     * @param test the name of the test class the session was used for
+     * @return server stopped?
+     */
+    public static boolean terminate(String test) {
+        Session session = current();
+        if (session != null) session.latencies.publish(test);
+
+        return terminate();
     }
 
     /**
      * Terminate the session.
+     *
+     * @return server stopped?
      */
     public static boolean terminate() {
-        Session.initiated = false;
+        Session session = current();
+        if (session == null) return true;
+
+        boolean stopped = Session.stopServer();
+        system.stop(session.connectionManager);
+
+        if (session == worker.get()) {
+            worker.remove();
+            PortAllocator.release(session.server.port());
+        } else {
+            synchronized (Session.class) {
+                shared = null;
+            }
+        }
+
+        return stopped;
+    }
 
-        return Session.stopServer();
+    /**
+     * Get the {@link ConnectionManager} of the current session.
+     *
+     * @return the connection manager
+     */
+    static ActorRef connectionManager() {
+        return required().connectionManager;
     }
 
     /**
@@ -72,7 +196,7 @@ public class Session {
      * @return server started?
      */
     public static boolean startServer(String test) {
-        return Server.start(test);
+        return required().server.start(test);
     }
 
     /**
@@ -81,7 +205,7 @@ public class Session {
      * @return server stopped?
      */
     public static boolean stopServer() {
-        if (!Server.stop()) {
+        if (!required().server.stop()) {
             System.err.println(Template.get("UNABLE_TO_STOP_SERVER").render());
             return false;
         }
@@ -89,12 +213,32 @@ public class Session {
         return true;
     }
 
+    /**
+     * Get the time each test had to wait for the server to become ready.
+     *
+     * @return the startup times in milliseconds, negative if the server never got ready
+     */
+    public static Map<String, Long> startupTimes() {
+        return Collections.unmodifiableMap(Server.startupTimes());
+    }
+
     /**
      * Is the server running?
      *
      * @return server running?
      */
     public static boolean serverIsAlive() {
-        return Server.isAlive();
+        Session session = current();
+        return session != null && session.server.isAlive();
+    }
+
+    /**
+     * Get the pid of the server process.
+     *
+     * @return the pid, -1 if the server is not running or the pid could not be determined
+     */
+    public static long serverPid() {
+        Session session = current();
+        return session != null ? session.server.pid() : -1;
     }
 }
@@ -0,0 +1,258 @@
+package de.rubenmaurer.punk.core.irc;
+
+/**
+ * A single message received from the irc server.
+ * Split into prefix, command, middle parameters and trailing parameter following RFC 2812:
+ * <pre>[ ":" prefix SPACE ] command *14( SPACE middle ) [ SPACE ":" trailing ]</pre>
+ * Every line is parsed once when it is received, tokens are separated by one or more spaces.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class IrcMessage {
+
+    /**
+     * The empty message.
+     */
+    public static final IrcMessage EMPTY = parse("");
+
+    /**
+     * Max. amount of middle parameters.
+     */
+    private static final int MAX_MIDDLE = 14;
+
+    /**
+     * No middle parameters.
+     */
+    private static final String[] NO_PARAMS = new String[0];
+
+    /**
+     * The line as received, without line terminator.
+     */
+    private final String raw;
+
+    /**
+     * The prefix without the leading colon, null if there is none.
+     */
+    private final String prefix;
+
+    /**
+     * The command or the three digit numeric reply.
+     */
+    private final String command;
+
+    /**
+     * The numeric reply, -1 if the command is no numeric.
+     */
+    private final int numeric;
+
+    /**
+     * The middle parameters.
+     */
+    private final String[] params;
+
+    /**
+     * The trailing parameter without the leading colon, null if there is none.
+     */
+    private final String trailing;
+
+    /**
+     * Create a new message.
+     *
+     * @param raw the line
+     * @param prefix the prefix
+     * @param command the command
+     * @param numeric the numeric reply
+     * @param params the middle parameters
+     * @param trailing the trailing parameter
+     */
+    private IrcMessage(String raw, String prefix, String command, int numeric, String[] params, String trailing) {
+        this.raw = raw;
+        this.prefix = prefix;
+        this.command = command;
+        this.numeric = numeric;
+        this.params = params;
+        this.trailing = trailing;
+    }
+
+    /**
+     * Parse a line.
+     * Never fails, a line which is no valid irc message results in a message with an
+     * empty or unknown command.
+     *
+     * @param line the line without line terminator
+     * @return the message
+     */
+    public static IrcMessage parse(String line) {
+        int length = line.length();
+        int i = skip(line, 0);
+
+        String prefix = null;
+        if (i < length && line.charAt(i) == ':') {
+            int end = token(line, i);
+            prefix = line.substring(i + 1, end);
+            i = skip(line, end);
+        }
+
+        int end = token(line, i);
+        String command = line.substring(i, end);
+        i = skip(line, end);
+
+        int count = 0;
+        for (int j = i; j < length && count < MAX_MIDDLE && line.charAt(j) != ':'; j = skip(line, token(line, j))) {
+            count++;
+        }
+
+        String[] params = count == 0 ? NO_PARAMS : new String[count];
+        for (int p = 0; p < count; p++) {
+            end = token(line, i);
+            params[p] = line.substring(i, end);
+            i = skip(line, end);
+        }
+
+        String trailing = null;
+        if (i < length) {
+            trailing = line.charAt(i) == ':' ? line.substring(i + 1) : line.substring(i);
+        }
+
+        return new IrcMessage(line, prefix, command, numeric(command), params, trailing);
+    }
+
+    /**
+     * Skip spaces.
+     *
+     * @param line the line
+     * @param from the index to start at
+     * @return the index of the next character which is no space
+     */
+    private static int skip(String line, int from) {
+        while (from < line.length() && line.charAt(from) == ' ') from++;
+        return from;
+    }
+
+    /**
+     * Find the end of a token.
+     *
+     * @param line the line
+     * @param from the index the token starts at
+     * @return the index behind the token
+     */
+    private static int token(String line, int from) {
+        int end = line.indexOf(' ', from);
+        return end < 0 ? line.length() : end;
+    }
+
+    /**
+     * Get the value of a numeric reply.
+     *
+     * @param command the command
+     * @return the value, -1 if the command is no numeric
+     */
+    private static int numeric(String command) {
+        if (command.length() != 3) return -1;
+
+        int value = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = command.charAt(i);
+            if (c < '0' || c > '9') return -1;
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    /**
+     * Getter for the line as received.
+     *
+     * @return the line
+     */
+    public String raw() {
+        return raw;
+    }
+
+    /**
+     * Getter for the prefix.
+     *
+     * @return the prefix, null if there is none
+     */
+    public String prefix() {
+        return prefix;
+    }
+
+    /**
+     * Getter for the command.
+     *
+     * @return the command, the three digits for numeric replies
+     */
+    public String command() {
+        return command;
+    }
+
+    /**
+     * Is the message a command with the given name?
+     *
+     * @param name the name, case insensitive
+     * @return is the command?
+     */
+    public boolean is(String name) {
+        return command.equalsIgnoreCase(name);
+    }
+
+    /**
+     * Getter for the numeric reply.
+     *
+     * @return the numeric, -1 if the message is no numeric reply
+     */
+    public int numeric() {
+        return numeric;
+    }
+
+    /**
+     * Get the amount of middle parameters.
+     *
+     * @return the amount
+     */
+    public int paramCount() {
+        return params.length;
+    }
+
+    /**
+     * Get a middle parameter.
+     *
+     * @param index the index
+     * @return the parameter
+     */
+    public String param(int index) {
+        return params[index];
+    }
+
+    /**
+     * Getter for the trailing parameter.
+     *
+     * @return the trailing parameter, null if there is none
+     */
+    public String trailing() {
+        return trailing;
+    }
+
+    /**
+     * Is the message empty?
+     *
+     * @return is empty?
+     */
+    public boolean isEmpty() {
+        return raw.trim().isEmpty();
+    }
+
+    /**
+     * Get the line as received.
+     *
+     * @return the line
+     */
+    @Override
+    public String toString() {
+        return raw;
+    }
+}
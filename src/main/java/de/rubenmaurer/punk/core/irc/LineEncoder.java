@@ -0,0 +1,102 @@
+package de.rubenmaurer.punk.core.irc;
+
+import akka.util.ByteString;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Encodes outgoing lines, terminated by CR LF, into reusable buffers.
+ * The bytes are identical to {@code ByteString.fromString(line + "\r\n", charset)}, but neither the
+ * terminated line nor its bytes are created as temporary objects. Only the final {@link ByteString} is a copy.
+ * An encoder is not thread-safe, every connection owns its own.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class LineEncoder {
+
+    /**
+     * The encoder of the charset.
+     */
+    private final CharsetEncoder encoder;
+
+    /**
+     * Buffer for the characters of a line.
+     */
+    private char[] chars = new char[256];
+
+    /**
+     * Buffer for the bytes of a line.
+     */
+    private ByteBuffer bytes = ByteBuffer.allocate(512);
+
+    /**
+     * Create a new encoder.
+     *
+     * @param charset the charset
+     */
+    public LineEncoder(Charset charset) {
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Encode a line and terminate it.
+     *
+     * @param line the line, without terminator
+     * @return the bytes
+     */
+    public ByteString encode(String line) {
+        return encode(Collections.singletonList(line));
+    }
+
+    /**
+     * Encode several lines at once, each one terminated.
+     * The bytes are those of all terminated lines joined into a single string.
+     *
+     * @param lines the lines, without terminator
+     * @return the bytes of all lines
+     */
+    public ByteString encode(List<String> lines) {
+        int length = 0;
+        for (String line : lines) length += line.length() + 2;
+
+        if (chars.length < length) chars = new char[Math.max(length, chars.length * 2)];
+
+        int position = 0;
+        for (String line : lines) {
+            line.getChars(0, line.length(), chars, position);
+            position += line.length();
+            chars[position++] = '\r';
+            chars[position++] = '\n';
+        }
+
+        CharBuffer in = CharBuffer.wrap(chars, 0, length);
+        encoder.reset();
+        bytes.clear();
+
+        while (encoder.encode(in, bytes, true).isOverflow()) grow();
+        for (CoderResult result = encoder.flush(bytes); result.isOverflow(); result = encoder.flush(bytes)) grow();
+
+        return ByteString.fromArray(bytes.array(), 0, bytes.position());
+    }
+
+    /**
+     * Double the byte buffer, keeping its content.
+     */
+    private void grow() {
+        ByteBuffer grown = ByteBuffer.allocate(bytes.capacity() * 2);
+        grown.put(bytes.array(), 0, bytes.position());
+
+        bytes = grown;
+    }
+}
@@ -6,10 +6,11 @@ import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.launcher.TestExecutionListener;
 import org.junit.platform.launcher.TestIdentifier;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.fusesource.jansi.Ansi.ansi;
 
@@ -23,19 +24,36 @@ import static org.fusesource.jansi.Ansi.ansi;
 public class PricefieldUnitListener implements TestExecutionListener {
 
     /**
-     * The title of the current running test.
+     * Collection of all tests with their status.
      */
-    private String display;
+    public static Map<TestExecutionResult.Status, List<String>> testResults = new ConcurrentHashMap<>();
 
     /**
-     * Collection of all tests with their status.
+     * Buffer the output of each test class until it is finished?
+     * Used when test classes run in parallel.
+     */
+    private boolean buffered;
+
+    /**
+     * Reports of all running test classes.
+     */
+    private Map<String, ClassReport> reports = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new listener which prints the status of each test immediately.
      */
-    public static Map<TestExecutionResult.Status, List<String>> testResults = new HashMap<>();
+    public PricefieldUnitListener() {
+        this(false);
+    }
 
     /**
-     * Count variables.
+     * Create a new listener.
+     *
+     * @param buffered print each test class as a whole block when it is finished?
      */
-    private int testCount, success, failed, aborted;
+    public PricefieldUnitListener(boolean buffered) {
+        this.buffered = buffered;
+    }
 
     /**
      * Is called when a test execution is started.
@@ -44,25 +62,29 @@ public class PricefieldUnitListener implements TestExecutionListener {
      * @param testIdentifier the test which is running
      */
     public void executionStarted(TestIdentifier testIdentifier) {
-        display = testIdentifier.getDisplayName();
+        String display = testIdentifier.getDisplayName();
         if(!display.contains("JUnit")) {
 
-            String status = ansi().fgBlue().render("PROCESSING").fgDefault().toString();
             if (!testIdentifier.isContainer()) {
-                System.out.print(ansi().saveCursorPosition()
-                        .render(Terminal.twoSidedColumn(display, String.valueOf(ansi().render(Terminal.cageStatus(status))))));
+                report(testIdentifier).testCount++;
+
+                if (!buffered) {
+                    String status = ansi().fgBlue().render("PROCESSING").fgDefault().toString();
+                    System.out.print(ansi().saveCursorPosition()
+                            .render(Terminal.twoSidedColumn(display, String.valueOf(ansi().render(Terminal.cageStatus(status))))));
+                }
 
-                testCount++;
                 return;
             }
 
-            System.out.print(ansi()
+            ClassReport report = new ClassReport();
+            reports.put(testIdentifier.getUniqueId(), report);
+
+            report.print(ansi()
                     .render("\r\n")
                     .render(Terminal.getDivider("="))
                     .render(Terminal.center(String.format("=== %s ===", display.toUpperCase())))
-                    .render(Terminal.getDivider("-")));
-
-            testCount = success = failed = aborted = 0;
+                    .render(Terminal.getDivider("-")).toString());
         }
     }
 
@@ -77,45 +99,96 @@ public class PricefieldUnitListener implements TestExecutionListener {
     public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
         if (!testIdentifier.getDisplayName().contains("JUnit")) {
             if (!testIdentifier.isContainer()) {
+                ClassReport report = report(testIdentifier);
                 TestExecutionResult.Status status = testExecutionResult.getStatus();
 
                 String result = "";
                 if (status.equals(TestExecutionResult.Status.FAILED) || status.equals(TestExecutionResult.Status.ABORTED)) {
                     result = ansi().fgRed().render(status.name()).fgDefault().toString();
                     if (status.equals(TestExecutionResult.Status.ABORTED)) {
-                        aborted++;
+                        report.aborted++;
                     }
 
                     if (status.equals(TestExecutionResult.Status.FAILED)) {
-                        failed++;
+                        report.failed++;
                     }
                 }
 
                 if (status.equals(TestExecutionResult.Status.SUCCESSFUL)) {
                     result = ansi().fgGreen().render(status.name()).fgDefault().toString();
-                    success++;
+                    report.success++;
                 }
 
-                System.out.println(ansi().restoreCursorPosition().eraseLine(Ansi.Erase.ALL)
-                        .render(Terminal.twoSidedColumn(display, String.valueOf(ansi().render(Terminal.cageStatus(result))))));
-
-                if (testResults.getOrDefault(status, null) == null) {
-                    testResults.put(status, new LinkedList<>());
+                String line = Terminal.twoSidedColumn(testIdentifier.getDisplayName(), String.valueOf(ansi().render(Terminal.cageStatus(result))));
+                if (buffered) {
+                    report.print(String.format("%s%n", line));
+                } else {
+                    System.out.println(ansi().restoreCursorPosition().eraseLine(Ansi.Erase.ALL).render(line));
                 }
 
-                testResults.get(status).add(testIdentifier.getDisplayName());
+                testResults.computeIfAbsent(status, s -> Collections.synchronizedList(new LinkedList<>()))
+                        .add(testIdentifier.getDisplayName());
 
                 return;
             }
 
+            ClassReport report = reports.remove(testIdentifier.getUniqueId());
+            if (report == null) return;
+
             String summary = String.format("%s%s",
-                    Terminal.center(String.format("[TESTS]: %s [SUCCESS]: %s [ABORTED]: %s [FAILURES]: %s", testCount, success, aborted, failed)),
-                    Terminal.center(String.format("[SUCCESS-RATE]: %d%%", (int)((success * 1.0 / testCount * 1.0) * 100))));
+                    Terminal.center(String.format("[TESTS]: %s [SUCCESS]: %s [ABORTED]: %s [FAILURES]: %s", report.testCount, report.success, report.aborted, report.failed)),
+                    Terminal.center(String.format("[SUCCESS-RATE]: %d%%", (int)((report.success * 1.0 / report.testCount * 1.0) * 100))));
 
-            System.out.println(ansi()
+            report.print(String.format("%s%n", ansi()
                     .render(Terminal.getDivider("-"))
                     .render(summary)
-                    .render(Terminal.getDivider("=")));
+                    .render(Terminal.getDivider("="))));
+
+            if (buffered) {
+                System.out.print(report.output);
+                System.out.flush();
+            }
+        }
+    }
+
+    /**
+     * Get the report of the test class a test belongs to.
+     *
+     * @param testIdentifier the test
+     * @return the report
+     */
+    private ClassReport report(TestIdentifier testIdentifier) {
+        return reports.computeIfAbsent(testIdentifier.getParentId().orElse(""), id -> new ClassReport());
+    }
+
+    /**
+     * Output and counters of a single test class.
+     * Only ever touched by the thread running the test class.
+     */
+    private class ClassReport {
+
+        /**
+         * Buffered output.
+         */
+        private final StringBuilder output = new StringBuilder();
+
+        /**
+         * Count variables.
+         */
+        private int testCount, success, failed, aborted;
+
+        /**
+         * Print or buffer a text.
+         *
+         * @param text the text
+         */
+        private void print(String text) {
+            if (buffered) {
+                output.append(text);
+                return;
+            }
+
+            System.out.print(text);
         }
     }
 }
@@ -3,12 +3,14 @@ package de.rubenmaurer.punk.evaluation;
 import de.rubenmaurer.punk.IRCParser;
 import de.rubenmaurer.punk.Settings;
 import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.antlr.ParseRequest;
 import de.rubenmaurer.punk.evaluation.antlr.Parser;
 import de.rubenmaurer.punk.util.Template;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Used for call the {@link Parser} and parse received messages.
@@ -19,14 +21,29 @@ import java.util.List;
  */
 public class Evaluation {
 
+    /**
+     * Evaluates the last reply of several response codes, fetched with a single query.
+     *
+     * @param sender the sender
+     * @param target the target
+     * @param values collection of values needed for evaluation
+     * @param responses the expected responses, evaluated in this order
+     */
+    private static void latest(Client sender, Client target, HashMap<String, String> values, Response... responses) {
+        Map<Response, IrcMessage> replies = sender.latestOrThrow(responses);
+
+        for (Response response : responses) {
+            Parser.parse(sender, target, response, replies.get(response), values);
+        }
+    }
+
     /**
      * Tries to evaluate a ping message.
      *
      * @param sender the sender
      */
     public static void ping(Client sender) {
-        Parser.useRule(IRCParser.RULE_pong);
-        Parser.parse(sender, Response.NONE, sender.lastResponse());
+        Parser.parse(ParseRequest.create(sender, Response.NONE, sender.lastMessage()).withRule(IRCParser.RULE_pong));
     }
 
     /**
@@ -61,10 +78,7 @@ public class Evaluation {
      * @param values collection of values needed for evaluation
      */
     public static void welcome(Client sender, HashMap<String, String> values) {
-        Parser.parse(sender, Response.WELCOME, sender.logOrThrow(Response.WELCOME).getLast());
-        Parser.parse(sender, Response.YOURHOST, sender.logOrThrow(Response.YOURHOST).getLast());
-        Parser.parse(sender, Response.CREATED, sender.logOrThrow(Response.CREATED).getLast());
-        Parser.parse(sender, Response.MY_INFO, sender.logOrThrow(Response.MY_INFO).getLast());
+        latest(sender, sender, new HashMap<>(), Response.WELCOME, Response.YOURHOST, Response.CREATED, Response.MY_INFO);
 
         //TODO: move permanently
         /*Parser.parse(sender, Response.LUSER_CLIENT, sender.logOrEmpty(Response.LUSER_CLIENT).getLast(), values);
@@ -84,7 +98,7 @@ public class Evaluation {
         HashMap<String, String> map = new HashMap<>();
         map.put("command", command);
 
-        Parser.parse(sender, Response.UNKNOWN_COMMAND, sender.lastResponse(), map);
+        Parser.parse(sender, Response.UNKNOWN_COMMAND, sender.lastMessage(), map);
     }
 
     /**
@@ -94,9 +108,7 @@ public class Evaluation {
      * @param target the who target
      */
     public static void whois(Client sender, Client target) {
-        Parser.parse(sender, target, Response.WHO_IS_USER, sender.logOrThrow(Response.WHO_IS_USER).getLast());
-        Parser.parse(sender, target, Response.WHO_IS_SERVER, sender.logOrThrow(Response.WHO_IS_SERVER).getLast());
-        Parser.parse(sender, target, Response.END_OF_WHO_IS, sender.logOrThrow(Response.END_OF_WHO_IS).getLast());
+        latest(sender, target, new HashMap<>(), Response.WHO_IS_USER, Response.WHO_IS_SERVER, Response.END_OF_WHO_IS);
     }
 
     /**
@@ -125,8 +137,8 @@ public class Evaluation {
         map.put("message", message);
         map.put("target", channel ? String.format("#%s", target) : target);
 
-        Parser.useRule(IRCParser.RULE_private_message);
-        Parser.parse(sender, receiver, Response.NONE, receiver.trash(), map); //TODO: clear trash fom empty lines?
+        Parser.parse(ParseRequest.create(sender, receiver, Response.NONE, receiver.trash(message), map)
+                .withRule(IRCParser.RULE_private_message)); //TODO: clear trash fom empty lines?
     }
 
     /**
@@ -155,8 +167,7 @@ public class Evaluation {
         map.put("message", message);
         map.put("target", channel ? String.format("#%s", target) : target);
 
-        Parser.useRule(IRCParser.RULE_notice);
-        Parser.parse(sender, receiver, Response.NONE, receiver.trash(), map);
+        Parser.parse(ParseRequest.create(sender, receiver, Response.NONE, receiver.trash(message), map).withRule(IRCParser.RULE_notice));
     }
 
     /**
@@ -169,7 +180,7 @@ public class Evaluation {
         HashMap<String, String> map = new HashMap<>();
         map.put("target", target);
 
-        Parser.parse(sender, Response.NO_SUCH_NICK, sender.logOrThrow(Response.NO_SUCH_NICK).getLast(), map);
+        Parser.parse(sender, Response.NO_SUCH_NICK, sender.lastOrThrow(Response.NO_SUCH_NICK), map);
     }
 
     /**
@@ -181,7 +192,7 @@ public class Evaluation {
         HashMap<String, String> values = new HashMap<>();
         values.put("nickname", sender.nickname());
 
-        Parser.parse(sender, Response.NICKNAME_IN_USE, sender.logOrThrow(Response.NICKNAME_IN_USE).getLast(), values);
+        Parser.parse(sender, Response.NICKNAME_IN_USE, sender.lastOrThrow(Response.NICKNAME_IN_USE), values);
     }
 
     /**
@@ -218,11 +229,7 @@ public class Evaluation {
         values.put("channels", String.valueOf(channels));
         values.put("clients", String.valueOf(user + unknown));
 
-        Parser.parse(sender, Response.LUSER_CLIENT, sender.logOrThrow(Response.LUSER_CLIENT).getLast(), values);
-        Parser.parse(sender, Response.LUSER_OP, sender.logOrThrow(Response.LUSER_OP).getLast(), values);
-        Parser.parse(sender, Response.LUSER_UNKNOWN, sender.logOrThrow(Response.LUSER_UNKNOWN).getLast(), values);
-        Parser.parse(sender, Response.LUSER_CHANNEL, sender.logOrThrow(Response.LUSER_CHANNEL).getLast(), values);
-        Parser.parse(sender, Response.LUSER_ME, sender.logOrThrow(Response.LUSER_ME).getLast(), values);
+        latest(sender, sender, values, Response.LUSER_CLIENT, Response.LUSER_OP, Response.LUSER_UNKNOWN, Response.LUSER_CHANNEL, Response.LUSER_ME);
     }
 
     /**
@@ -235,9 +242,7 @@ public class Evaluation {
         HashMap<String, String> values = new HashMap<>();
         values.put("message", message);
 
-        Parser.parse(sender, Response.MOTD_START, sender.logOrThrow(Response.MOTD_START).getLast(), values);
-        Parser.parse(sender, Response.MOTD, sender.logOrThrow(Response.MOTD).getLast(), values);
-        Parser.parse(sender, Response.END_OF_MOTD, sender.logOrThrow(Response.END_OF_MOTD).getLast(), values);
+        latest(sender, sender, values, Response.MOTD_START, Response.MOTD, Response.END_OF_MOTD);
     }
 
     /**
@@ -246,7 +251,7 @@ public class Evaluation {
      * @param sender the sender
      */
     public static void noMotd(Client sender) {
-        Parser.parse(sender, Response.NO_MOTD, sender.logOrThrow(Response.NO_MOTD).getLast());
+        Parser.parse(sender, Response.NO_MOTD, sender.lastOrThrow(Response.NO_MOTD));
     }
 
     /**
@@ -259,8 +264,7 @@ public class Evaluation {
         HashMap<String, String> values = new HashMap<>();
         values.put("message", message);
 
-        Parser.useRule(IRCParser.RULE_quit);
-        Parser.parse(sender, Response.NONE, sender.lastResponse(), values);
+        Parser.parse(ParseRequest.create(sender, Response.NONE, sender.lastMessage(), values).withRule(IRCParser.RULE_quit));
 
         Settings.sleep();
     }
@@ -287,11 +291,9 @@ public class Evaluation {
         values.put("names", sb.toString());
         values.put("channel", String.format("#%s", channel));
 
-        Parser.useRule(IRCParser.RULE_server_response);
-        Parser.parse(sender, Response.NONE, sender.lastLines()[0], values);
+        Parser.parse(ParseRequest.create(sender, Response.NONE, sender.firstMessage("JOIN"), values).withRule(IRCParser.RULE_server_response));
 
-        Parser.parse(sender, Response.NAME_RPLY, sender.logOrThrow(Response.NAME_RPLY).getLast(), values);
-        Parser.parse(sender, Response.END_OF_NAMES, sender.logOrThrow(Response.END_OF_NAMES).getLast(), values);
+        latest(sender, sender, values, Response.NAME_RPLY, Response.END_OF_NAMES);
     }
 
     /**
@@ -309,7 +311,7 @@ public class Evaluation {
         values.put("topic", expected);
         values.put("channel", String.format("#%s", channel));
 
-        Parser.parse(sender, Response.TOPIC, sender.logOrThrow(Response.TOPIC).getLast(), values);
+        Parser.parse(sender, Response.TOPIC, sender.lastOrThrow(Response.TOPIC), values);
     }
 
     /**
@@ -333,10 +335,10 @@ public class Evaluation {
         HashMap<String, String> map = new HashMap<>();
         map.put("target", String.format("#%s", channel));
 
-        List<String> log = sender.logOrEmpty(Response.NO_SUCH_NICK);
+        List<IrcMessage> log = sender.logOrEmpty(Response.NO_SUCH_NICK);
         log.addAll(sender.logOrEmpty(Response.NO_SUCH_CHANNEL));
 
-        Parser.parse(sender, sender, log.stream().anyMatch(s -> s.contains(String.valueOf(Response.NO_SUCH_NICK.value))) ? Response.NO_SUCH_NICK : Response.NO_SUCH_CHANNEL, log.get(0), map);
+        Parser.parse(sender, sender, log.stream().anyMatch(m -> m.numeric() == Response.NO_SUCH_NICK.value) ? Response.NO_SUCH_NICK : Response.NO_SUCH_CHANNEL, log.get(0), map);
     }
 
     /**
@@ -351,7 +353,7 @@ public class Evaluation {
         HashMap<String, String> map = new HashMap<>();
         map.put("channel", String.format("#%s", channel));
 
-        Parser.parse(sender, sender, r, sender.logOrThrow(r).getLast(), map);
+        Parser.parse(sender, sender, r, sender.lastOrThrow(r), map);
     }
 
     /**
@@ -364,8 +366,7 @@ public class Evaluation {
         HashMap<String, String> values = new HashMap<>();
         values.put("channel", String.format("#%s", channel));
 
-        Parser.useRule(IRCParser.RULE_server_response);
-        Parser.parse(sender, Response.NONE, sender.lastLines()[0], values);
+        Parser.parse(ParseRequest.create(sender, Response.NONE, sender.firstMessage(), values).withRule(IRCParser.RULE_server_response));
     }
 
     /**
@@ -378,7 +379,7 @@ public class Evaluation {
         HashMap<String, String> values = new HashMap<>();
         values.put("channel", String.format("#%s", channel));
 
-        Parser.parse(sender, Response.NOT_ON_CHANNEL, sender.logOrThrow(Response.NOT_ON_CHANNEL).getLast(), values);
+        Parser.parse(sender, Response.NOT_ON_CHANNEL, sender.lastOrThrow(Response.NOT_ON_CHANNEL), values);
     }
 
     /**
@@ -393,12 +394,11 @@ public class Evaluation {
         values.put("channel", String.format("#%s", channel));
         values.put("topic", topic);
 
-        List<String> log = sender.logOrEmpty(Response.TOPIC);
+        List<IrcMessage> log = sender.logOrEmpty(Response.TOPIC);
 
-        Parser.useRule(IRCParser.RULE_topic);
-        Parser.parse(sender, Response.TOPIC, log.isEmpty()
-                ? Arrays.stream(sender.lastLines()).filter(s -> s.contains("TOPIC")).findFirst().get()
-                : log.get(0), values);
+        Parser.parse(ParseRequest.create(sender, Response.TOPIC, log.isEmpty()
+                ? sender.lastMessages().stream().filter(m -> m.is("TOPIC")).findFirst().get()
+                : log.get(0), values).withRule(IRCParser.RULE_topic));
     }
 
     /**
@@ -414,11 +414,11 @@ public class Evaluation {
         values.put("topic", expected);
 
         if (!expected.isEmpty()) {
-            Parser.parse(sender, Response.TOPIC, sender.logOrThrow(Response.TOPIC).getLast(), values);
+            Parser.parse(sender, Response.TOPIC, sender.lastOrThrow(Response.TOPIC), values);
             return;
         }
 
-        Parser.parse(sender, Response.NO_TOPIC, sender.logOrThrow(Response.NO_TOPIC).getLast(), values);
+        Parser.parse(sender, Response.NO_TOPIC, sender.lastOrThrow(Response.NO_TOPIC), values);
     }
 
     /**
@@ -436,10 +436,10 @@ public class Evaluation {
         values.put("user", String.valueOf(user));
 
         if (user > 1) {
-            Parser.parse(sender, Response.LIST, sender.logOrThrow(Response.LIST).getLast(), values);
+            Parser.parse(sender, Response.LIST, sender.lastOrThrow(Response.LIST), values);
         }
 
-        Parser.parse(sender, Response.LIST_END, sender.logOrThrow(Response.LIST_END).getLast());
+        Parser.parse(sender, Response.LIST_END, sender.lastOrThrow(Response.LIST_END));
     }
 
     /**
@@ -451,8 +451,11 @@ public class Evaluation {
      * @param clients collection of expected clients
      */
     public static void who(Client sender, String channel, int offset, Client... clients) {
+        if (clients.length == 0) return;
+
+        List<IrcMessage> replies = sender.logOrThrow(Response.WHO_RPLY);
         for (int i = 0; i < clients.length; i++) {
-            who(sender, channel, clients[i], i + offset);
+            who(sender, channel, clients[i], replies.get(i + offset));
         }
     }
 
@@ -462,9 +465,9 @@ public class Evaluation {
      * @param sender the sender
      * @param channel the channel
      * @param target the target
-     * @param index the index
+     * @param reply the who reply for the target
      */
-    private static void who(Client sender, String channel, Client target, int index) {
+    private static void who(Client sender, String channel, Client target, IrcMessage reply) {
         HashMap<String, String> values = new HashMap<>();
         values.put("target", channel.equals("*") ? "*" : String.format("#%s", channel));
         values.put("nick", sender.nickname());
@@ -473,8 +476,8 @@ public class Evaluation {
         values.put("user_who", target.username());
         values.put("fullname_who", target.fullname());
 
-        Parser.parse(sender, Response.WHO_RPLY, sender.logOrThrow(Response.WHO_RPLY).get(index), values);
-        Parser.parse(sender, Response.END_OF_WHO, sender.logOrThrow(Response.END_OF_WHO).getLast(), values);
+        Parser.parse(sender, Response.WHO_RPLY, reply, values);
+        Parser.parse(sender, Response.END_OF_WHO, sender.lastOrThrow(Response.END_OF_WHO), values);
     }
 
     /**
@@ -487,6 +490,6 @@ public class Evaluation {
         HashMap<String, String> values = new HashMap<>();
         values.put("message", message);
 
-        Parser.parse(sender, Response.NONE, sender.lastResponse(), values);
+        Parser.parse(sender, Response.NONE, sender.lastMessage(), values);
     }
 }
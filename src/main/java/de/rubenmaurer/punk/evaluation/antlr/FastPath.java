@@ -0,0 +1,450 @@
+package de.rubenmaurer.punk.evaluation.antlr;
+
+import de.rubenmaurer.punk.IRCLexer;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.evaluation.Response;
+import org.antlr.v4.runtime.Token;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Validators for numeric replies with a fixed shape, checked directly against the tokens of the line.
+ * A validator only accepts a reply if the grammar would accept it and every check of the
+ * {@link PricefieldGrammarListener} would pass. In every other case it rejects the reply and the
+ * full ANTLR parse runs, so errors are reported in the same detail as before.
+ * The lines are split by the generated lexer, so keywords of the grammar are recognized exactly as the parser does.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class FastPath {
+
+    /**
+     * Check of a single reply.
+     */
+    @FunctionalInterface
+    private interface Validator {
+
+        /**
+         * Validate the remaining tokens of a reply, following the server response prefix.
+         *
+         * @param tokens the tokens
+         * @param receiver the {@link Client} which the message targeted
+         * @param values collection of values needed for the evaluation
+         * @return reply accepted?
+         */
+        boolean validate(Tokens tokens, Client receiver, Map<String, String> values);
+    }
+
+    /**
+     * Token type of every keyword of the grammar.
+     */
+    private static final Map<String, Integer> keywords = new HashMap<>();
+
+    static {
+        for (int type = 1; type <= IRCLexer.VOCABULARY.getMaxTokenType(); type++) {
+            String literal = IRCLexer.VOCABULARY.getLiteralName(type);
+            if (literal != null) keywords.put(literal.substring(1, literal.length() - 1), type);
+        }
+    }
+
+    /**
+     * Tokens of a server name.
+     */
+    private static final BitSet SERVER = types(IRCLexer.WORD, IRCLexer.INTEGER, keyword("-"), keyword("."));
+
+    /**
+     * Tokens of a nick- or username.
+     */
+    private static final BitSet NICK = types(IRCLexer.WORD, IRCLexer.INTEGER);
+
+    /**
+     * Tokens of a version.
+     */
+    private static final BitSet VERSION = types(IRCLexer.WORD, IRCLexer.WHITESPACE, IRCLexer.INTEGER, keyword("-"), keyword("."));
+
+    /**
+     * Tokens of a date.
+     */
+    private static final BitSet DATE = types(IRCLexer.WORD, IRCLexer.INTEGER, IRCLexer.WHITESPACE, IRCLexer.DLIMIT, keyword("-"));
+
+    /**
+     * Tokens of a message.
+     */
+    private static final BitSet MESSAGE = types(IRCLexer.WORD, keyword("!"), IRCLexer.WHITESPACE, IRCLexer.INTEGER);
+
+    /**
+     * Tokens of a fullname.
+     */
+    private static final BitSet FULLNAME = types(IRCLexer.WORD, IRCLexer.WHITESPACE);
+
+    /**
+     * Tokens of a list of nicknames.
+     */
+    private static final BitSet NAMES = types(IRCLexer.WORD, IRCLexer.INTEGER, IRCLexer.WHITESPACE);
+
+    /**
+     * Tokens of a channel name, following the '#'.
+     */
+    private static final BitSet CHANNEL = types(IRCLexer.WORD, keyword("-"));
+
+    /**
+     * The validators.
+     */
+    private static final Map<Response, Validator> validators = new EnumMap<>(Response.class);
+
+    static {
+        validators.put(Response.WELCOME, (t, r, v) -> t.ws() && t.is(IRCLexer.DLIMIT) && t.is("Welcome to the Internet Relay Network") && t.ws()
+                && t.equal(t.run(NICK), t.sender.nickname()) && t.is("!")
+                && t.equal(t.run(NICK), t.sender.username()) && t.is("@")
+                && t.run(SERVER) != null && t.end());
+
+        validators.put(Response.YOURHOST, (t, r, v) -> t.ws() && t.is(IRCLexer.DLIMIT) && t.is("Your host is") && t.ws()
+                && t.run(SERVER) != null && t.is(",") && t.ws() && t.is("running version") && t.ws()
+                && t.run(VERSION) != null && t.end());
+
+        validators.put(Response.CREATED, (t, r, v) -> t.ws() && t.is(IRCLexer.DLIMIT) && t.is("This server was created") && t.ws()
+                && t.run(DATE) != null && t.end());
+
+        validators.put(Response.MY_INFO, (t, r, v) -> t.ws() && t.run(SERVER) != null && t.ws()
+                && t.runUntil(VERSION, 2) != null && t.ws() && t.is("ao mtov") && t.end());
+
+        validators.put(Response.LUSER_CLIENT, (t, r, v) -> t.ws() && t.is(IRCLexer.DLIMIT) && t.is("There are") && t.ws()
+                && t.number(v.getOrDefault("user", "1")) && t.ws() && t.is("users and") && t.ws()
+                && t.number(v.getOrDefault("services", "0")) && t.ws() && t.is("services on") && t.ws()
+                && t.number(v.getOrDefault("server", "1")) && t.ws() && t.is("servers") && t.end());
+
+        validators.put(Response.LUSER_OP, (t, r, v) -> t.ws() && t.number(v.getOrDefault("op", "0")) && t.ws()
+                && t.is(IRCLexer.DLIMIT) && t.is("operator(s) online") && t.end());
+
+        validators.put(Response.LUSER_UNKNOWN, (t, r, v) -> t.ws() && t.number(v.getOrDefault("unknown", "0")) && t.ws()
+                && t.is(IRCLexer.DLIMIT) && t.is("unknown connection(s)") && t.end());
+
+        validators.put(Response.LUSER_CHANNEL, (t, r, v) -> t.ws() && t.number(v.getOrDefault("channels", "0")) && t.ws()
+                && t.is(IRCLexer.DLIMIT) && t.is("channels formed") && t.end());
+
+        validators.put(Response.LUSER_ME, (t, r, v) -> t.ws() && t.is(IRCLexer.DLIMIT) && t.is("I have") && t.ws()
+                && t.number(v.getOrDefault("clients", "1")) && t.ws() && t.is("clients and") && t.ws()
+                && t.number(v.getOrDefault("server", "1")) && t.ws() && t.is("servers") && t.end());
+
+        validators.put(Response.WHO_IS_USER, (t, r, v) -> t.ws() && t.equal(t.run(NICK), r.nickname()) && t.ws()
+                && t.equal(t.run(NICK), r.username()) && t.ws() && t.run(SERVER) != null && t.ws()
+                && t.is("*") && t.ws() && t.is(IRCLexer.DLIMIT) && t.equal(t.run(FULLNAME), r.fullname()) && t.end());
+
+        validators.put(Response.WHO_IS_SERVER, (t, r, v) -> t.ws() && t.equal(t.run(NICK), r.nickname()) && t.ws()
+                && t.run(SERVER) != null && t.ws() && t.is(IRCLexer.DLIMIT) && t.run(VERSION) != null && t.end());
+
+        validators.put(Response.END_OF_WHO_IS, (t, r, v) -> t.ws() && t.equal(t.run(NICK), r.nickname()) && t.ws()
+                && t.is(IRCLexer.DLIMIT) && t.is("End of WHOIS list") && t.end());
+
+        validators.put(Response.NAME_RPLY, (t, r, v) -> t.ws() && t.is("=") && t.ws() && t.channel() != null && t.ws()
+                && t.is(IRCLexer.DLIMIT) && t.equal(t.names(), v.get("names")) && t.end());
+
+        validators.put(Response.END_OF_NAMES, (t, r, v) -> t.ws() && t.equal(t.channel(), v.get("channel")) && t.ws()
+                && t.is(IRCLexer.DLIMIT) && t.is("End of NAMES list") && t.end());
+
+        validators.put(Response.MOTD_START, (t, r, v) -> t.ws() && t.is(IRCLexer.DLIMIT) && t.is("-") && t.ws()
+                && t.run(SERVER) != null && t.ws() && t.is("Message of the day") && t.ws() && t.is("-") && t.end());
+
+        validators.put(Response.MOTD, (t, r, v) -> t.ws() && t.is(IRCLexer.DLIMIT) && t.is("-") && t.ws()
+                && t.equal(t.run(MESSAGE), v.get("message")) && t.end());
+
+        validators.put(Response.END_OF_MOTD, (t, r, v) -> t.ws() && t.is(IRCLexer.DLIMIT) && t.is("End of MOTD command") && t.end());
+    }
+
+    /**
+     * Amount of replies accepted by a validator.
+     */
+    private static final AtomicLong accepted = new AtomicLong();
+
+    /**
+     * Amount of replies a validator handed over to ANTLR.
+     */
+    private static final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Amount of replies where validator and ANTLR disagreed, only counted in consistency mode.
+     */
+    private static final AtomicLong mismatches = new AtomicLong();
+
+    /**
+     * Hidden constructor.
+     */
+    private FastPath() {
+    }
+
+    /**
+     * Is there a validator for a response?
+     *
+     * @param response the response
+     * @return has validator?
+     */
+    static boolean covers(Response response) {
+        return validators.containsKey(response);
+    }
+
+    /**
+     * Validate a reply.
+     *
+     * @param sender the {@link Client} which the message send
+     * @param receiver the {@link Client} which the message targeted
+     * @param response the expected {@link Response}
+     * @param line the reply
+     * @param values collection of values needed for the evaluation
+     * @return accepted? false if the reply has to be parsed by ANTLR
+     */
+    static boolean accepts(Client sender, Client receiver, Response response, String line, Map<String, String> values) {
+        Validator validator = validators.get(response);
+        if (validator == null) return false;
+
+        boolean result;
+        try {
+            Tokens tokens = new Tokens(ParsingEngine.get().tokenize(line), sender);
+            result = tokens.prefix(response) && validator.validate(tokens, receiver, values);
+        } catch (RuntimeException e) {
+            // lexer errors and missing values are reported by ANTLR
+            result = false;
+        }
+
+        (result ? accepted : rejected).incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Count a disagreement between a validator and ANTLR.
+     */
+    static void mismatch() {
+        mismatches.incrementAndGet();
+    }
+
+    /**
+     * Get the amount of replies accepted by a validator.
+     *
+     * @return the amount
+     */
+    static long accepted() {
+        return accepted.get();
+    }
+
+    /**
+     * Get the amount of replies a validator handed over to ANTLR.
+     *
+     * @return the amount
+     */
+    static long rejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Get the amount of disagreements between validators and ANTLR.
+     *
+     * @return the amount
+     */
+    static long mismatches() {
+        return mismatches.get();
+    }
+
+    /**
+     * Get the token type of a keyword.
+     *
+     * @param keyword the keyword
+     * @return the type
+     */
+    private static int keyword(String keyword) {
+        return keywords.get(keyword);
+    }
+
+    /**
+     * Create a set of token types.
+     *
+     * @param types the types
+     * @return the set
+     */
+    private static BitSet types(int... types) {
+        BitSet set = new BitSet();
+        for (int type : types) set.set(type);
+
+        return set;
+    }
+
+    /**
+     * Cursor over the tokens of a line.
+     */
+    private static final class Tokens {
+
+        /**
+         * The tokens.
+         */
+        private final List<? extends Token> tokens;
+
+        /**
+         * The {@link Client} which the message send.
+         */
+        private final Client sender;
+
+        /**
+         * Index of the next token.
+         */
+        private int index;
+
+        /**
+         * Create a new cursor.
+         *
+         * @param tokens the tokens
+         * @param sender the {@link Client} which the message send
+         */
+        private Tokens(List<? extends Token> tokens, Client sender) {
+            this.tokens = tokens;
+            this.sender = sender;
+        }
+
+        /**
+         * Check the server response prefix ':server code nick' of a numeric reply.
+         *
+         * @param response the expected {@link Response}
+         * @return prefix matches?
+         */
+        private boolean prefix(Response response) {
+            if (!is(IRCLexer.DLIMIT) || run(SERVER) == null || !ws()) return false;
+
+            String code = text(IRCLexer.INTEGER);
+            return code != null && Integer.parseInt(code) == response.value && ws()
+                    && equal(run(NICK), sender.nickname());
+        }
+
+        /**
+         * Consume a token of a type.
+         *
+         * @param type the type
+         * @return consumed?
+         */
+        private boolean is(int type) {
+            if (index < tokens.size() && tokens.get(index).getType() == type) {
+                index++;
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Consume a keyword.
+         *
+         * @param keyword the keyword
+         * @return consumed?
+         */
+        private boolean is(String keyword) {
+            return is(keyword(keyword));
+        }
+
+        /**
+         * Consume a single whitespace.
+         *
+         * @return consumed?
+         */
+        private boolean ws() {
+            return is(IRCLexer.WHITESPACE);
+        }
+
+        /**
+         * Consume a token of a type and get its text.
+         *
+         * @param type the type
+         * @return the text, null if the next token has another type
+         */
+        private String text(int type) {
+            return is(type) ? tokens.get(index - 1).getText() : null;
+        }
+
+        /**
+         * Consume an integer and compare it with an expected value.
+         *
+         * @param expected the expected value
+         * @return is equal?
+         */
+        private boolean number(String expected) {
+            String real = text(IRCLexer.INTEGER);
+            return real != null && Integer.parseInt(real) == Integer.parseInt(expected);
+        }
+
+        /**
+         * Consume all following tokens of the given types.
+         *
+         * @param types the types
+         * @return the text, null if no token was consumed
+         */
+        private String run(BitSet types) {
+            return runUntil(types, 0);
+        }
+
+        /**
+         * Consume the following tokens of the given types, but leave some tokens at the end of the line.
+         *
+         * @param types the types
+         * @param keep the amount of tokens to leave
+         * @return the text, null if no token was consumed or another type was found
+         */
+        private String runUntil(BitSet types, int keep) {
+            int end = keep == 0 ? tokens.size() : tokens.size() - keep;
+            StringBuilder text = new StringBuilder();
+
+            int start = index;
+            while (index < end && types.get(tokens.get(index).getType())) {
+                text.append(tokens.get(index++).getText());
+            }
+
+            if (index == start || (keep > 0 && index != end)) return null;
+            return text.toString();
+        }
+
+        /**
+         * Consume a channel name.
+         *
+         * @return the channel name, null if there is none
+         */
+        private String channel() {
+            if (!is("#")) return null;
+
+            String name = run(CHANNEL);
+            return name == null ? null : "#" + name;
+        }
+
+        /**
+         * Consume a list of nicknames, starting with '@'.
+         *
+         * @return the list, null if there is none
+         */
+        private String names() {
+            if (!is("@")) return null;
+
+            String names = run(NAMES);
+            return names == null ? null : "@" + names;
+        }
+
+        /**
+         * Compare a consumed text with an expected value.
+         *
+         * @param real the text, null if nothing was consumed
+         * @param expected the expected value
+         * @return is equal?
+         */
+        private boolean equal(String real, String expected) {
+            return real != null && real.equals(expected);
+        }
+
+        /**
+         * Are all tokens consumed?
+         *
+         * @return all consumed?
+         */
+        private boolean end() {
+            return index == tokens.size();
+        }
+    }
+}
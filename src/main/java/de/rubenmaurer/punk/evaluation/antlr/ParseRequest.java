@@ -0,0 +1,183 @@
+package de.rubenmaurer.punk.evaluation.antlr;
+
+import de.rubenmaurer.punk.IRCParser;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.Response;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything needed to parse and evaluate a single message.
+ * A request is immutable, so requests can be created and parsed by any amount of threads at once.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ParseRequest {
+
+    /**
+     * The ${@link Client} which the message send.
+     */
+    private final Client sender;
+
+    /**
+     * The ${@link Client} which the message received.
+     */
+    private final Client receiver;
+
+    /**
+     * The expected ${@link Response}.
+     */
+    private final Response code;
+
+    /**
+     * The message to parse.
+     */
+    private final IrcMessage message;
+
+    /**
+     * Collection of values needed for the evaluation.
+     */
+    private final Map<String, String> values;
+
+    /**
+     * The grammar rule to start with.
+     */
+    private final int rule;
+
+    /**
+     * Create a new request.
+     *
+     * @param sender the sender
+     * @param receiver the receiver
+     * @param code the expected response
+     * @param message the message
+     * @param values the values
+     * @param rule the grammar rule
+     */
+    private ParseRequest(Client sender, Client receiver, Response code, IrcMessage message, Map<String, String> values, int rule) {
+        this.sender = sender;
+        this.receiver = receiver;
+        this.code = code;
+        this.message = message;
+        this.values = values;
+        this.rule = rule;
+    }
+
+    /**
+     * Create a new request, starting with the generic response rule.
+     *
+     * @param sender the ${@link Client} which the message send
+     * @param receiver the ${@link Client} which the message received
+     * @param code the expected ${@link Response}
+     * @param message the message to parse
+     * @param values collection of values needed for the evaluation, copied
+     * @return the request
+     */
+    public static ParseRequest create(Client sender, Client receiver, Response code, IrcMessage message, Map<String, String> values) {
+        return new ParseRequest(sender, receiver, code, message,
+                Collections.unmodifiableMap(new HashMap<>(values)), IRCParser.RULE_response);
+    }
+
+    /**
+     * Create a new request for a message the sender received itself.
+     *
+     * @param sender the ${@link Client} which the message send and received
+     * @param code the expected ${@link Response}
+     * @param message the message to parse
+     * @param values collection of values needed for the evaluation, copied
+     * @return the request
+     */
+    public static ParseRequest create(Client sender, Response code, IrcMessage message, Map<String, String> values) {
+        return create(sender, sender, code, message, values);
+    }
+
+    /**
+     * Create a new request for a message the sender received itself, without values.
+     *
+     * @param sender the ${@link Client} which the message send and received
+     * @param code the expected ${@link Response}
+     * @param message the message to parse
+     * @return the request
+     */
+    public static ParseRequest create(Client sender, Response code, IrcMessage message) {
+        return create(sender, sender, code, message, Collections.emptyMap());
+    }
+
+    /**
+     * Get a copy of this request which starts with another grammar rule.
+     *
+     * @param rule the rule, e.g. ${@link IRCParser#RULE_pong}
+     * @return the new request
+     */
+    public ParseRequest withRule(int rule) {
+        return new ParseRequest(sender, receiver, code, message, values, rule);
+    }
+
+    /**
+     * Get the sender.
+     *
+     * @return the sender
+     */
+    public Client sender() {
+        return sender;
+    }
+
+    /**
+     * Get the receiver.
+     *
+     * @return the receiver
+     */
+    public Client receiver() {
+        return receiver;
+    }
+
+    /**
+     * Get the expected response.
+     *
+     * @return the response
+     */
+    public Response code() {
+        return code;
+    }
+
+    /**
+     * Get the message.
+     *
+     * @return the message
+     */
+    public IrcMessage message() {
+        return message;
+    }
+
+    /**
+     * Get the values, read-only.
+     *
+     * @return the values
+     */
+    public Map<String, String> values() {
+        return values;
+    }
+
+    /**
+     * Get the grammar rule.
+     *
+     * @return the rule
+     */
+    public int rule() {
+        return rule;
+    }
+
+    /**
+     * Does the request start with the generic response rule?
+     *
+     * @return generic rule?
+     */
+    boolean generic() {
+        return rule == IRCParser.RULE_response;
+    }
+}
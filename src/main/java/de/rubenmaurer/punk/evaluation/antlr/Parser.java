@@ -1,13 +1,11 @@
 package de.rubenmaurer.punk.evaluation.antlr;
 
-import de.rubenmaurer.punk.IRCLexer;
-import de.rubenmaurer.punk.IRCParser;
 import de.rubenmaurer.punk.Settings;
 import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
 import de.rubenmaurer.punk.evaluation.Response;
 import de.rubenmaurer.punk.util.Template;
 import de.rubenmaurer.punk.util.Terminal;
-import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
@@ -23,26 +21,34 @@ import java.util.Map;
  */
 public class Parser {
 
-    private static int ruleID;
+    /**
+     * Parse a single message.
+     * The parser keeps no state between calls, so it is safe to use from many threads at once.
+     *
+     * @param request the ${@link ParseRequest}
+     */
+    public static void parse(ParseRequest request) {
+        IrcMessage message = request.message();
+        Response code = request.code();
 
-    public static void useRule(int rule) {
-        ruleID = rule;
-    }
+        if (message.isEmpty()) throw new RuntimeException(Template.get("EMPTY_STRING_FOR_PARSER").render());
+        if (Settings.devMode()) Terminal.parserLog(message.raw());
 
-    private static ParseTree tree(IRCParser parser) {
-        if (ruleID == IRCParser.RULE_quit) return parser.quit();
-        if (ruleID == IRCParser.RULE_private_message) return parser.private_message();
-        if (ruleID == IRCParser.RULE_notice) return parser.notice();
-        if (ruleID == IRCParser.RULE_pong) return parser.pong();
-        if (ruleID == IRCParser.RULE_server_response) return parser.server_response();
-        if (ruleID == IRCParser.RULE_part) return parser.part();
-        if (ruleID == IRCParser.RULE_topic) return parser.topic();
+        boolean covered = request.generic() && Settings.fastPath() && FastPath.covers(code);
+        boolean fast = covered && FastPath.accepts(request.sender(), request.receiver(), code, message.raw(), request.values());
+        boolean check = covered && Settings.fastPathCheck();
 
-        return parser.response();
-    }
+        if (fast && !check) return;
+
+        try {
+            ParseTree tree = ParsingEngine.get().parse(message.raw(), request.rule());
+            ParseTreeWalker.DEFAULT.walk(new PricefieldGrammarListener(request.sender(), request.receiver(), code, request.values()), tree);
+        } catch (RuntimeException e) {
+            if (fast) mismatch(code, message, true);
+            throw e;
+        }
 
-    public static void reset() {
-        ruleID = -1;
+        if (check && !fast) mismatch(code, message, false);
     }
 
     /**
@@ -54,26 +60,50 @@ public class Parser {
      * @param message the message to parse
      * @param values collection of values needed for the evaluation
      */
-    public static void parse(Client sender, Client receiver, Response code, String message, Map<String, String> values) {
-        if (message.trim().isEmpty()) throw new RuntimeException(Template.get("EMPTY_STRING_FOR_PARSER").render());
-        if (Settings.devMode()) Terminal.parserLog(message);
-
-        CharStream stream = CharStreams.fromString(message);
-
-        IRCLexer lexer = new IRCLexer(stream);
-        lexer.removeErrorListeners();
-        lexer.addErrorListener(PricefieldErrorListener.INSTANCE);
+    public static void parse(Client sender, Client receiver, Response code, IrcMessage message, Map<String, String> values) {
+        parse(ParseRequest.create(sender, receiver, code, message, values));
+    }
 
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
+    /**
+     * Report a disagreement between the fast path and ANTLR.
+     *
+     * @param code the expected ${@link Response}
+     * @param message the message
+     * @param fast did the fast path accept the message?
+     */
+    private static void mismatch(Response code, IrcMessage message, boolean fast) {
+        FastPath.mismatch();
+        Terminal.debugErro(Template.get("FAST_PATH_MISMATCH")
+                .single("response", code)
+                .single("fast", fast)
+                .single("line", message.raw()).render());
+    }
 
-        IRCParser parser = new IRCParser(tokens);
-        parser.removeErrorListeners();
-        parser.addErrorListener(PricefieldErrorListener.INSTANCE);
+    /**
+     * Get the amount of replies accepted by the fast path.
+     *
+     * @return the amount
+     */
+    public static long fastPathAccepted() {
+        return FastPath.accepted();
+    }
 
-        ParseTreeWalker walker = new ParseTreeWalker();
-        walker.walk(new PricefieldGrammarListener(sender, receiver, code, values), tree(parser));
+    /**
+     * Get the amount of replies the fast path handed over to ANTLR.
+     *
+     * @return the amount
+     */
+    public static long fastPathRejected() {
+        return FastPath.rejected();
+    }
 
-        reset();
+    /**
+     * Get the amount of disagreements between fast path and ANTLR.
+     *
+     * @return the amount
+     */
+    public static long fastPathMismatches() {
+        return FastPath.mismatches();
     }
 
     /**
@@ -83,7 +113,7 @@ public class Parser {
      * @param response the expected ${@link Response}
      * @param message the message to parse
      */
-    public static void parse(Client sender, Response response, String message) {
+    public static void parse(Client sender, Response response, IrcMessage message) {
         parse(sender, sender, response, message, new HashMap<>());
     }
 
@@ -95,7 +125,7 @@ public class Parser {
      * @param response the expected ${@link Response}
      * @param message the message to parse
      */
-    public static void parse(Client sender, Client target, Response response, String message) {
+    public static void parse(Client sender, Client target, Response response, IrcMessage message) {
         parse(sender, target, response, message, new HashMap<>());
     }
 
@@ -107,7 +137,7 @@ public class Parser {
      * @param message the message to parse
      * @param values collection of values needed for the evaluation
      */
-    public static void parse(Client sender, Response response, String message, HashMap<String, String> values) {
+    public static void parse(Client sender, Response response, IrcMessage message, HashMap<String, String> values) {
         parse(sender, sender, response, message, values);
     }
 }
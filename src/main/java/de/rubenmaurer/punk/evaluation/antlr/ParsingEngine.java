@@ -0,0 +1,270 @@
+package de.rubenmaurer.punk.evaluation.antlr;
+
+import de.rubenmaurer.punk.IRCLexer;
+import de.rubenmaurer.punk.IRCParser;
+import de.rubenmaurer.punk.Pricefield;
+import de.rubenmaurer.punk.util.Terminal;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reusable lexer and parser, one per thread.
+ * Every line is parsed with SLL prediction first, which is enough for almost all replies.
+ * Only if SLL fails the line is parsed again with full LL prediction and the
+ * {@link PricefieldErrorListener}, so syntax errors are reported exactly as before.
+ * The prediction caches of the generated lexer and parser are shared by all threads and can be
+ * filled before the first test with {@link #warmUp()}.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ParsingEngine {
+
+    /**
+     * Location of the warm-up corpus.
+     */
+    private static final String CORPUS = "resources/definitions/corpus.txt";
+
+    /**
+     * The engine of every thread.
+     */
+    private static final ThreadLocal<ParsingEngine> engines = ThreadLocal.withInitial(ParsingEngine::new);
+
+    /**
+     * Amount of parsed lines.
+     */
+    private static final AtomicLong parses = new AtomicLong();
+
+    /**
+     * Amount of lines which needed full LL prediction.
+     */
+    private static final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * Time spent parsing, in nanoseconds.
+     */
+    private static final AtomicLong nanos = new AtomicLong();
+
+    /**
+     * Amount of lines parsed during the warm-up.
+     */
+    private static volatile int warmUpLines;
+
+    /**
+     * Duration of the warm-up, in milliseconds.
+     */
+    private static volatile long warmUpTime;
+
+    /**
+     * The lexer.
+     */
+    private final IRCLexer lexer = new IRCLexer(CharStreams.fromString(""));
+
+    /**
+     * The token stream.
+     */
+    private final CommonTokenStream tokens = new CommonTokenStream(lexer);
+
+    /**
+     * The parser.
+     */
+    private final IRCParser parser = new IRCParser(tokens);
+
+    /**
+     * Error strategy of the SLL stage, aborts on the first error.
+     */
+    private final ANTLRErrorStrategy bail = new BailErrorStrategy();
+
+    /**
+     * Error strategy of the LL stage.
+     */
+    private final ANTLRErrorStrategy recover = new DefaultErrorStrategy();
+
+    /**
+     * Create a new engine.
+     */
+    private ParsingEngine() {
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(PricefieldErrorListener.INSTANCE);
+    }
+
+    /**
+     * Get the engine of the current thread.
+     *
+     * @return the engine
+     */
+    static ParsingEngine get() {
+        return engines.get();
+    }
+
+    /**
+     * Parse a line.
+     *
+     * @param line the line
+     * @param rule the grammar rule to start with
+     * @return the parse tree
+     * @throws ParseCancellationException on syntax errors
+     */
+    ParseTree parse(String line, int rule) {
+        long start = System.nanoTime();
+
+        try {
+            reset(line);
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            parser.setErrorHandler(bail);
+            parser.removeErrorListeners();
+
+            try {
+                return tree(rule);
+            } catch (ParseCancellationException e) {
+                fallbacks.incrementAndGet();
+            }
+
+            reset(line);
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            parser.setErrorHandler(recover);
+            parser.addErrorListener(PricefieldErrorListener.INSTANCE);
+
+            return tree(rule);
+        } finally {
+            parses.incrementAndGet();
+            nanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Split a line into tokens, without parsing it.
+     *
+     * @param line the line
+     * @return the tokens, without the end of file
+     * @throws ParseCancellationException on unknown characters
+     */
+    List<? extends Token> tokenize(String line) {
+        lexer.setInputStream(CharStreams.fromString(line));
+        return lexer.getAllTokens();
+    }
+
+    /**
+     * Point lexer and parser at a new line.
+     *
+     * @param line the line
+     */
+    private void reset(String line) {
+        lexer.setInputStream(CharStreams.fromString(line));
+        tokens.setTokenSource(lexer);
+        parser.setTokenStream(tokens);
+    }
+
+    /**
+     * Invoke a grammar rule.
+     *
+     * @param rule the rule
+     * @return the parse tree
+     */
+    private ParseTree tree(int rule) {
+        if (rule == IRCParser.RULE_quit) return parser.quit();
+        if (rule == IRCParser.RULE_private_message) return parser.private_message();
+        if (rule == IRCParser.RULE_notice) return parser.notice();
+        if (rule == IRCParser.RULE_pong) return parser.pong();
+        if (rule == IRCParser.RULE_server_response) return parser.server_response();
+        if (rule == IRCParser.RULE_part) return parser.part();
+        if (rule == IRCParser.RULE_topic) return parser.topic();
+
+        return parser.response();
+    }
+
+    /**
+     * Parse the warm-up corpus, so the first tests do not pay for filling the prediction caches.
+     * Lines of the corpus which do not parse are ignored.
+     */
+    public static void warmUp() {
+        long start = System.currentTimeMillis();
+        List<String> rules = Arrays.asList(IRCParser.ruleNames);
+        int lines = 0;
+
+        try (InputStream stream = Pricefield.class.getClassLoader().getResourceAsStream(CORPUS)) {
+            if (stream == null) return;
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int split = line.indexOf(' ');
+                if (line.startsWith("#") || split < 0) continue;
+
+                try {
+                    get().parse(line.substring(split + 1), rules.indexOf(line.substring(0, split)));
+                } catch (ParseCancellationException e) {
+                    Terminal.debugErro(e.getMessage());
+                }
+
+                lines++;
+            }
+        } catch (IOException e) {
+            Terminal.debugErro(e.getMessage());
+        }
+
+        warmUpLines = lines;
+        warmUpTime = System.currentTimeMillis() - start;
+
+        // the warm-up does not count as parsing done by the tests
+        parses.set(0);
+        fallbacks.set(0);
+        nanos.set(0);
+    }
+
+    /**
+     * Get the amount of lines parsed by the tests.
+     *
+     * @return the amount
+     */
+    public static long parses() {
+        return parses.get();
+    }
+
+    /**
+     * Get the amount of lines which needed full LL prediction.
+     *
+     * @return the amount
+     */
+    public static long fallbacks() {
+        return fallbacks.get();
+    }
+
+    /**
+     * Get the time spent parsing.
+     *
+     * @return the time in nanoseconds
+     */
+    public static long nanos() {
+        return nanos.get();
+    }
+
+    /**
+     * Get the amount of lines parsed during the warm-up.
+     *
+     * @return the amount
+     */
+    public static int warmUpLines() {
+        return warmUpLines;
+    }
+
+    /**
+     * Get the duration of the warm-up.
+     *
+     * @return the duration in milliseconds
+     */
+    public static long warmUpTime() {
+        return warmUpTime;
+    }
+}
@@ -0,0 +1,546 @@
+package de.rubenmaurer.punk.load;
+
+import akka.pattern.AskTimeoutException;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.facade.Client.Utilities;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.Response;
+import de.rubenmaurer.punk.util.Histogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Membership churn: many clients join, part and change their nickname concurrently across many channels.
+ * The harness keeps a model of every channel, updated only by confirmed operations. Once the churn is over,
+ * NAMES and WHO are sent for every channel and the members the server reports are compared with the model,
+ * which reveals races in the membership handling of the server.
+ * A client whose operation was not answered in time is excluded from the comparison, its state is unknown.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class ChurnScenario implements Scenario {
+
+    /**
+     * The operations of the churn.
+     */
+    static final Set<Command> OPERATIONS = Collections.unmodifiableSet(EnumSet.of(Command.JOIN, Command.PART, Command.NICK));
+
+    /**
+     * Max. amount of differing channels listed in the report.
+     */
+    private static final int LISTED = 10;
+
+    /**
+     * Amount of clients.
+     */
+    private final int clients = Settings.loadClients();
+
+    /**
+     * Clients registered per second.
+     */
+    private final int rate = Settings.loadRate();
+
+    /**
+     * Mean milliseconds a client waits between two operations.
+     */
+    private final int interval = Settings.loadInterval();
+
+    /**
+     * Seconds of churn.
+     */
+    private final int duration = Settings.loadDuration();
+
+    /**
+     * Amount of channels.
+     */
+    private final int channels = Settings.loadChannels();
+
+    /**
+     * The operation mix.
+     */
+    private final CommandMix mix = new CommandMix(Settings.loadChurn(), OPERATIONS);
+
+    /**
+     * Latencies of every operation in microseconds.
+     */
+    private final Map<Command, Histogram> latencies = new EnumMap<>(Command.class);
+
+    /**
+     * Operations answered with an error, per operation.
+     */
+    private final Map<Command, LongAdder> failures = new EnumMap<>(Command.class);
+
+    /**
+     * Operations without an answer in time, per operation.
+     */
+    private final Map<Command, LongAdder> timeouts = new EnumMap<>(Command.class);
+
+    /**
+     * Counter for fresh nicknames.
+     */
+    private final AtomicInteger nicknames = new AtomicInteger();
+
+    /**
+     * Amount of pending operations.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Amount of clients which could not register.
+     */
+    private final LongAdder refused = new LongAdder();
+
+    /**
+     * The registered clients.
+     */
+    private final List<Member> members = new ArrayList<>();
+
+    /**
+     * Runs the operations.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Are operations still sent?
+     */
+    private volatile boolean running = true;
+
+    /**
+     * A client together with its state as far as the harness knows.
+     * Only one operation of a member is pending at a time, so its state is never accessed concurrently.
+     */
+    private static final class Member {
+
+        /**
+         * The client.
+         */
+        final Client client;
+
+        /**
+         * The current nickname.
+         */
+        String nickname;
+
+        /**
+         * The joined channels.
+         */
+        final Set<String> channels = new HashSet<>();
+
+        /**
+         * Every nickname the member had or tried to get.
+         */
+        final Set<String> aliases = new HashSet<>();
+
+        /**
+         * Did an operation time out? The state of the member is unknown then.
+         */
+        volatile boolean uncertain;
+
+        /**
+         * Create a new member.
+         *
+         * @param client the registered client
+         */
+        Member(Client client) {
+            this.client = client;
+            this.nickname = client.nickname();
+            this.aliases.add(nickname);
+        }
+    }
+
+    /**
+     * Create the scenario from the settings.
+     */
+    ChurnScenario() {
+        for (Command command : OPERATIONS) {
+            latencies.put(command, new Histogram());
+            failures.put(command, new LongAdder());
+            timeouts.put(command, new LongAdder());
+        }
+    }
+
+    @Override
+    public void run(LoadReport report) throws Exception {
+        register();
+
+        scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        for (Member member : members) schedule(member, ThreadLocalRandom.current().nextInt(Math.max(1, interval)));
+
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(duration);
+        running = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Traffic.drain(pending);
+
+        scheduler.shutdownNow();
+        report(report, seconds);
+        verify(report);
+    }
+
+    /**
+     * Register all clients, 'loadRate' per second.
+     *
+     * @throws Exception if a client could not be created
+     */
+    private void register() throws Exception {
+        List<Client> registered = Traffic.register(0, clients, rate, Utilities::auth, Expectation::welcome);
+
+        registered.forEach(client -> members.add(new Member(client)));
+        refused.add(clients - registered.size());
+    }
+
+    /**
+     * Get the name of a churn channel.
+     *
+     * @param index the index of the channel
+     * @return the name, without '#'
+     */
+    private static String channel(int index) {
+        return String.format("churn%d", index);
+    }
+
+    /**
+     * Get a nickname no client had before.
+     * The presets never start with 'n', so fresh nicknames never collide with them.
+     *
+     * @return the nickname
+     */
+    private String freshNickname() {
+        return String.format("n%s", Integer.toString(nicknames.incrementAndGet(), 36));
+    }
+
+    /**
+     * Schedule the next operation of a member.
+     *
+     * @param member the member
+     * @param delay the delay in milliseconds
+     */
+    private void schedule(Member member, long delay) {
+        if (!running || member.uncertain) return;
+
+        try {
+            scheduler.schedule(() -> operate(member), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the scenario is over
+        }
+    }
+
+    /**
+     * Run the next operation of a member and record its latency.
+     *
+     * @param member the member
+     */
+    private void operate(Member member) {
+        if (!running) return;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Command operation = mix.next(random);
+
+        // a member in every channel parts instead of joining, one without channel joins instead of parting
+        if (operation == Command.JOIN && member.channels.size() >= channels) operation = Command.PART;
+        if (operation == Command.PART && member.channels.isEmpty()) operation = Command.JOIN;
+
+        Command command = operation;
+        long sent = System.nanoTime();
+        pending.incrementAndGet();
+
+        execute(member, command, random).whenComplete((confirmed, error) -> {
+            pending.decrementAndGet();
+            record(member, command, confirmed, error, System.nanoTime() - sent);
+            schedule(member, Traffic.pause(interval));
+        });
+    }
+
+    /**
+     * Send an operation and update the state of the member once the server confirmed it.
+     * PART and NICK are confirmed by their echo with the prefix of the member itself,
+     * those of other members in the same channels do not count.
+     *
+     * @param member the member
+     * @param operation the operation
+     * @param random the random source
+     * @return confirmed by the server?
+     */
+    private CompletionStage<Boolean> execute(Member member, Command operation, ThreadLocalRandom random) {
+        String self = String.format("(?i)^:%s(!\\S*)? ", Pattern.quote(member.nickname));
+
+        switch (operation) {
+            case JOIN:
+                String join = free(member, random);
+
+                return member.client.async().sendAndReceive(Utilities.joinChannel(join), Expectation.joined())
+                        .thenApply(reply -> {
+                            boolean confirmed = !SimulatedClient.failed(reply);
+                            if (confirmed) member.channels.add(join);
+
+                            return confirmed;
+                        });
+            case PART:
+                String part = new ArrayList<>(member.channels).get(random.nextInt(member.channels.size()));
+
+                return member.client.async().sendAndReceive(Utilities.part(part, "Churn"),
+                        Expectation.matching(self + "PART #" + Pattern.quote(part)).or(Expectation.error()))
+                        .thenApply(reply -> {
+                            boolean confirmed = !SimulatedClient.failed(reply);
+                            if (confirmed) member.channels.remove(part);
+
+                            return confirmed;
+                        });
+            case NICK:
+                String nickname = freshNickname();
+                member.aliases.add(nickname);
+
+                return member.client.async().sendAndReceive(Utilities.nick(nickname),
+                        Expectation.matching(self + "NICK :?" + Pattern.quote(nickname)).or(Expectation.error()))
+                        .thenApply(reply -> {
+                            boolean confirmed = !SimulatedClient.failed(reply);
+                            if (confirmed) member.nickname = nickname;
+
+                            return confirmed;
+                        });
+            default:
+                CompletableFuture<Boolean> unknown = new CompletableFuture<>();
+                unknown.completeExceptionally(new IllegalArgumentException(operation.name()));
+
+                return unknown;
+        }
+    }
+
+    /**
+     * Pick a channel the member did not join yet.
+     *
+     * @param member the member
+     * @param random the random source
+     * @return the name of the channel
+     */
+    private String free(Member member, ThreadLocalRandom random) {
+        int start = random.nextInt(channels);
+
+        for (int i = 0; i < channels; i++) {
+            String name = channel((start + i) % channels);
+            if (!member.channels.contains(name)) return name;
+        }
+
+        return channel(start);
+    }
+
+    /**
+     * Record the outcome of an operation.
+     *
+     * @param member the member
+     * @param operation the operation
+     * @param confirmed confirmed by the server, null if the operation failed
+     * @param error the error, null if there is an answer
+     * @param nanos the time until the answer
+     */
+    private void record(Member member, Command operation, Boolean confirmed, Throwable error, long nanos) {
+        Throwable cause = Traffic.cause(error);
+
+        if (cause instanceof AskTimeoutException) {
+            member.uncertain = true;
+            timeouts.get(operation).increment();
+        } else if (cause != null || !confirmed) {
+            failures.get(operation).increment();
+        } else {
+            latencies.get(operation).record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+    }
+
+    /**
+     * Fill the report with the throughput and the latencies.
+     *
+     * @param report the report
+     * @param seconds the duration of the churn
+     */
+    private void report(LoadReport report, double seconds) {
+        long done = latencies.values().stream().mapToLong(Histogram::count).sum();
+        long failed = failures.values().stream().mapToLong(LongAdder::sum).sum();
+        long timedOut = timeouts.values().stream().mapToLong(LongAdder::sum).sum();
+
+        report.section("churn");
+        report.line("scenario: churn %s, %d channels, %d ms interval", mix, channels, interval);
+        report.line("clients: %d registered, %d refused", members.size(), refused.sum());
+        report.line("duration: %.1f s", seconds);
+        report.line("operations: %d confirmed, %d failed, %d timed out (%.1f/s)", done, failed, timedOut, done / seconds);
+
+        for (Command operation : OPERATIONS) {
+            report.line("%s: %.1f/s", operation.name(), latencies.get(operation).count() / seconds);
+        }
+
+        report.section("latency");
+        for (Command operation : OPERATIONS) {
+            if (latencies.get(operation).count() > 0) report.latency(operation.name(), latencies.get(operation));
+        }
+
+        report.section("errors");
+        for (Command operation : OPERATIONS) {
+            long f = failures.get(operation).sum();
+            long t = timeouts.get(operation).sum();
+            if (f + t > 0) report.line("%s: %d failed, %d timed out", operation.name(), f, t);
+        }
+    }
+
+    /**
+     * Compare the members the server reports for every channel with the model of the harness.
+     *
+     * @param report the report
+     * @throws Exception if the checking client could not be created
+     */
+    private void verify(LoadReport report) throws Exception {
+        Map<String, Set<String>> model = new HashMap<>();
+        for (int i = 0; i < channels; i++) model.put(channel(i), new HashSet<>());
+
+        Set<String> unknown = new HashSet<>();
+        int uncertain = 0;
+
+        for (Member member : members) {
+            if (member.uncertain) {
+                uncertain++;
+                member.aliases.forEach(alias -> unknown.add(alias.toLowerCase(Locale.ROOT)));
+                continue;
+            }
+
+            for (String channel : member.channels) model.get(channel).add(member.nickname.toLowerCase(Locale.ROOT));
+        }
+
+        Client checker = Client.create(clients);
+        checker.async().sendAndReceiveAll(Utilities.auth(checker), Expectation.welcome()).toCompletableFuture().get();
+
+        List<String> differences = new ArrayList<>();
+        int namesDiffer = 0, whoDiffer = 0;
+        long expected = 0;
+
+        for (int i = 0; i < channels; i++) {
+            String channel = channel(i);
+            Set<String> members = model.get(channel);
+            expected += members.size();
+
+            Set<String> names = names(checker, channel);
+            Set<String> who = who(checker, channel);
+            names.removeAll(unknown);
+            who.removeAll(unknown);
+
+            if (!names.equals(members)) {
+                namesDiffer++;
+                differences.add(difference(channel, "NAMES", members, names));
+            }
+
+            if (!who.equals(members)) {
+                whoDiffer++;
+                differences.add(difference(channel, "WHO", members, who));
+            }
+        }
+
+        report.section("consistency");
+        report.line("%d channels checked with NAMES and WHO, %d memberships expected", channels, expected);
+        report.line("%d clients excluded, their last operation was not answered", uncertain);
+        report.line("NAMES differs in %d channels, WHO differs in %d channels", namesDiffer, whoDiffer);
+        differences.stream().limit(LISTED).forEach(d -> report.line("%s", d));
+        if (differences.size() > LISTED) report.line("... %d more", differences.size() - LISTED);
+    }
+
+    /**
+     * Describe the difference between the model and the view of the server.
+     *
+     * @param channel the channel
+     * @param query the query, NAMES or WHO
+     * @param model the members according to the model
+     * @param server the members according to the server
+     * @return the description
+     */
+    private static String difference(String channel, String query, Set<String> model, Set<String> server) {
+        Set<String> missing = new TreeSet<>(model);
+        missing.removeAll(server);
+
+        Set<String> unexpected = new TreeSet<>(server);
+        unexpected.removeAll(model);
+
+        return String.format("#%s %s: missing %s, unexpected %s", channel, query, missing, unexpected);
+    }
+
+    /**
+     * Get the members of a channel according to NAMES.
+     *
+     * @param checker the client asking
+     * @param channel the channel
+     * @return the lowercase nicknames, without channel modes
+     * @throws Exception if the query was not answered
+     */
+    private static Set<String> names(Client checker, String channel) throws Exception {
+        Set<String> names = new HashSet<>();
+
+        for (IrcMessage message : query(checker, Utilities.names(channel), Response.END_OF_NAMES)) {
+            if (message.numeric() != Response.NAME_RPLY.value || message.trailing() == null) continue;
+
+            for (String name : message.trailing().trim().split(" +")) {
+                String nickname = name.replaceFirst("^[@+%&~]+", "");
+                if (!nickname.isEmpty()) names.add(nickname.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return names;
+    }
+
+    /**
+     * Get the members of a channel according to WHO.
+     *
+     * @param checker the client asking
+     * @param channel the channel
+     * @return the lowercase nicknames
+     * @throws Exception if the query was not answered
+     */
+    private static Set<String> who(Client checker, String channel) throws Exception {
+        Set<String> who = new HashSet<>();
+
+        for (IrcMessage message : query(checker, Utilities.who(channel), Response.END_OF_WHO)) {
+            // <client> <channel> <user> <host> <server> <nick> <flags> :<hops> <realname>
+            if (message.numeric() == Response.WHO_RPLY.value && message.paramCount() > 5) {
+                who.add(message.param(5).toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return who;
+    }
+
+    /**
+     * Send a query and wait for the end of its reply.
+     *
+     * @param checker the client asking
+     * @param query the query
+     * @param end the reply ending the answer
+     * @return the answer
+     * @throws Exception if the query was not answered
+     */
+    private static List<IrcMessage> query(Client checker, String query, Response end) throws Exception {
+        try {
+            return checker.async().sendAndReceive(query, Expectation.reply(end).or(Expectation.error())).toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+}
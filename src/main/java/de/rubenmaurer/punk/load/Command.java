@@ -0,0 +1,16 @@
+package de.rubenmaurer.punk.load;
+
+/**
+ * Commands sent by simulated clients.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+enum Command {
+    PRIVMSG,
+    JOIN,
+    PART,
+    PING,
+    NICK
+}
@@ -0,0 +1,94 @@
+package de.rubenmaurer.punk.load;
+
+import de.rubenmaurer.punk.util.Template;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Weighted mix of commands, e.g. 'privmsg:70,join:10,part:10,ping:10'.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class CommandMix {
+
+    /**
+     * The weight of every command.
+     */
+    private final Map<Command, Integer> weights = new EnumMap<>(Command.class);
+
+    /**
+     * Sum of all weights.
+     */
+    private final int total;
+
+    /**
+     * Parse a mix of the commands sent by the {@link MixScenario}.
+     *
+     * @param mix the mix, comma separated commands with their weight
+     * @throws IllegalArgumentException if the mix is invalid
+     */
+    CommandMix(String mix) {
+        this(mix, EnumSet.of(Command.PRIVMSG, Command.JOIN, Command.PART, Command.PING));
+    }
+
+    /**
+     * Parse a mix.
+     *
+     * @param mix the mix, comma separated commands with their weight
+     * @param allowed the commands the mix may contain
+     * @throws IllegalArgumentException if the mix is invalid or contains other commands
+     */
+    CommandMix(String mix, Set<Command> allowed) {
+        int sum = 0;
+
+        try {
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                int weight = Integer.parseInt(parts[1].trim());
+                if (weight < 0) throw new NumberFormatException(parts[1]);
+
+                Command command = Command.valueOf(parts[0].trim().toUpperCase());
+                if (!allowed.contains(command)) throw new IllegalArgumentException(command.name());
+
+                weights.merge(command, weight, Integer::sum);
+                sum += weight;
+            }
+        } catch (RuntimeException e) {
+            sum = 0;
+        }
+
+        if (sum <= 0) throw new IllegalArgumentException(Template.get("INVALID_LOAD_MIX").single("mix", mix).render());
+        this.total = sum;
+    }
+
+    /**
+     * Pick a command by its weight.
+     *
+     * @param random the random source
+     * @return the command
+     */
+    Command next(Random random) {
+        int value = random.nextInt(total);
+
+        for (Map.Entry<Command, Integer> entry : weights.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) return entry.getKey();
+        }
+
+        throw new IllegalStateException(toString());
+    }
+
+    @Override
+    public String toString() {
+        return weights.entrySet().stream()
+                .map(e -> String.format("%s:%d", e.getKey().name().toLowerCase(), e.getValue()))
+                .collect(Collectors.joining(","));
+    }
+}
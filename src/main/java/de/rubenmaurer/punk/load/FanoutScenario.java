@@ -0,0 +1,328 @@
+package de.rubenmaurer.punk.load;
+
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
+import de.rubenmaurer.punk.core.akka.Listener;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.facade.Client.Utilities;
+import de.rubenmaurer.punk.core.facade.Session;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.util.Histogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery of channel messages to many members.
+ * For every channel size M the server is restarted, M clients join one channel and K of them send messages to it.
+ * Each message carries its id and the time it was sent, the connection handler of every member decodes it on arrival.
+ * Reported are the delivery latencies, the spread between the first and the last delivery of a message,
+ * the slowest member and the loss rate. One CSV row per channel size is written to 'fanout.csv'.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class FanoutScenario implements Scenario {
+
+    /**
+     * Prefix of the messages sent to the channel.
+     */
+    private static final String PREFIX = "FANOUT";
+
+    /**
+     * Header of the CSV file.
+     */
+    private static final String HEADER = "members,senders,sent,expected,delivered,loss,p50_ms,p99_ms,p999_ms,max_ms,"
+            + "spread_p50_ms,spread_p99_ms,spread_max_ms,slowest_member_mean_ms";
+
+    /**
+     * The channel sizes.
+     */
+    private final int[] members = Settings.loadMembers();
+
+    /**
+     * Amount of members sending messages.
+     */
+    private final int senders = Settings.loadSenders();
+
+    /**
+     * Messages sent by each sender.
+     */
+    private final int messages = Settings.loadMessages();
+
+    /**
+     * Pause between two messages of a sender, in milliseconds.
+     */
+    private final int interval = Settings.loadInterval();
+
+    /**
+     * Clients joining per second.
+     */
+    private final int rate = Settings.loadRate();
+
+    /**
+     * Deliveries of the messages of a single round.
+     */
+    private static final class Round {
+
+        /**
+         * Time of the first delivery of each message.
+         */
+        final AtomicLongArray first;
+
+        /**
+         * Time of the last delivery of each message.
+         */
+        final AtomicLongArray last;
+
+        /**
+         * Amount of deliveries of each message.
+         */
+        final AtomicIntegerArray deliveries;
+
+        /**
+         * Latency of every delivery in microseconds.
+         */
+        final Histogram latency = new Histogram();
+
+        /**
+         * Amount of deliveries.
+         */
+        final LongAdder delivered = new LongAdder();
+
+        /**
+         * Create a new round.
+         *
+         * @param messages the amount of messages
+         */
+        Round(int messages) {
+            first = new AtomicLongArray(messages);
+            last = new AtomicLongArray(messages);
+            deliveries = new AtomicIntegerArray(messages);
+
+            for (int i = 0; i < messages; i++) first.set(i, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * A member of the channel, decoding the messages it receives.
+     */
+    private static final class Member implements Listener {
+
+        /**
+         * The round.
+         */
+        private final Round round;
+
+        /**
+         * Sum of the latencies in nanoseconds.
+         */
+        final AtomicLong sum = new AtomicLong();
+
+        /**
+         * Amount of deliveries.
+         */
+        final AtomicLong count = new AtomicLong();
+
+        /**
+         * Create a new member.
+         *
+         * @param round the round
+         */
+        Member(Round round) {
+            this.round = round;
+        }
+
+        @Override
+        public void received(IrcMessage message, long time) {
+            if (!message.is("PRIVMSG") || message.trailing() == null || !message.trailing().startsWith(PREFIX)) return;
+
+            // FANOUT <id> <sent>, anything else must not break the connection handler
+            String[] parts = message.trailing().split(" ");
+            int id;
+            long latency;
+
+            try {
+                id = Integer.parseInt(parts[1]);
+                latency = time - Long.parseLong(parts[2]);
+            } catch (RuntimeException e) {
+                return;
+            }
+
+            if (id < 0 || id >= round.deliveries.length()) return;
+
+            round.first.accumulateAndGet(id, time, Math::min);
+            round.last.accumulateAndGet(id, time, Math::max);
+            round.deliveries.incrementAndGet(id);
+            round.latency.record(TimeUnit.NANOSECONDS.toMicros(latency));
+            round.delivered.increment();
+
+            sum.addAndGet(latency);
+            count.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void run(LoadReport report) throws Exception {
+        List<String> csv = new ArrayList<>();
+        csv.add(HEADER);
+
+        report.section("fan-out");
+        report.line("senders: %d, %d messages each, %d ms interval, %d joins/s", senders, messages, interval, rate);
+
+        List<Long> p99 = new ArrayList<>();
+
+        for (int i = 0; i < members.length; i++) {
+            // every channel size gets a fresh server, the launcher started the first one
+            if (i > 0 && (!Session.stopServer() || !Session.startServer(String.format("load-fanout-%d", members[i])))) break;
+
+            Round round = new Round(senders * messages);
+            csv.add(round(members[i], round, report));
+            p99.add(round.latency.percentile(99));
+        }
+
+        LoadReport.file("fanout.csv", csv);
+
+        // the scaling curve: p99 delivery latency by channel size
+        long highest = Math.max(1, p99.stream().mapToLong(Long::longValue).max().orElse(1));
+
+        report.section("scaling");
+        for (int i = 0; i < p99.size(); i++) {
+            int width = (int) Math.round(50.0 * p99.get(i) / highest);
+            report.line("%5d members %-50s p99 %s", members[i], new String(new char[width]).replace('\0', '#'), LoadReport.millis(p99.get(i)));
+        }
+    }
+
+    /**
+     * Run a single round.
+     *
+     * @param size the amount of members
+     * @param round the deliveries of this round
+     * @param report the report
+     * @return the CSV row
+     * @throws Exception if the round was interrupted
+     */
+    private String round(int size, Round round, LoadReport report) throws Exception {
+        String channel = String.format("fanout%d", size);
+        List<Client> joined = Traffic.register(0, size, rate, client -> {
+            List<String> join = new ArrayList<>(Utilities.auth(client));
+            join.add(Utilities.joinChannel(channel));
+
+            return join;
+        }, () -> Expectation.welcome().then(Expectation.joined()));
+
+        // nothing is sent to the channel before every member joined
+        List<Member> receivers = new ArrayList<>();
+        for (Client client : joined) {
+            Member member = new Member(round);
+            client.async().listen(member);
+            receivers.add(member);
+        }
+
+        long sent = send(joined.subList(0, Math.min(senders, joined.size())), channel);
+        long expected = sent * Math.max(0, joined.size() - 1);
+
+        // wait for the deliveries still on their way
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Settings.timeout());
+        while (round.delivered.sum() < expected && System.nanoTime() < deadline) Thread.sleep(10);
+
+        return result(size, joined.size(), sent, expected, round, receivers, report);
+    }
+
+    /**
+     * Let the senders send their messages, each one waits for a PONG after every message.
+     *
+     * @param sending the senders
+     * @param channel the channel
+     * @return the amount of messages accepted by the server
+     * @throws Exception if interrupted
+     */
+    private long send(List<Client> sending, String channel) throws Exception {
+        if (sending.isEmpty()) return 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(sending.size());
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int s = 0; s < sending.size(); s++) {
+            Client client = sending.get(s);
+            int sender = s;
+
+            results.add(pool.submit(() -> {
+                int accepted = 0;
+
+                for (int seq = 0; seq < messages; seq++) {
+                    int id = sender * messages + seq;
+                    String message = Utilities.privateMessage(channel, String.format("%s %d %d", PREFIX, id, System.nanoTime()));
+
+                    try {
+                        List<IrcMessage> reply = client.async().sendAndReceiveAll(Arrays.asList(message, "PING"),
+                                Expectation.command("PONG").or(Expectation.error())).toCompletableFuture().get();
+                        if (!SimulatedClient.failed(reply)) accepted++;
+                    } catch (Exception e) {
+                        // counted as lost
+                    }
+
+                    Thread.sleep(interval);
+                }
+
+                return accepted;
+            }));
+        }
+
+        long sent = 0;
+        for (Future<Integer> result : results) sent += result.get();
+
+        pool.shutdown();
+        return sent;
+    }
+
+    /**
+     * Report the result of a round.
+     *
+     * @param size the requested amount of members
+     * @param joined the amount of members which joined
+     * @param sent the amount of messages accepted by the server
+     * @param expected the amount of expected deliveries
+     * @param round the deliveries
+     * @param receivers the members which joined
+     * @param report the report
+     * @return the CSV row
+     */
+    private String result(int size, int joined, long sent, long expected, Round round, List<Member> receivers, LoadReport report) {
+        Histogram spread = new Histogram();
+        for (int i = 0; i < round.deliveries.length(); i++) {
+            if (round.deliveries.get(i) > 0) spread.record(TimeUnit.NANOSECONDS.toMicros(round.last.get(i) - round.first.get(i)));
+        }
+
+        long slowest = 0;
+        for (Member member : receivers) {
+            long count = member.count.get();
+            if (count > 0) slowest = Math.max(slowest, TimeUnit.NANOSECONDS.toMicros(member.sum.get() / count));
+        }
+
+        long delivered = round.delivered.sum();
+        double loss = expected > 0 ? Math.max(0, expected - delivered) / (double) expected : 0;
+        Histogram latency = round.latency;
+
+        report.section(String.format("%d members", size));
+        report.line("joined: %d, sent: %d, delivered: %d of %d (%.2f%% lost)", joined, sent, delivered, expected, loss * 100);
+        report.latency("delivery", latency);
+        report.latency("spread", spread);
+        report.line("slowest member: mean %s", LoadReport.millis(slowest));
+
+        return String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%.4f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f", size, senders, sent, expected, delivered, loss,
+                latency.percentile(50) / 1000.0, latency.percentile(99) / 1000.0, latency.percentile(99.9) / 1000.0, latency.max() / 1000.0,
+                spread.percentile(50) / 1000.0, spread.percentile(99) / 1000.0, spread.max() / 1000.0, slowest / 1000.0);
+    }
+}
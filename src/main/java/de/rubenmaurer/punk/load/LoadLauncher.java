@@ -0,0 +1,90 @@
+package de.rubenmaurer.punk.load;
+
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.facade.Session;
+import de.rubenmaurer.punk.util.Template;
+import de.rubenmaurer.punk.util.Terminal;
+
+import java.io.FileNotFoundException;
+
+/**
+ * Launcher for the load scenarios, used instead of the tests if started with '--load'.
+ * The scenario runs against a single server, its report is written to 'load.log'.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public class LoadLauncher {
+
+    /**
+     * Private constructor.
+     */
+    private LoadLauncher() {
+        throw new IllegalStateException("Launcher class");
+    }
+
+    /**
+     * Get a scenario by its name.
+     *
+     * @param name the name
+     * @return the scenario, null if there is none with that name
+     */
+    private static Scenario scenario(String name) {
+        switch (name) {
+            case "mix": return new MixScenario();
+            case "fanout": return new FanoutScenario();
+            case "storm": return new StormScenario();
+            case "soak": return new SoakScenario();
+            case "slow": return new SlowScenario();
+            case "churn": return new ChurnScenario();
+            default: return null;
+        }
+    }
+
+    /**
+     * Launches the load scenario selected by the settings.
+     */
+    public static void launch() {
+        Scenario scenario;
+
+        try {
+            scenario = scenario(Settings.load());
+        } catch (IllegalArgumentException e) {
+            Terminal.printError(e.getMessage());
+            System.out.println(Terminal.center(e.getMessage()));
+            System.exit(-1);
+            return;
+        }
+
+        if (scenario == null) {
+            System.out.println(Terminal.center(Template.get("UNKNOWN_LOAD_SCENARIO").single("name", Settings.load()).render()));
+            System.exit(-1);
+        }
+
+        // the clients are created on the threads of the scenario, they all need to see the session
+        LoadReport report = new LoadReport();
+        Session.initiateShared(Settings.hostname(), Settings.port(), Settings.executable());
+
+        try {
+            if (Session.startServer(String.format("load-%s", Settings.load()))) {
+                scenario.run(report);
+            } else {
+                report.section("load");
+                report.line(Template.get("SERVER_NOT_READY").single("test", Settings.load()).single("delay", Settings.startDelay()).render());
+            }
+        } catch (Exception e) {
+            Terminal.printError(e.getMessage(), Settings.load());
+        } finally {
+            Session.terminate(String.format("load-%s", Settings.load()));
+        }
+
+        try {
+            report.write("load.log");
+        } catch (FileNotFoundException e) {
+            Terminal.debugErro(e.getMessage());
+        }
+
+        System.exit(0);
+    }
+}
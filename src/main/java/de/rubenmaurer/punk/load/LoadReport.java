@@ -0,0 +1,114 @@
+package de.rubenmaurer.punk.load;
+
+import de.rubenmaurer.punk.Pricefield;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.util.Histogram;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Report of a load scenario.
+ * Written to 'load.log' next to the 'results.log' of a test run, in the same layout.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class LoadReport {
+
+    /**
+     * The lines of the report.
+     */
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * Start a new section.
+     *
+     * @param title the title
+     */
+    void section(String title) {
+        if (!lines.isEmpty()) lines.add("");
+        lines.add(String.format("%s: ", title.toUpperCase()));
+    }
+
+    /**
+     * Add an entry to the current section.
+     *
+     * @param format the format
+     * @param args the arguments
+     */
+    void line(String format, Object... args) {
+        lines.add(String.format("- %s", String.format(format, args)));
+    }
+
+    /**
+     * Add the percentiles of latencies to the current section.
+     *
+     * @param label the label
+     * @param micros the latencies in microseconds
+     */
+    void latency(String label, Histogram micros) {
+        line("%s: %d, p50 %s, p99 %s, p99.9 %s, max %s", label, micros.count(), millis(micros.percentile(50)),
+                millis(micros.percentile(99)), millis(micros.percentile(99.9)), millis(micros.max()));
+    }
+
+    /**
+     * Format microseconds as milliseconds.
+     *
+     * @param micros the microseconds
+     * @return the formatted milliseconds
+     */
+    static String millis(long micros) {
+        return String.format("%.3f ms", micros / 1000.0);
+    }
+
+    /**
+     * Get the lines of the report.
+     *
+     * @return the lines
+     */
+    List<String> lines() {
+        return lines;
+    }
+
+    /**
+     * Write the report into the log directory of this run and print it.
+     *
+     * @param name the file name
+     * @throws FileNotFoundException if the file could not be created
+     */
+    void write(String name) throws FileNotFoundException {
+        file(name, lines);
+        lines.forEach(System.out::println);
+    }
+
+    /**
+     * Write lines into a file inside the log directory of this run, e.g. a CSV for plotting.
+     *
+     * @param name the file name
+     * @param content the lines
+     * @throws FileNotFoundException if the file could not be created
+     */
+    static void file(String name, List<String> content) throws FileNotFoundException {
+        try (PrintStream out = open(name)) {
+            content.forEach(out::println);
+        }
+    }
+
+    /**
+     * Open a file inside the log directory of this run, for series written while the scenario is running.
+     * Every line is flushed, so the series survives an aborted run.
+     *
+     * @param name the file name
+     * @return the stream
+     * @throws FileNotFoundException if the file could not be created
+     */
+    static PrintStream open(String name) throws FileNotFoundException {
+        return new PrintStream(new FileOutputStream(new File(String.format("%s/%s/%s", Settings.logs(), Pricefield.runtimeID, name))), true);
+    }
+}
@@ -0,0 +1,296 @@
+package de.rubenmaurer.punk.load;
+
+import akka.pattern.AskTimeoutException;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.ConnectionState;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.util.Histogram;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Many clients sending a mix of PRIVMSG, JOIN, PART and PING.
+ * The clients are connected at a fixed rate, each one registers and then sends a command from the mix,
+ * waits for its reply and pauses for about the configured interval. The traffic lasts for the configured
+ * duration after the last client was connected.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class MixScenario implements Scenario {
+
+    /**
+     * Amount of clients.
+     */
+    private final int clients = Settings.loadClients();
+
+    /**
+     * Clients connected per second.
+     */
+    private final int rate = Settings.loadRate();
+
+    /**
+     * Duration of the traffic after the ramp-up, in seconds.
+     */
+    private final int duration = Settings.loadDuration();
+
+    /**
+     * Mean pause between two commands of a client, in milliseconds.
+     */
+    private final int interval = Settings.loadInterval();
+
+    /**
+     * Amount of channels.
+     */
+    private final int channels = Settings.loadChannels();
+
+    /**
+     * The command mix.
+     */
+    private final CommandMix mix = new CommandMix(Settings.loadMix());
+
+    /**
+     * Nicknames of the registered clients, null if not registered.
+     */
+    private final AtomicReferenceArray<String> nicknames = new AtomicReferenceArray<>(Math.max(1, clients));
+
+    /**
+     * All simulated clients.
+     */
+    private final Queue<SimulatedClient> simulated = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Registration latencies in microseconds.
+     */
+    private final Histogram registration = new Histogram();
+
+    /**
+     * Latencies of every command in microseconds.
+     */
+    private final Map<Command, Histogram> latencies = new EnumMap<>(Command.class);
+
+    /**
+     * Commands answered with an error, per command.
+     */
+    private final Map<Command, LongAdder> failures = new EnumMap<>(Command.class);
+
+    /**
+     * Commands without an answer in time, per command.
+     */
+    private final Map<Command, LongAdder> timeouts = new EnumMap<>(Command.class);
+
+    /**
+     * Amount of clients which could not register.
+     */
+    private final LongAdder refused = new LongAdder();
+
+    /**
+     * Amount of pending requests.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Schedules the connects and the commands.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Are commands still sent?
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Create the scenario from the settings.
+     */
+    MixScenario() {
+        for (Command command : Command.values()) {
+            latencies.put(command, new Histogram());
+            failures.put(command, new LongAdder());
+            timeouts.put(command, new LongAdder());
+        }
+    }
+
+    @Override
+    public void run(LoadReport report) throws Exception {
+        scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        long period = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+
+        for (int i = 0; i < clients; i++) {
+            int index = i;
+            scheduler.schedule(() -> connect(index), i * period, TimeUnit.NANOSECONDS);
+        }
+
+        TimeUnit.NANOSECONDS.sleep(clients * period + TimeUnit.SECONDS.toNanos(duration));
+        running = false;
+        long stop = System.nanoTime();
+        Traffic.drain(pending);
+
+        scheduler.shutdownNow();
+        report(report, (stop - start) / 1e9, period * (long) clients / 1e9);
+    }
+
+    /**
+     * Connect and register a client, then start sending commands.
+     *
+     * @param index the index of the client
+     */
+    private void connect(int index) {
+        if (!running) return;
+
+        SimulatedClient client;
+        try {
+            client = new SimulatedClient(Client.create(index));
+            simulated.add(client);
+        } catch (Exception e) {
+            refused.increment();
+            return;
+        }
+
+        long sent = System.nanoTime();
+        pending.incrementAndGet();
+
+        client.register().whenComplete((reply, error) -> {
+            pending.decrementAndGet();
+
+            if (error != null || SimulatedClient.failed(reply)) {
+                refused.increment();
+                return;
+            }
+
+            registration.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+            nicknames.set(index, client.client().nickname());
+            schedule(client, ThreadLocalRandom.current().nextInt(Math.max(1, interval)));
+        });
+    }
+
+    /**
+     * Schedule the next command of a client.
+     *
+     * @param client the client
+     * @param delay the delay in milliseconds
+     */
+    private void schedule(SimulatedClient client, long delay) {
+        if (!running) return;
+
+        try {
+            scheduler.schedule(() -> send(client), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the scenario is over
+        }
+    }
+
+    /**
+     * Send the next command of a client and record its latency.
+     *
+     * @param client the client
+     */
+    private void send(SimulatedClient client) {
+        if (!running) return;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Command command = client.resolve(mix.next(random), channels);
+        long sent = System.nanoTime();
+        pending.incrementAndGet();
+
+        client.execute(command, channels, peer(random, client), random).whenComplete((reply, error) -> {
+            pending.decrementAndGet();
+            record(command, reply, error, System.nanoTime() - sent);
+            schedule(client, Traffic.pause(interval));
+        });
+    }
+
+    /**
+     * Pick a registered client to send a private message to.
+     *
+     * @param random the random source
+     * @param self the sender, used if the picked client is not registered
+     * @return the nickname
+     */
+    private String peer(ThreadLocalRandom random, SimulatedClient self) {
+        String nickname = nicknames.get(random.nextInt(nicknames.length()));
+        return nickname != null ? nickname : self.client().nickname();
+    }
+
+    /**
+     * Record the outcome of a command.
+     *
+     * @param command the command
+     * @param reply the reply, null if the command failed
+     * @param error the error, null if there is a reply
+     * @param nanos the time until the reply
+     */
+    private void record(Command command, List<IrcMessage> reply, Throwable error, long nanos) {
+        Throwable cause = Traffic.cause(error);
+
+        if (cause instanceof AskTimeoutException) {
+            timeouts.get(command).increment();
+        } else if (cause != null || SimulatedClient.failed(reply)) {
+            failures.get(command).increment();
+        } else {
+            latencies.get(command).record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+    }
+
+    /**
+     * Fill the report.
+     *
+     * @param report the report
+     * @param seconds the time from the first connect until the last command was sent
+     * @param ramp the planned duration of the ramp-up in seconds
+     */
+    private void report(LoadReport report, double seconds, double ramp) {
+        Histogram total = new Histogram();
+        latencies.values().forEach(total::add);
+
+        long failed = failures.values().stream().mapToLong(LongAdder::sum).sum();
+        long timedOut = timeouts.values().stream().mapToLong(LongAdder::sum).sum();
+        long written = 0, dropped = 0, lost = 0;
+
+        for (SimulatedClient client : simulated) {
+            ConnectionState state = client.client().async().state();
+            written += state.written();
+            dropped += state.overflowed();
+            lost += state.lost();
+        }
+
+        report.section("load");
+        report.line("scenario: mix %s, %d channels, %d ms interval", mix, channels, interval);
+        report.line("clients: %d requested, %d registered, %d refused (%d/s, ramp-up %.1f s)",
+                clients, registration.count(), refused.sum(), rate, ramp);
+        report.line("duration: %.1f s", seconds);
+        report.line("commands: %d answered, %d failed, %d timed out (%.1f/s)",
+                total.count(), failed, timedOut, seconds > 0 ? total.count() / seconds : 0);
+        report.line("written: %d lines, %d writes dropped, %d lines lost on close", written, dropped, lost);
+
+        report.section("latency");
+        report.latency("registration", registration);
+        report.latency("all", total);
+
+        for (Command command : Command.values()) {
+            if (latencies.get(command).count() > 0) report.latency(command.name(), latencies.get(command));
+        }
+
+        if (failed + timedOut == 0) return;
+
+        report.section("errors");
+        for (Command command : Command.values()) {
+            long f = failures.get(command).sum(), t = timeouts.get(command).sum();
+            if (f + t > 0) report.line("%s: %d failed, %d timed out", command.name(), f, t);
+        }
+    }
+}
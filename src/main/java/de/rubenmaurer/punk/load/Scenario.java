@@ -0,0 +1,19 @@
+package de.rubenmaurer.punk.load;
+
+/**
+ * A load scenario, run against a single server instead of the tests.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+interface Scenario {
+
+    /**
+     * Run the scenario against the server of the current session.
+     *
+     * @param report the report to fill
+     * @throws Exception if the scenario could not be run
+     */
+    void run(LoadReport report) throws Exception;
+}
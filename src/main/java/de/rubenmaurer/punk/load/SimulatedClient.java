@@ -0,0 +1,180 @@
+package de.rubenmaurer.punk.load;
+
+import de.rubenmaurer.punk.core.akka.Expectation;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.facade.Client.Utilities;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.Response;
+import de.rubenmaurer.punk.util.Encoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.regex.Pattern;
+
+/**
+ * A client simulated by a load scenario.
+ * Keeps track of the channels it joined. Only one command is pending at a time,
+ * so the state is never accessed concurrently.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class SimulatedClient {
+
+    /**
+     * The client.
+     */
+    private final Client client;
+
+    /**
+     * The joined channels.
+     */
+    private final List<String> channels = new ArrayList<>();
+
+    /**
+     * Create a new simulated client.
+     *
+     * @param client the client
+     */
+    SimulatedClient(Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Getter for the client.
+     *
+     * @return the client
+     */
+    Client client() {
+        return client;
+    }
+
+    /**
+     * Get the name of a load channel.
+     *
+     * @param index the index of the channel
+     * @return the name, without '#'
+     */
+    static String channel(int index) {
+        return String.format("load%d", index);
+    }
+
+    /**
+     * Did the server answer with an error?
+     * Only the last message counts, a missing MOTD at the end of the welcome burst is no error.
+     *
+     * @param reply the reply
+     * @return error received?
+     */
+    static boolean failed(List<IrcMessage> reply) {
+        if (reply.isEmpty()) return true;
+
+        int numeric = reply.get(reply.size() - 1).numeric();
+        return numeric >= 400 && numeric < 600 && numeric != Response.NO_MOTD.value;
+    }
+
+    /**
+     * Register the client, sending NICK and USER with a single write.
+     *
+     * @return the reply
+     */
+    CompletionStage<List<IrcMessage>> register() {
+        return client.async().sendAndReceiveAll(Utilities.auth(client), Expectation.welcome());
+    }
+
+    /**
+     * Get the command which can actually be sent.
+     * A client in every channel sends a PRIVMSG instead of a JOIN, a client without channel a JOIN instead of a PART.
+     *
+     * @param wanted the command picked from the mix
+     * @param available the amount of channels
+     * @return the command to send
+     */
+    Command resolve(Command wanted, int available) {
+        if (wanted == Command.JOIN && channels.size() >= available) return Command.PRIVMSG;
+        if (wanted == Command.PART && channels.isEmpty()) return Command.JOIN;
+
+        return wanted;
+    }
+
+    /**
+     * Send a command and wait for its reply.
+     * A PRIVMSG has no reply, it is followed by a PING, so its latency includes the delivery to the server.
+     * A PART is confirmed by its echo with the prefix of the client itself, not by the PART of another member.
+     *
+     * @param command the command, see {@link #resolve(Command, int)}
+     * @param available the amount of channels
+     * @param peer nickname of another client, addressed by a PRIVMSG if not sent to a channel
+     * @param random the random source
+     * @return the reply
+     */
+    CompletionStage<List<IrcMessage>> execute(Command command, int available, String peer, Random random) {
+        switch (command) {
+            case PRIVMSG:
+                String message = String.format("Wowser %d", random.nextInt(1000000));
+                String line = !channels.isEmpty() && random.nextBoolean()
+                        ? Utilities.privateMessage(channels.get(random.nextInt(channels.size())), message)
+                        : Encoder.get("privmsg").render(peer, message);
+
+                return client.async().sendAndReceiveAll(Arrays.asList(line, "PING"), Expectation.command("PONG").or(Expectation.error()));
+            case JOIN:
+                String join = free(available, random);
+
+                return client.async().sendAndReceive(Utilities.joinChannel(join), Expectation.joined())
+                        .thenApply(reply -> {
+                            if (!failed(reply)) channels.add(join);
+                            return reply;
+                        });
+            case PART:
+                String part = channels.get(random.nextInt(channels.size()));
+                String self = String.format("(?i)^:%s(!\\S*)? ", Pattern.quote(client.nickname()));
+
+                return client.async().sendAndReceive(Utilities.part(part, "Bye"),
+                        Expectation.matching(self + "PART #" + Pattern.quote(part)).or(Expectation.error()))
+                        .thenApply(reply -> {
+                            if (!failed(reply)) channels.remove(part);
+                            return reply;
+                        });
+            case PING:
+                return client.async().sendAndReceive("PING", Expectation.command("PONG"));
+            default:
+                CompletableFuture<List<IrcMessage>> unknown = new CompletableFuture<>();
+                unknown.completeExceptionally(new IllegalArgumentException(command.name()));
+
+                return unknown;
+        }
+    }
+
+    /**
+     * Pick a channel the client did not join yet.
+     *
+     * @param available the amount of channels
+     * @param random the random source
+     * @return the name of the channel
+     */
+    private String free(int available, Random random) {
+        int start = random.nextInt(available);
+
+        for (int i = 0; i < available; i++) {
+            String name = channel((start + i) % available);
+            if (!channels.contains(name)) return name;
+        }
+
+        return channel(start);
+    }
+
+    /**
+     * Get the joined channels.
+     *
+     * @return the channels
+     */
+    List<String> channels() {
+        return Collections.unmodifiableList(channels);
+    }
+}
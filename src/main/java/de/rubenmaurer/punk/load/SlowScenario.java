@@ -0,0 +1,356 @@
+package de.rubenmaurer.punk.load;
+
+import akka.pattern.AskTimeoutException;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.facade.Client.Utilities;
+import de.rubenmaurer.punk.core.facade.ProcessSample;
+import de.rubenmaurer.punk.core.facade.Session;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.util.Histogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Isolation of a slow consumer: some clients stop reading while the others keep talking.
+ * All clients join one channel, the healthy ones send messages to it and wait for a PONG after each one,
+ * so every message is also queued for the slow clients. The scenario has three phases of equal length:
+ * a baseline, a phase in which the slow clients stop reading from their sockets (they keep sending PINGs)
+ * and a recovery phase in which they read again. Reported are the latencies of the healthy clients and the
+ * rss of the server per phase, and whether and when the server disconnected the slow clients.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class SlowScenario implements Scenario {
+
+    /**
+     * The channel all clients join.
+     */
+    private static final String CHANNEL = "slow";
+
+    /**
+     * Text of the channel messages, long enough to fill the buffers of the slow clients quickly.
+     */
+    private static final String PAYLOAD = new String(new char[400]).replace('\0', 'x');
+
+    /**
+     * Amount of healthy clients.
+     */
+    private final int clients = Settings.loadClients();
+
+    /**
+     * Amount of slow clients.
+     */
+    private final int slow = Settings.loadSlow();
+
+    /**
+     * Clients joining per second.
+     */
+    private final int rate = Settings.loadRate();
+
+    /**
+     * Mean milliseconds a healthy client waits between two messages.
+     */
+    private final int interval = Settings.loadInterval();
+
+    /**
+     * Seconds of every phase.
+     */
+    private final int length = Math.max(1, Settings.loadDuration() / 3);
+
+    /**
+     * A phase of the scenario.
+     */
+    private static final class Phase {
+
+        /**
+         * The name.
+         */
+        final String name;
+
+        /**
+         * Latencies of the healthy clients in microseconds.
+         */
+        final Histogram latency = new Histogram();
+
+        /**
+         * Messages of healthy clients answered with an error.
+         */
+        final LongAdder failed = new LongAdder();
+
+        /**
+         * Messages of healthy clients not answered within the timeout.
+         */
+        final LongAdder timedOut = new LongAdder();
+
+        /**
+         * Channel messages received by the slow clients.
+         */
+        final LongAdder received = new LongAdder();
+
+        /**
+         * Rss of the server at the start, the end and the max. in between, in kB.
+         */
+        volatile long rssStart, rssEnd, rssPeak;
+
+        /**
+         * Create a new phase.
+         *
+         * @param name the name
+         */
+        Phase(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * The phases, in order.
+     */
+    private final Phase[] phases = { new Phase("baseline"), new Phase("slow"), new Phase("recovery") };
+
+    /**
+     * The current phase.
+     */
+    private volatile Phase phase = phases[0];
+
+    /**
+     * Are the healthy clients still sending?
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Amount of messages waiting for an answer.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Clients which could not join.
+     */
+    private final LongAdder refused = new LongAdder();
+
+    /**
+     * Runs the healthy clients and the sampler.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * The slow clients which joined.
+     */
+    private final List<Client> slowClients = new ArrayList<>();
+
+    /**
+     * Time each slow client was found disconnected, see {@link System#nanoTime()}, 0 while it is connected.
+     */
+    private AtomicLongArray closed;
+
+    /**
+     * Time the slow clients stopped reading, see {@link System#nanoTime()}.
+     */
+    private volatile long suspended;
+
+    @Override
+    public void run(LoadReport report) throws Exception {
+        long pid = Session.serverPid();
+        List<Client> healthy = new ArrayList<>();
+
+        for (Client client : join(0, slow)) {
+            // counts the channel messages which actually reached the slow client
+            client.async().listen((message, time) -> {
+                if (message.is("PRIVMSG")) phase.received.increment();
+            });
+            slowClients.add(client);
+        }
+
+        healthy.addAll(join(slow, slow + clients));
+        closed = new AtomicLongArray(slowClients.size());
+        scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+
+        for (Client client : healthy) schedule(client, ThreadLocalRandom.current().nextInt(Math.max(1, interval)));
+        scheduler.scheduleAtFixedRate(() -> sample(pid), 0, 1, TimeUnit.SECONDS);
+
+        for (Phase next : phases) {
+            next.rssStart = ProcessSample.of(pid).rss();
+            next.rssPeak = next.rssStart;
+            phase = next;
+
+            if (next == phases[1]) {
+                suspended = System.nanoTime();
+                slowClients.forEach(c -> c.async().suspendReading());
+            }
+
+            if (next == phases[2]) slowClients.forEach(c -> c.async().resumeReading());
+
+            TimeUnit.SECONDS.sleep(length);
+            next.rssEnd = ProcessSample.of(pid).rss();
+        }
+
+        running = false;
+        Traffic.drain(pending);
+
+        scheduler.shutdownNow();
+        report(report, healthy.size());
+    }
+
+    /**
+     * Let clients join the channel, pipelining the registration and the join.
+     *
+     * @param from index of the first client
+     * @param to index after the last client
+     * @return the clients which joined
+     * @throws Exception if a client could not be created
+     */
+    private List<Client> join(int from, int to) throws Exception {
+        List<Client> joined = Traffic.register(from, to, rate, client -> {
+            List<String> join = new ArrayList<>(Utilities.auth(client));
+            join.add(Utilities.joinChannel(CHANNEL));
+
+            return join;
+        }, () -> Expectation.welcome().then(Expectation.joined()));
+
+        refused.add(to - from - joined.size());
+        return joined;
+    }
+
+    /**
+     * Schedule the next message of a healthy client.
+     *
+     * @param client the client
+     * @param delay the delay in milliseconds
+     */
+    private void schedule(Client client, long delay) {
+        if (!running) return;
+
+        try {
+            scheduler.schedule(() -> send(client), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the scenario is over
+        }
+    }
+
+    /**
+     * Send a channel message followed by a PING and record the latency in the current phase.
+     *
+     * @param client the healthy client
+     */
+    private void send(Client client) {
+        if (!running) return;
+
+        Phase current = phase;
+        long sent = System.nanoTime();
+        pending.incrementAndGet();
+
+        client.async().sendAndReceiveAll(Arrays.asList(Utilities.privateMessage(CHANNEL, PAYLOAD), "PING"),
+                Expectation.command("PONG").or(Expectation.error())).whenComplete((reply, error) -> {
+            pending.decrementAndGet();
+            record(current, reply, error, System.nanoTime() - sent);
+            schedule(client, Traffic.pause(interval));
+        });
+    }
+
+    /**
+     * Record the outcome of a message.
+     *
+     * @param phase the phase the message was sent in
+     * @param reply the reply, null if the message failed
+     * @param error the error, null if there is a reply
+     * @param nanos the time until the reply
+     */
+    private static void record(Phase phase, List<IrcMessage> reply, Throwable error, long nanos) {
+        Throwable cause = Traffic.cause(error);
+
+        if (cause instanceof AskTimeoutException) {
+            phase.timedOut.increment();
+        } else if (cause != null || SimulatedClient.failed(reply)) {
+            phase.failed.increment();
+        } else {
+            phase.latency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+    }
+
+    /**
+     * Sample the rss of the server and the connections of the slow clients.
+     * The slow clients send a PING on every sample, a client which only stops reading still talks.
+     *
+     * @param pid the pid of the server
+     */
+    private void sample(long pid) {
+        Phase current = phase;
+        current.rssPeak = Math.max(current.rssPeak, ProcessSample.of(pid).rss());
+
+        for (int i = 0; i < slowClients.size(); i++) {
+            Client client = slowClients.get(i);
+
+            if (client.async().state().isClosed()) {
+                closed.compareAndSet(i, 0, System.nanoTime());
+            } else {
+                client.async().send("PING");
+            }
+        }
+    }
+
+    /**
+     * Fill the report.
+     *
+     * @param report the report
+     * @param healthy the amount of healthy clients which joined
+     */
+    private void report(LoadReport report, int healthy) {
+        report.section("slow consumer");
+        report.line("clients: %d healthy, %d slow, %d refused", healthy, slowClients.size(), refused.sum());
+        report.line("messages: %d characters to #%s every %d ms per healthy client, %d s per phase",
+                PAYLOAD.length(), CHANNEL, interval, length);
+
+        for (Phase p : phases) {
+            report.section(p.name);
+            report.latency("healthy", p.latency);
+            report.line("failed: %d, timed out: %d", p.failed.sum(), p.timedOut.sum());
+            report.line("rss: %d kB -> %d kB (peak %d kB)", p.rssStart, p.rssEnd, Math.max(p.rssPeak, p.rssEnd));
+            report.line("channel messages received by the slow clients: %d", p.received.sum());
+        }
+
+        Histogram baseline = phases[0].latency;
+        Histogram degraded = phases[1].latency;
+
+        report.section("isolation");
+        if (baseline.count() > 0 && degraded.count() > 0) {
+            report.line("healthy p50: %.2fx, p99: %.2fx, p99.9: %.2fx of the baseline while the slow clients did not read",
+                    ratio(degraded, baseline, 50), ratio(degraded, baseline, 99), ratio(degraded, baseline, 99.9));
+        }
+
+        int disconnected = 0;
+        for (int i = 0; i < closed.length(); i++) {
+            long at = closed.get(i);
+            if (at == 0) continue;
+
+            disconnected++;
+            report.line("slow client %d disconnected %.1f s after it stopped reading", i, (at - suspended) / 1e9);
+        }
+
+        report.line("slow clients disconnected by the server: %d of %d", disconnected, slowClients.size());
+    }
+
+    /**
+     * Get the ratio of two percentiles.
+     *
+     * @param value the histogram to compare
+     * @param base the histogram to compare with
+     * @param percentile the percentile
+     * @return the ratio
+     */
+    private static double ratio(Histogram value, Histogram base, double percentile) {
+        return value.percentile(percentile) / (double) Math.max(1, base.percentile(percentile));
+    }
+}
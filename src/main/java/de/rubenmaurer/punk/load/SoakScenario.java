@@ -0,0 +1,205 @@
+package de.rubenmaurer.punk.load;
+
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.facade.ProcessSample;
+import de.rubenmaurer.punk.core.facade.Session;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Long running mixed workload while the resources of the server are sampled.
+ * Runs the {@link MixScenario} for 'loadDuration' seconds, meant to be hours, and samples the rss, threads,
+ * open file descriptors and cpu time of the server process and its descendants every 'loadSample' seconds
+ * into 'soak.csv'. At the end a linear trend is fitted to every resource over the samples taken after the
+ * ramp-up, a resource growing steadily while the workload does not is flagged as a possible leak.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class SoakScenario implements Scenario {
+
+    /**
+     * Header of the CSV file.
+     */
+    private static final String HEADER = "seconds,processes,rss_kb,threads,fds,cpu_ms,cpu_percent";
+
+    /**
+     * Growth over the steady phase, relative to its start, from which a steady trend is flagged.
+     */
+    private static final double TOLERANCE = 0.1;
+
+    /**
+     * Min. coefficient of determination of a flagged trend, noise does not count as growth.
+     */
+    private static final double MIN_FIT = 0.5;
+
+    /**
+     * Seconds between two samples.
+     */
+    private final int interval = Settings.loadSample();
+
+    /**
+     * Seconds until all clients are connected, samples taken before are not part of the trends.
+     */
+    private final double rampUp = Settings.loadClients() / (double) Settings.loadRate();
+
+    /**
+     * The workload.
+     */
+    private final MixScenario mix = new MixScenario();
+
+    /**
+     * A sample together with the time it was taken.
+     */
+    private static final class Sample {
+
+        /**
+         * Seconds since the start of the scenario.
+         */
+        final double seconds;
+
+        /**
+         * The resources.
+         */
+        final ProcessSample resources;
+
+        /**
+         * Create a new sample.
+         *
+         * @param seconds seconds since the start
+         * @param resources the resources
+         */
+        Sample(double seconds, ProcessSample resources) {
+            this.seconds = seconds;
+            this.resources = resources;
+        }
+    }
+
+    /**
+     * The samples, in the order they were taken.
+     */
+    private final List<Sample> samples = new ArrayList<>();
+
+    @Override
+    public void run(LoadReport report) throws Exception {
+        long pid = Session.serverPid();
+        long start = System.nanoTime();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+
+        try (PrintStream csv = LoadReport.open("soak.csv")) {
+            csv.println(HEADER);
+            sampler.scheduleAtFixedRate(() -> sample(pid, start, csv), 0, interval, TimeUnit.SECONDS);
+
+            try {
+                mix.run(report);
+            } finally {
+                sampler.shutdown();
+                sampler.awaitTermination(interval, TimeUnit.SECONDS);
+            }
+
+            sample(pid, start, csv);
+        }
+
+        report(report, pid);
+    }
+
+    /**
+     * Take a sample and append it to the series.
+     *
+     * @param pid the pid of the server
+     * @param start the start of the scenario, see {@link System#nanoTime()}
+     * @param csv the series
+     */
+    private void sample(long pid, long start, PrintStream csv) {
+        Sample sample = new Sample((System.nanoTime() - start) / 1e9, ProcessSample.of(pid));
+        ProcessSample r = sample.resources;
+
+        Sample previous;
+        synchronized (samples) {
+            previous = samples.isEmpty() ? null : samples.get(samples.size() - 1);
+            samples.add(sample);
+        }
+
+        double cpu = previous == null || sample.seconds <= previous.seconds ? 0
+                : (r.cpu() - previous.resources.cpu()) / (10 * (sample.seconds - previous.seconds));
+
+        csv.println(String.format(Locale.ROOT, "%.1f,%d,%d,%d,%d,%d,%.1f", sample.seconds, r.processes(), r.rss(), r.threads(),
+                r.fds(), r.cpu(), cpu));
+    }
+
+    /**
+     * Fill the report.
+     *
+     * @param report the report
+     * @param pid the pid of the server
+     */
+    private void report(LoadReport report, long pid) {
+        List<Sample> steady = new ArrayList<>();
+        Sample gone = null;
+
+        synchronized (samples) {
+            for (Sample sample : samples) {
+                if (sample.resources.processes() == 0 && gone == null) gone = sample;
+                if (sample.seconds >= rampUp && sample.resources.processes() > 0) steady.add(sample);
+            }
+        }
+
+        report.section("soak");
+        report.line("pid: %d, %d samples every %d s, steady after %.0f s", pid, samples.size(), interval, rampUp);
+        if (gone != null) report.line("server gone after %.0f s", gone.seconds);
+
+        if (steady.size() < 3) {
+            report.line("too few samples after the ramp-up to fit trends, increase 'loadDuration'");
+            return;
+        }
+
+        Sample first = steady.get(0);
+        Sample last = steady.get(steady.size() - 1);
+        double span = last.seconds - first.seconds;
+
+        report.line("cpu: %.1f%% on average", (last.resources.cpu() - first.resources.cpu()) / (10 * span));
+
+        report.section("trends");
+        trend(report, "rss", "kB", steady, ProcessSample::rss);
+        trend(report, "threads", "", steady, ProcessSample::threads);
+        trend(report, "fds", "", steady, ProcessSample::fds);
+    }
+
+    /**
+     * Fit the trend of a resource and report it.
+     *
+     * @param report the report
+     * @param label the name of the resource
+     * @param unit the unit, may be empty
+     * @param steady the samples taken after the ramp-up
+     * @param value the value of the resource
+     */
+    private void trend(LoadReport report, String label, String unit, List<Sample> steady, ToLongFunction<ProcessSample> value) {
+        double[] x = new double[steady.size()];
+        double[] y = new double[steady.size()];
+        long peak = 0;
+
+        for (int i = 0; i < x.length; i++) {
+            x[i] = steady.get(i).seconds;
+            y[i] = value.applyAsLong(steady.get(i).resources);
+            peak = Math.max(peak, (long) y[i]);
+        }
+
+        Trend trend = Trend.of(x, y);
+        double from = trend.at(x[0]);
+        double growth = trend.at(x[x.length - 1]) - from;
+        boolean leak = growth > 0 && growth > TOLERANCE * Math.max(1, from) && trend.fit() >= MIN_FIT;
+        String suffix = unit.isEmpty() ? "" : " " + unit;
+
+        report.line("%s: %d%s -> %d%s (peak %d%s), %+.1f%s/h, fit %.2f%s", label, (long) y[0], suffix, (long) y[y.length - 1], suffix,
+                peak, suffix, trend.slope() * 3600, suffix, trend.fit(), leak ? ", POSSIBLE LEAK" : "");
+    }
+}
@@ -0,0 +1,237 @@
+package de.rubenmaurer.punk.load;
+
+import akka.pattern.AskTimeoutException;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
+import de.rubenmaurer.punk.core.akka.Listener;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.facade.Client.Utilities;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.Response;
+import de.rubenmaurer.punk.util.Histogram;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection storm: all clients connect at once and register with a pipelined NICK/USER.
+ * The connection handlers are spawned up front, then every client connects at once, nothing waits for another client.
+ * Several loopback source addresses can be used, each one has its own range of ephemeral ports.
+ * Reported are the connect time (connect command until the connection is established), the registration time
+ * (USER until RPL_WELCOME), the accepts and registrations per second and the failures of each step.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class StormScenario implements Scenario {
+
+    /**
+     * Amount of connection handlers requested at once.
+     */
+    private static final int SPAWN_BATCH = 256;
+
+    /**
+     * Amount of clients.
+     */
+    private final int clients = Settings.loadClients();
+
+    /**
+     * Amount of loopback source addresses.
+     */
+    private final int sources = Settings.loadSources();
+
+    /**
+     * Connect time of every connection in microseconds.
+     */
+    private final Histogram connect = new Histogram();
+
+    /**
+     * Time from USER to RPL_WELCOME of every client in microseconds.
+     */
+    private final Histogram registration = new Histogram();
+
+    /**
+     * Clients whose connection handler could not be spawned.
+     */
+    private final LongAdder spawnFailed = new LongAdder();
+
+    /**
+     * Connections refused by the server or the operating system.
+     */
+    private final LongAdder refused = new LongAdder();
+
+    /**
+     * Connections not established within the timeout.
+     */
+    private final LongAdder connectTimeouts = new LongAdder();
+
+    /**
+     * Registrations answered with an error.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Registrations not answered within the timeout.
+     */
+    private final LongAdder registrationTimeouts = new LongAdder();
+
+    /**
+     * Time the last connection was established, see {@link System#nanoTime()}.
+     */
+    private final AtomicLong lastConnected = new AtomicLong();
+
+    /**
+     * Time the last client was registered, see {@link System#nanoTime()}.
+     */
+    private final AtomicLong lastRegistered = new AtomicLong();
+
+    /**
+     * Remembers when RPL_WELCOME was received.
+     */
+    private static final class Welcome implements Listener {
+
+        /**
+         * Time RPL_WELCOME was received, 0 if it was not received yet.
+         */
+        volatile long time;
+
+        @Override
+        public void received(IrcMessage message, long time) {
+            if (this.time == 0 && message.numeric() == Response.WELCOME.value) this.time = time;
+        }
+    }
+
+    @Override
+    public void run(LoadReport report) {
+        List<InetSocketAddress> locals = new ArrayList<>();
+        for (int i = 1; sources > 1 && i <= sources; i++) locals.add(new InetSocketAddress(String.format("127.0.0.%d", i), 0));
+
+        List<Client> spawned = spawn();
+        long start = System.nanoTime();
+        CompletableFuture<?>[] storm = new CompletableFuture<?>[spawned.size()];
+
+        for (int i = 0; i < storm.length; i++) {
+            InetSocketAddress local = locals.isEmpty() ? null : locals.get(i % locals.size());
+            storm[i] = storm(spawned.get(i), local).toCompletableFuture();
+        }
+
+        CompletableFuture.allOf(storm).join();
+        report(report, start);
+    }
+
+    /**
+     * Spawn the connection handlers of all clients before the storm, so only connecting is measured.
+     * The handlers are requested in batches, a single burst of requests would let the last ones time out.
+     *
+     * @return the clients
+     */
+    private List<Client> spawn() {
+        List<Client> spawned = new ArrayList<>();
+
+        for (int batch = 0; batch < clients; batch += SPAWN_BATCH) {
+            List<CompletableFuture<Client>> requests = new ArrayList<>();
+            for (int i = batch; i < Math.min(clients, batch + SPAWN_BATCH); i++) requests.add(Client.createAsync(i).toCompletableFuture());
+
+            for (CompletableFuture<Client> request : requests) {
+                try {
+                    spawned.add(request.join());
+                } catch (CompletionException e) {
+                    spawnFailed.increment();
+                }
+            }
+        }
+
+        return spawned;
+    }
+
+    /**
+     * Connect and register a single client.
+     *
+     * @param client the client
+     * @param local the local address, null lets the operating system pick it
+     * @return completes once the client is registered or failed
+     */
+    private CompletionStage<Void> storm(Client client, InetSocketAddress local) {
+        Welcome welcome = new Welcome();
+        client.async().listen(welcome);
+
+        CompletionStage<Boolean> connecting = local == null ? client.async().connect() : client.async().connect(local);
+
+        return connecting.handle((connected, error) -> {
+            if (error != null) {
+                connectTimeouts.increment();
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+
+            if (!connected) {
+                refused.increment();
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+
+            lastConnected.accumulateAndGet(System.nanoTime(), Math::max);
+            connect.record(TimeUnit.NANOSECONDS.toMicros(client.async().state().connectTime()));
+
+            long sent = System.nanoTime();
+            return client.async().sendAndReceiveAll(Utilities.auth(client), Expectation.welcome())
+                    .<Void>handle((reply, failure) -> {
+                        registered(reply, failure, welcome.time - sent);
+                        return null;
+                    });
+        }).thenCompose(stage -> stage);
+    }
+
+    /**
+     * Record the outcome of a registration.
+     *
+     * @param reply the reply, null if the registration failed
+     * @param error the error, null if there is a reply
+     * @param nanos the time from USER to RPL_WELCOME, negative if it was not received
+     */
+    private void registered(List<IrcMessage> reply, Throwable error, long nanos) {
+        Throwable cause = Traffic.cause(error);
+
+        if (cause instanceof AskTimeoutException) {
+            registrationTimeouts.increment();
+        } else if (cause != null || SimulatedClient.failed(reply) || nanos < 0) {
+            rejected.increment();
+        } else {
+            lastRegistered.accumulateAndGet(System.nanoTime(), Math::max);
+            registration.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+    }
+
+    /**
+     * Fill the report.
+     *
+     * @param report the report
+     * @param start the time the storm started, see {@link System#nanoTime()}
+     */
+    private void report(LoadReport report, long start) {
+        long connected = connect.count();
+        long registered = registration.count();
+        double accepting = Math.max(0, lastConnected.get() - start) / 1e9;
+        double registering = Math.max(0, lastRegistered.get() - start) / 1e9;
+
+        report.section("connection storm");
+        report.line("clients: %d, source addresses: %s", clients, sources > 1 ? String.format("127.0.0.1 - 127.0.0.%d", sources) : "any");
+        report.line("connected: %d in %.2f s (%.0f accepts/s)", connected, accepting, accepting > 0 ? connected / accepting : 0);
+        report.line("registered: %d in %.2f s (%.0f registrations/s)", registered, registering, registering > 0 ? registered / registering : 0);
+
+        report.section("latency");
+        report.latency("connect", connect);
+        report.latency("registration", registration);
+
+        report.section("failures");
+        report.line("handler not spawned: %d", spawnFailed.sum());
+        report.line("connect refused: %d, timed out: %d", refused.sum(), connectTimeouts.sum());
+        report.line("registration rejected: %d, timed out: %d", rejected.sum(), registrationTimeouts.sum());
+    }
+}
@@ -0,0 +1,99 @@
+package de.rubenmaurer.punk.load;
+
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
+import de.rubenmaurer.punk.core.facade.Client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Helpers shared by the scenarios which keep clients talking: pacing, registration and the end of the traffic.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class Traffic {
+
+    /**
+     * Hidden constructor, the helpers are static.
+     */
+    private Traffic() {
+    }
+
+    /**
+     * Create clients at a fixed rate and send their first messages with a single write each.
+     * Clients are not waiting for each other, all answers are collected after the last client was created.
+     *
+     * @param from index of the first client
+     * @param to index after the last client
+     * @param rate clients created per second
+     * @param messages the first messages of a client, e.g. NICK and USER
+     * @param until the expectation completing the answer of a single client
+     * @return the clients whose answer was no error, in the order they were created
+     * @throws Exception if a client could not be created
+     */
+    static List<Client> register(int from, int to, int rate, Function<Client, List<String>> messages, Supplier<Expectation> until) throws Exception {
+        List<Client> created = new ArrayList<>();
+        List<CompletableFuture<Boolean>> answers = new ArrayList<>();
+        long period = TimeUnit.SECONDS.toNanos(1) / rate;
+
+        for (int i = from; i < to; i++) {
+            Client client = Client.create(i);
+
+            answers.add(client.async().sendAndReceiveAll(messages.apply(client), until.get())
+                    .handle((reply, error) -> error == null && !SimulatedClient.failed(reply)).toCompletableFuture());
+            created.add(client);
+
+            LockSupport.parkNanos(period);
+        }
+
+        List<Client> registered = new ArrayList<>();
+        for (int i = 0; i < created.size(); i++) {
+            if (answers.get(i).join()) registered.add(created.get(i));
+        }
+
+        return registered;
+    }
+
+    /**
+     * Get the pause before the next command of a client, between half and one and a half intervals,
+     * so the clients do not send in lockstep.
+     *
+     * @param interval the mean pause in milliseconds
+     * @return the pause in milliseconds
+     */
+    static long pause(int interval) {
+        return interval / 2 + ThreadLocalRandom.current().nextInt(Math.max(1, interval));
+    }
+
+    /**
+     * Wait for the answers to the last commands once no more commands are sent, at most for one timeout.
+     *
+     * @param pending the amount of commands waiting for an answer
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static void drain(AtomicInteger pending) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Settings.timeout() + 1);
+        while (pending.get() > 0 && System.nanoTime() < deadline) Thread.sleep(10);
+    }
+
+    /**
+     * Get the actual error of a failed stage.
+     *
+     * @param error the error passed to a completion callback, may be null
+     * @return the error without the {@link CompletionException} wrapping it, null if there is none
+     */
+    static Throwable cause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
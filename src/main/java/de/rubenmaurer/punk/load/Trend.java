@@ -0,0 +1,100 @@
+package de.rubenmaurer.punk.load;
+
+/**
+ * Linear trend of a series, fitted with least squares.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+final class Trend {
+
+    /**
+     * Change per unit of x.
+     */
+    private final double slope;
+
+    /**
+     * Value at x = 0.
+     */
+    private final double intercept;
+
+    /**
+     * Coefficient of determination, how much of the variance the line explains.
+     */
+    private final double fit;
+
+    /**
+     * Create a new trend.
+     *
+     * @param slope change per unit of x
+     * @param intercept value at x = 0
+     * @param fit coefficient of determination
+     */
+    private Trend(double slope, double intercept, double fit) {
+        this.slope = slope;
+        this.intercept = intercept;
+        this.fit = fit;
+    }
+
+    /**
+     * Fit a line through points.
+     * A constant series has a slope of 0 and a fit of 0, it shows no trend at all.
+     *
+     * @param x the x values
+     * @param y the y values, as many as x values
+     * @return the trend, flat if there are less than two points
+     */
+    static Trend of(double[] x, double[] y) {
+        int n = Math.min(x.length, y.length);
+        if (n < 2) return new Trend(0, n == 1 ? y[0] : 0, 0);
+
+        double mx = 0, my = 0;
+        for (int i = 0; i < n; i++) {
+            mx += x[i] / n;
+            my += y[i] / n;
+        }
+
+        double sxx = 0, sxy = 0, syy = 0;
+        for (int i = 0; i < n; i++) {
+            sxx += (x[i] - mx) * (x[i] - mx);
+            sxy += (x[i] - mx) * (y[i] - my);
+            syy += (y[i] - my) * (y[i] - my);
+        }
+
+        if (sxx == 0) return new Trend(0, my, 0);
+
+        double slope = sxy / sxx;
+        double fit = syy == 0 ? 0 : (sxy * sxy) / (sxx * syy);
+
+        return new Trend(slope, my - slope * mx, fit);
+    }
+
+    /**
+     * Get the change per unit of x.
+     *
+     * @return the slope
+     */
+    double slope() {
+        return slope;
+    }
+
+    /**
+     * Get the coefficient of determination, from 0 (no linear relation) to 1 (all points on the line).
+     *
+     * @return the fit
+     */
+    double fit() {
+        return fit;
+    }
+
+    /**
+     * Get the value of the line at a point.
+     *
+     * @param x the x value
+     * @return the y value
+     */
+    double at(double x) {
+        return intercept + slope * x;
+    }
+}
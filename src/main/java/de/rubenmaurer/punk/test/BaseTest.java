@@ -3,7 +3,6 @@ package de.rubenmaurer.punk.test;
 import de.rubenmaurer.punk.core.facade.Session;
 import de.rubenmaurer.punk.core.junit.PricefieldExtension;
 import de.rubenmaurer.punk.Settings;
-import de.rubenmaurer.punk.evaluation.antlr.Parser;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 
@@ -20,14 +19,12 @@ public abstract class BaseTest {
     }
 
     @AfterAll
-    static void afterAll() {
-        assumeTrue(Session.terminate());
+    static void afterAll(TestInfo testInfo) {
+        assumeTrue(Session.terminate(testInfo.getDisplayName()));
     }
 
     @BeforeEach
     void before(TestInfo testInfo) {
-        Parser.reset();
-
         assumeTrue(Session.startServer(testInfo.getDisplayName()));
     }
 
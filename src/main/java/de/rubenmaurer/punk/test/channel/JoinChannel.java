@@ -19,7 +19,7 @@ public class JoinChannel extends BaseTest {
         String channel = "Arcadia-Dinner";
         if (Session.serverIsAlive()) {
             c.authenticate();
-            c.sendAndReceive(Utilities.joinChannel(channel), 3);
+            c.join(channel);
         }
 
         Evaluation.join(c, channel, c.nickname());
@@ -33,7 +33,7 @@ public class JoinChannel extends BaseTest {
         if (Session.serverIsAlive()) {
             c.authenticate();
 
-            c.sendAndReceive(Utilities.joinChannel(channel), 3);
+            c.join(channel);
             Evaluation.join(c, channel, c.nickname());
 
             c.sendAndReceive(Utilities.joinChannel(channel), 3, false);
@@ -74,11 +74,11 @@ public class JoinChannel extends BaseTest {
         String channel = "Dinner";
         if (Session.serverIsAlive()) {
             c1.authenticate();
-            c1.sendAndReceive(Utilities.joinChannel(channel));
+            c1.join(channel);
             Evaluation.join(c1, channel, c1.nickname());
 
             c2.authenticate();
-            c2.sendAndReceive(Utilities.joinChannel(channel));
+            c2.join(channel);
             Evaluation.join(c2, channel, c1.nickname(), c2.nickname()); //TODO: add expected lines
         }
 
@@ -94,15 +94,15 @@ public class JoinChannel extends BaseTest {
         String channel = "Dinner";
         if (Session.serverIsAlive()) {
             c1.authenticate();
-            c1.sendAndReceive(Utilities.joinChannel(channel));
+            c1.join(channel);
             Evaluation.join(c1, channel, c1.nickname());
 
             c2.authenticate();
-            c2.sendAndReceive(Utilities.joinChannel(channel));
+            c2.join(channel);
             Evaluation.join(c2, channel, c1.nickname(), c2.nickname());
 
             c3.authenticate();
-            c3.sendAndReceive(Utilities.joinChannel(channel));
+            c3.join(channel);
             Evaluation.join(c3, channel, c1.nickname(), c2.nickname(), c3.nickname());
         }
 
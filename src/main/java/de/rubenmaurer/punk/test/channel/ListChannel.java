@@ -23,7 +23,7 @@ public class ListChannel extends BaseTest {
             c2.authenticateAndJoin(channel);
             c3.authenticateAndJoin(channel);
 
-            c1.sendAndReceive(Utilities.list(channel), 2);
+            c1.list(channel);
         }
 
         Evaluation.list(c1, channel, "", 3);
@@ -43,8 +43,8 @@ public class ListChannel extends BaseTest {
             c3.authenticateAndJoin("Hell");
 
             c1.sendAndReceive(Utilities.setTopic(channel, topic));
-            c1.sendAndReceive(Utilities.list(channel), 2);
-            c3.sendAndReceive(Utilities.list("Hell"), 2);
+            c1.list(channel);
+            c3.list("Hell");
         }
 
         Evaluation.list(c1, channel, topic, 2);
@@ -59,11 +59,9 @@ public class ListChannel extends BaseTest {
 
         String channel = "Adults";
         if (Session.serverIsAlive()) {
-            c1.authenticate();
-            c2.authenticate();
-            c3.authenticate();
+            Client.authenticateAll(c1, c2, c3);
 
-            c1.sendAndReceive(Utilities.list(channel), 1);
+            c1.list(channel);
         }
 
         Evaluation.list(c1, channel, "", 1);
@@ -84,7 +82,7 @@ public class ListChannel extends BaseTest {
             c2.authenticate();
             c1.authenticate();
 
-            c1.sendAndReceive(Utilities.list(channel), 2);
+            c1.list(channel);
         }
 
         Evaluation.list(c1, channel, topic, 1);
@@ -1,5 +1,6 @@
 package de.rubenmaurer.punk.test.channel;
 
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Session;
 import de.rubenmaurer.punk.core.facade.Client.Utilities;
@@ -108,7 +109,7 @@ public class PartChannel extends BaseTest {
         String channel = "Blackwell";
         if (Session.serverIsAlive()) {
             c.authenticateAndJoin(channel);
-            c.send(String.format("PART #%s", channel));
+            c.sendAndReceive(String.format("PART #%s", channel), Expectation.command("PART").or(Expectation.error()));
             c.sendAndReceive(String.format("PART #%s", channel), 1);
         }
 
@@ -1,5 +1,6 @@
 package de.rubenmaurer.punk.test.channel;
 
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Client.Utilities;
 import de.rubenmaurer.punk.evaluation.Evaluation;
@@ -60,7 +61,7 @@ public class PrivateMessageChannel extends BaseTest {
         String channel = "Lighthouse";
         c1.authenticate();
 
-        c1.send(Utilities.privateMessage(channel, "I love you"));
+        c1.sendAndReceive(Utilities.privateMessage(channel, "I love you"), Expectation.error());
         Evaluation.noSuchChannel(c1, channel);
     }
 
@@ -71,7 +72,7 @@ public class PrivateMessageChannel extends BaseTest {
         String channel = "Lighthouse";
         c.authenticate();
 
-        c.send(Utilities.notice(channel, "I love you"));
+        c.sendAndReceive(Utilities.notice(channel, "I love you"), Expectation.silence(), false);
         Evaluation.empty(c);
     }
 
@@ -84,7 +85,7 @@ public class PrivateMessageChannel extends BaseTest {
         c1.authenticateAndJoin(channel);
         c2.authenticate();
 
-        c2.send(Utilities.privateMessage(channel, "I love you"));
+        c2.sendAndReceive(Utilities.privateMessage(channel, "I love you"), Expectation.error());
         Evaluation.cannotSendToChannel(c2, channel);
     }
 }
@@ -1,5 +1,6 @@
 package de.rubenmaurer.punk.test.channel;
 
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Session;
 import de.rubenmaurer.punk.core.facade.Client.Utilities;
@@ -36,7 +37,7 @@ public class TopicChannel extends BaseTest {
         if (Session.serverIsAlive()) {
             c.authenticateAndJoin(channel);
 
-            c.send(Utilities.setTopic(channel, topic));
+            c.sendAndReceive(Utilities.setTopic(channel, topic), Expectation.command("TOPIC").or(Expectation.error()));
             c.sendAndReceive(Utilities.getTopic(channel), 2);
         }
 
@@ -32,13 +32,13 @@ public class WhoChannel extends BaseTest {
             c5.authenticateAndJoin(channels[2]);
             c6.authenticateAndJoin(channels[2]);
 
-            c1.sendAndReceive(String.format("WHO #%s", channels[0]));
+            c1.who(channels[0]);
             Evaluation.who(c1, channels[0], 0, c1, c2);
 
-            c1.sendAndReceive(String.format("WHO #%s", channels[1]));
+            c1.who(channels[1]);
             Evaluation.who(c1, channels[1], 2, c3, c4);
 
-            c1.sendAndReceive(String.format("WHO #%s", channels[2]));
+            c1.who(channels[2]);
             Evaluation.who(c1, channels[2], 4, c5, c6);
         }
     }
@@ -65,7 +65,7 @@ public class WhoChannel extends BaseTest {
             c5.authenticateAndJoin(channels[2]);
             c6.authenticateAndJoin(channels[2]);
 
-            c1.sendAndReceive("WHO *");
+            c1.who("*");
         }
 
         Evaluation.who(c1, "*", 0, c3, c4, c5, c6);
@@ -93,7 +93,7 @@ public class WhoChannel extends BaseTest {
             c5.authenticate();
             c6.authenticate();
 
-            c1.sendAndReceive("WHO *");
+            c1.who("*");
         }
 
         Evaluation.who(c1, "*", 0, c3, c4);
@@ -121,10 +121,10 @@ public class WhoChannel extends BaseTest {
             c5.authenticate();
             c6.authenticate();
 
-            c1.sendAndReceive(String.format("WHO #%s", channels[0]));
+            c1.who(channels[0]);
             Evaluation.who(c1, channels[0], 0, c1, c2);
 
-            c1.sendAndReceive(String.format("WHO #%s", channels[1]));
+            c1.who(channels[1]);
             Evaluation.who(c1, channels[1], 2, c3, c4);
         }
     }
@@ -4,7 +4,7 @@ import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Client.Preset;
 import de.rubenmaurer.punk.core.facade.Session;
 import de.rubenmaurer.punk.core.facade.Client.Utilities;
-import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.evaluation.Evaluation;
 import de.rubenmaurer.punk.test.BaseTest;
 import org.junit.jupiter.api.Test;
@@ -17,7 +17,7 @@ public class BasicConnection extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c.send(Utilities.nick(c));
-            c.sendAndReceive(Utilities.user(c), Settings.authLines());
+            c.sendAndReceive(Utilities.user(c), Expectation.welcome());
         }
 
         Evaluation.welcome(c);
@@ -29,7 +29,7 @@ public class BasicConnection extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c.send(Utilities.user(c));
-            c.sendAndReceive(Utilities.nick(c), Settings.authLines());
+            c.sendAndReceive(Utilities.nick(c), Expectation.welcome());
         }
 
         Evaluation.welcome(c);
@@ -89,7 +89,7 @@ public class BasicConnection extends BaseTest {
             c.send(Utilities.nick(c));
             m.send(Utilities.nick(m));
             s.send(Utilities.nick(s));
-            s.send(Utilities.user(s));
+            s.sendAndReceive(Utilities.user(s), Expectation.welcome());
         }
 
         Evaluation.welcome(s, 1, 2);
@@ -105,7 +105,7 @@ public class BasicConnection extends BaseTest {
             c.send(Utilities.user(c));
             m.send(Utilities.user(m));
             s.send(Utilities.user(s));
-            s.send(Utilities.nick(s));
+            s.sendAndReceive(Utilities.nick(s), Expectation.welcome());
         }
 
         Evaluation.welcome(s, 1, 2);
@@ -116,7 +116,7 @@ public class BasicConnection extends BaseTest {
         Client c = Client.create(Preset.CHLOE);
 
         if (Session.serverIsAlive()) {
-            c.sendAndReceive(Utilities.nick(c), 0);
+            c.sendAndReceive(Utilities.nick(c), Expectation.silence(), false);
 
             Evaluation.empty(c);
         }
@@ -127,7 +127,7 @@ public class BasicConnection extends BaseTest {
         Client c = Client.create(Preset.CHLOE);
 
         if (Session.serverIsAlive()) {
-            c.sendAndReceive(Utilities.user(c), 0);
+            c.sendAndReceive(Utilities.user(c), Expectation.silence(), false);
 
             Evaluation.empty(c);
         }
@@ -139,7 +139,7 @@ public class BasicConnection extends BaseTest {
 
         if (Session.serverIsAlive()) {
             String dmgAuth = Utilities.auth(c).get(0);
-            c.sendAndReceive(dmgAuth.substring(0, dmgAuth.length() - 4), 0);
+            c.sendAndReceive(dmgAuth.substring(0, dmgAuth.length() - 4), Expectation.silence(), false);
 
             Evaluation.empty(c);
         }
@@ -151,8 +151,8 @@ public class BasicConnection extends BaseTest {
         Client c2 = Client.create(Preset.CHLOE);
 
         if (Session.serverIsAlive()) {
-            c1.sendAndReceive(Utilities.nick(c1), 0);
-            c2.sendAndReceive(Utilities.nick(c2), 0);
+            c1.sendAndReceive(Utilities.nick(c1), Expectation.silence(), false);
+            c2.sendAndReceive(Utilities.nick(c2), Expectation.silence(), false);
 
             Evaluation.empty(c1);
             Evaluation.empty(c2);
@@ -165,8 +165,8 @@ public class BasicConnection extends BaseTest {
         Client c2 = Client.create(Preset.CHLOE);
 
         if (Session.serverIsAlive()) {
-            c1.sendAndReceive(Utilities.user(c1), 0);
-            c2.sendAndReceive(Utilities.user(c2), 0);
+            c1.sendAndReceive(Utilities.user(c1), Expectation.silence(), false);
+            c2.sendAndReceive(Utilities.user(c2), Expectation.silence(), false);
 
             Evaluation.empty(c1);
             Evaluation.empty(c2);
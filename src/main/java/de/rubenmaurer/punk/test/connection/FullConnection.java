@@ -4,7 +4,7 @@ import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Client.Preset;
 import de.rubenmaurer.punk.core.facade.Session;
 import de.rubenmaurer.punk.core.facade.Client.Utilities;
-import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.evaluation.Evaluation;
 import de.rubenmaurer.punk.test.BaseTest;
 import org.junit.jupiter.api.Test;
@@ -28,7 +28,7 @@ public class FullConnection extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c.sendAndReceive(Utilities.user(c), 0);
-            c.sendAndReceive(Utilities.nick(c), Settings.authLines());
+            c.sendAndReceive(Utilities.nick(c), Expectation.welcome());
         }
 
         Evaluation.welcome(c);
@@ -39,7 +39,7 @@ public class FullConnection extends BaseTest {
         Client c = Client.create(Preset.CHLOE);
 
         if (Session.serverIsAlive()) {
-            c.sendAndReceiveAll(Utilities.auth(c), Settings.authLines());
+            c.sendAndReceiveAll(Utilities.auth(c), Expectation.welcome());
         }
 
         Evaluation.welcome(c);
@@ -4,7 +4,7 @@ import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Client.Preset;
 import de.rubenmaurer.punk.core.facade.Session;
 import de.rubenmaurer.punk.core.facade.Client.Utilities;
-import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.evaluation.Evaluation;
 import de.rubenmaurer.punk.test.BaseTest;
 import org.junit.jupiter.api.Test;
@@ -19,7 +19,7 @@ public class QuitConnection extends BaseTest {
 
         String msg = "Goodbye!";
         if (Session.serverIsAlive()) {
-            c.sendAndReceiveAll(Utilities.auth(c), Settings.authLines());
+            c.sendAndReceiveAll(Utilities.auth(c), Expectation.welcome());
             c.sendAndReceive(Utilities.quit(msg), 1);
         }
 
@@ -32,7 +32,7 @@ public class QuitConnection extends BaseTest {
 
         String msg = "Goodbye!";
         if (Session.serverIsAlive()) {
-            c.sendAndReceiveAll(Utilities.auth(c), Settings.authLines());
+            c.sendAndReceiveAll(Utilities.auth(c), Expectation.welcome());
             c.sendAndReceive(Utilities.quit(msg), 1);
         }
 
@@ -45,7 +45,7 @@ public class QuitConnection extends BaseTest {
         Client c = Client.create(Preset.SCHROTTY);
 
         if (Session.serverIsAlive()) {
-            c.sendAndReceiveAll(Utilities.auth(c), Settings.authLines());
+            c.sendAndReceiveAll(Utilities.auth(c), Expectation.welcome());
             c.sendAndReceive("QUIT", 1);
         }
 
@@ -59,8 +59,8 @@ public class QuitConnection extends BaseTest {
         Client c2 = Client.create(Preset.CHLOE);
 
         if (Session.serverIsAlive()) {
-            c1.sendAndReceiveAll(Utilities.auth(c1), Settings.authLines());
-            c2.sendAndReceiveAll(Utilities.auth(c2), Settings.authLines());
+            c1.sendAndReceiveAll(Utilities.auth(c1), Expectation.welcome());
+            c2.sendAndReceiveAll(Utilities.auth(c2), Expectation.welcome());
 
             c1.sendAndReceive(Utilities.quit("Goodbye!"), 1);
             c2.sendAndReceive(Utilities.quit("See ya!"), 1);
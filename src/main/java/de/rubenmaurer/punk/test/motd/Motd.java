@@ -4,7 +4,7 @@ import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Client.Preset;
 import de.rubenmaurer.punk.core.facade.Session;
 import de.rubenmaurer.punk.core.facade.Client.Utilities;
-import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.evaluation.Evaluation;
 import de.rubenmaurer.punk.test.BaseTest;
 import org.junit.jupiter.api.Test;
@@ -31,7 +31,7 @@ public class Motd extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c.sendAndReceive(Utilities.user(c), 0);
-            c.sendAndReceive(Utilities.nick(c), Settings.authLines());
+            c.sendAndReceive(Utilities.nick(c), Expectation.welcome());
         }
 
         Evaluation.luser(c);
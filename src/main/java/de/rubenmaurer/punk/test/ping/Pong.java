@@ -1,5 +1,6 @@
 package de.rubenmaurer.punk.test.ping;
 
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Client.Preset;
 import de.rubenmaurer.punk.evaluation.Evaluation;
@@ -13,7 +14,7 @@ public class Pong extends BaseTest {
         Client c = Client.create(Preset.CHLOE);
 
         c.authenticate();
-        c.sendAndReceive("PONG", 0);
+        c.sendAndReceive("PONG", Expectation.silence(), false);
 
         Evaluation.empty(c);
     }
@@ -1,5 +1,6 @@
 package de.rubenmaurer.punk.test.privmsg;
 
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Client.Preset;
 import de.rubenmaurer.punk.core.facade.Session;
@@ -33,10 +34,7 @@ public class NoticePrivmsg extends BaseTest {
         Client c4 = Client.create(Preset.SCHROTTY);
 
         if (Session.serverIsAlive()) {
-            c1.authenticate();
-            c2.authenticate();
-            c3.authenticate();
-            c4.authenticate();
+            Client.authenticateAll(c1, c2, c3, c4);
 
             c1.send(Utilities.privateMessage(c2, "Hello 1"));
             c2.send(Utilities.privateMessage(c3, "Hello 2"));
@@ -55,7 +53,7 @@ public class NoticePrivmsg extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c1.authenticate();
-            c1.send(Utilities.privateMessage(c2, "Hello"));
+            c1.sendAndReceive(Utilities.privateMessage(c2, "Hello"), Expectation.error());
         }
 
         Evaluation.noSuchNick(c1, c2.nickname());
@@ -68,7 +66,7 @@ public class NoticePrivmsg extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c1.authenticate();
-            c2.sendAndReceiveAll(Utilities.auth(c2), 4);
+            c2.authenticate();
 
             c1.send(Utilities.notice(c2, "Hello"));
         }
@@ -84,7 +82,7 @@ public class NoticePrivmsg extends BaseTest {
         if (Session.serverIsAlive()) {
             c1.authenticate();
 
-            c1.send(Utilities.notice(c2, "Hello"));
+            c1.sendAndReceive(Utilities.notice(c2, "Hello"), Expectation.silence(), false);
         }
 
         Evaluation.empty(c1);
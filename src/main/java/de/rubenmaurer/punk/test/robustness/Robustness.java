@@ -4,7 +4,7 @@ import de.rubenmaurer.punk.core.facade.Client;
 import de.rubenmaurer.punk.core.facade.Client.Preset;
 import de.rubenmaurer.punk.core.facade.Client.Utilities;
 import de.rubenmaurer.punk.core.facade.Session;
-import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.akka.Expectation;
 import de.rubenmaurer.punk.evaluation.Evaluation;
 import de.rubenmaurer.punk.test.BaseTest;
 import org.junit.jupiter.api.Test;
@@ -25,7 +25,7 @@ public class Robustness extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c.send(String.format(" %s ", Utilities.user(c)));
-            c.sendAndReceive(String.format(" %s ", Utilities.nick(c)), Settings.authLines());
+            c.sendAndReceive(String.format(" %s ", Utilities.nick(c)), Expectation.welcome());
         }
 
         Evaluation.welcome(c);
@@ -37,7 +37,7 @@ public class Robustness extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c.send(String.format("NICK   %s", c.nickname()));
-            c.sendAndReceive(String.format("USER  %s * *   :%s", c.username(), c.fullname()), Settings.authLines());
+            c.sendAndReceive(String.format("USER  %s * *   :%s", c.username(), c.fullname()), Expectation.welcome());
         }
 
         Evaluation.welcome(c);
@@ -49,7 +49,7 @@ public class Robustness extends BaseTest {
 
         if (Session.serverIsAlive()) {
             c.send(String.format("  NICK   %s  ", c.nickname()));
-            c.sendAndReceive(String.format("  USER  %s * *   :%s  ", c.username(), c.fullname()), Settings.authLines());
+            c.sendAndReceive(String.format("  USER  %s * *   :%s  ", c.username(), c.fullname()), Expectation.welcome());
         }
 
         Evaluation.welcome(c);
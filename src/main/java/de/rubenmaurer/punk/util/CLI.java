@@ -90,6 +90,11 @@ public class CLI {
                 Settings.storeTests(storeTests(argument[1]));
             }
 
+            // Run tests on parallel workers
+            if (command.equals("--workers") || command.equals("-w")) {
+                Settings.storeOverride("workers", argument[1]);
+            }
+
             // Logging
             if (command.equals("--log") || command.equals("-l")) {
                 Settings.storeOverride("log", "true");
@@ -110,6 +115,25 @@ public class CLI {
                 Settings.storeOverride("debug", "true");
             }
 
+            // Compare the fast path of the parser with ANTLR
+            if (command.equals("--checkFastPath")) {
+                Settings.storeOverride("fastPathCheck", "true");
+            }
+
+            // Run a load scenario instead of the tests
+            if (command.equals("--load")) {
+                Settings.storeOverride("load", argument.length > 1 ? argument[1] : "mix");
+            }
+
+            // Load scenario settings
+            if (command.equals("--loadClients") || command.equals("--loadRate") || command.equals("--loadDuration") ||
+                command.equals("--loadInterval") || command.equals("--loadChannels") || command.equals("--loadMix") ||
+                command.equals("--loadMembers") || command.equals("--loadSenders") || command.equals("--loadMessages") ||
+                command.equals("--loadSources") || command.equals("--loadSample") ||
+                command.equals("--loadSlow") || command.equals("--loadChurn")) {
+                Settings.storeOverride(command.substring(2), argument[1]);
+            }
+
             // Enable developer mode
             if (command.equals("--dev")) {
                 Settings.storeOverride("dev", "true");
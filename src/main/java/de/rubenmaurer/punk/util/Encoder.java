@@ -0,0 +1,243 @@
+package de.rubenmaurer.punk.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Precompiled request template.
+ * The templates inside requests.stg are compiled once into a list of literals and parameters,
+ * rendering one only appends them, without a string template instance.
+ * The output is identical to {@link Template#render()} for the same values. Templates using other features than
+ * plain attributes are not compiled, those are rendered by {@link Template} as before.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Encoder {
+
+    /**
+     * Location of the request templates.
+     */
+    private static final String REQUESTS = "definitions/requests.stg";
+
+    /**
+     * Definition of a template: name, parameters and the quoted body.
+     */
+    private static final Pattern DEFINITION = Pattern.compile("^\\s*(\\w+)\\s*\\(([^)]*)\\)\\s*::=\\s*\"(.*)\"\\s*$");
+
+    /**
+     * Line separator used by the string template writer.
+     */
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    /**
+     * The compiled templates.
+     */
+    private static final Map<String, Encoder> encoders = compile();
+
+    /**
+     * Name of the template.
+     */
+    private final String name;
+
+    /**
+     * Names of the parameters, in the declared order.
+     */
+    private final String[] parameters;
+
+    /**
+     * Literals, or null if the template could not be compiled.
+     * The template is literals[0] + value + literals[1] + value ... + literals[n].
+     */
+    private final String[] literals;
+
+    /**
+     * Index of the value between two literals.
+     */
+    private final int[] slots;
+
+    /**
+     * Combined length of all literals.
+     */
+    private final int length;
+
+    /**
+     * Create a new encoder.
+     *
+     * @param name the name
+     * @param parameters the parameter names
+     * @param literals the literals, null if not compiled
+     * @param slots the value indices
+     */
+    private Encoder(String name, String[] parameters, String[] literals, int[] slots) {
+        this.name = name;
+        this.parameters = parameters;
+        this.literals = literals;
+        this.slots = slots;
+
+        int sum = 0;
+        if (literals != null) for (String literal : literals) sum += literal.length();
+        this.length = sum;
+    }
+
+    /**
+     * Get the encoder of a request template.
+     *
+     * @param name the name of the template
+     * @return the encoder
+     * @throws IllegalArgumentException if there is no such template
+     */
+    public static Encoder get(String name) {
+        Encoder encoder = encoders.get(name);
+        if (encoder == null) throw new IllegalArgumentException(name);
+
+        return encoder;
+    }
+
+    /**
+     * Get the names of all request templates.
+     *
+     * @return the names
+     */
+    public static Set<String> names() {
+        return encoders.keySet();
+    }
+
+    /**
+     * Get the parameter names.
+     *
+     * @return the names, in the declared order
+     */
+    public List<String> parameters() {
+        return Collections.unmodifiableList(Arrays.asList(parameters));
+    }
+
+    /**
+     * Was the template compiled?
+     *
+     * @return compiled? false if it is rendered by {@link Template}
+     */
+    public boolean compiled() {
+        return literals != null;
+    }
+
+    /**
+     * Render the template.
+     * Missing and null values are rendered empty.
+     *
+     * @param values the values, in the order of the parameters
+     * @return the rendered template
+     */
+    public String render(String... values) {
+        if (literals == null) {
+            Template template = Template.get(name);
+            for (int i = 0; i < values.length && i < parameters.length; i++) template.single(parameters[i], values[i]);
+
+            return template.render();
+        }
+
+        StringBuilder sb = new StringBuilder(length + 32);
+        sb.append(literals[0]);
+
+        for (int i = 0; i < slots.length; i++) {
+            String value = slots[i] < values.length ? values[slots[i]] : null;
+            if (value != null) append(sb, value);
+
+            sb.append(literals[i + 1]);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Append a value the way the string template writer does:
+     * carriage returns are dropped and line feeds are replaced by the line separator.
+     *
+     * @param sb the builder
+     * @param value the value
+     */
+    private static void append(StringBuilder sb, String value) {
+        if (value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+            sb.append(value);
+            return;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '\n') sb.append(NEWLINE);
+            else if (c != '\r') sb.append(c);
+        }
+    }
+
+    /**
+     * Compile all request templates.
+     *
+     * @return the encoders by name
+     */
+    private static Map<String, Encoder> compile() {
+        Map<String, Encoder> result = new HashMap<>();
+
+        try (InputStream stream = Encoder.class.getClassLoader().getResourceAsStream(Template.resource(REQUESTS))) {
+            if (stream == null) return result;
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                Matcher m = DEFINITION.matcher(line);
+                if (!m.matches()) continue;
+
+                String[] parameters = m.group(2).trim().isEmpty() ? new String[0] : m.group(2).trim().split("\\s*,\\s*");
+                result.put(m.group(1), compile(m.group(1), parameters, m.group(3)));
+            }
+        } catch (IOException e) {
+            Terminal.debugErro(e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Compile a single template.
+     * Only literals and plain attributes are supported, no escapes, expressions or comments.
+     *
+     * @param name the name
+     * @param parameters the parameter names
+     * @param body the body, without quotes
+     * @return the encoder, not compiled if the body uses anything else
+     */
+    private static Encoder compile(String name, String[] parameters, String body) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<String> names = Arrays.asList(parameters);
+        StringBuilder literal = new StringBuilder();
+
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+
+            if (c == '<') {
+                int end = body.indexOf('>', i);
+                int slot = end < 0 ? -1 : names.indexOf(body.substring(i + 1, end));
+                if (slot < 0) return new Encoder(name, parameters, null, null);
+
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(slot);
+                i = end;
+            } else if (c == '\\' || c == '"' || c == '>') {
+                return new Encoder(name, parameters, null, null);
+            } else {
+                literal.append(c);
+            }
+        }
+
+        literals.add(literal.toString());
+        return new Encoder(name, parameters, literals.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
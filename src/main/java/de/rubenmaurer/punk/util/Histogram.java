@@ -0,0 +1,181 @@
+package de.rubenmaurer.punk.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values with a bounded relative error, in the style of an HDR histogram.
+ * Values below 256 are counted exactly, larger ones in buckets of 128 linear sub-buckets per power of two,
+ * so a reported percentile is at most 0.8% above the recorded value.
+ * Recording is lock-free and may happen from any thread.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Histogram {
+
+    /**
+     * Bits of the exactly counted range.
+     */
+    private static final int BITS = 8;
+
+    /**
+     * Amount of exactly counted values.
+     */
+    private static final int EXACT = 1 << BITS;
+
+    /**
+     * Amount of sub-buckets per power of two above the exact range.
+     */
+    private static final int HALF = EXACT >> 1;
+
+    /**
+     * Amount of buckets, enough for every positive long.
+     */
+    private static final int BUCKETS = EXACT + (63 - BITS + 1) * HALF;
+
+    /**
+     * The count of every bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Amount of recorded values.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Sum of all recorded values.
+     */
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * Smallest recorded value.
+     */
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * Largest recorded value.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param value the value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+
+        counts.incrementAndGet(index(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        min.accumulateAndGet(v, Math::min);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Add all values recorded by another histogram.
+     *
+     * @param other the other histogram
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+
+        count.addAndGet(other.count());
+        sum.addAndGet(other.sum.get());
+        min.accumulateAndGet(other.min.get(), Math::min);
+        max.accumulateAndGet(other.max(), Math::max);
+    }
+
+    /**
+     * Get the amount of recorded values.
+     *
+     * @return the amount
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Get the smallest recorded value.
+     *
+     * @return the value, 0 if nothing was recorded
+     */
+    public long min() {
+        return count() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * Get the largest recorded value.
+     *
+     * @return the value, 0 if nothing was recorded
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Get the mean of all recorded values.
+     *
+     * @return the mean, 0 if nothing was recorded
+     */
+    public double mean() {
+        long c = count();
+        return c == 0 ? 0 : (double) sum.get() / c;
+    }
+
+    /**
+     * Get the value at a percentile.
+     * The result is the highest value of the bucket holding the percentile, but never above the max.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the value, 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long c = count();
+        if (c == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * c));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highest(i), max());
+        }
+
+        return max();
+    }
+
+    /**
+     * Get the bucket of a value.
+     *
+     * @param value the value
+     * @return the index of the bucket
+     */
+    static int index(long value) {
+        if (value < EXACT) return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (BITS - 1);
+        return EXACT + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    /**
+     * Get the highest value counted by a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the value
+     */
+    static long highest(int index) {
+        if (index < EXACT) return index;
+
+        int shift = (index - EXACT) / HALF + 1;
+        long sub = (index - EXACT) % HALF + HALF;
+
+        return ((sub + 1) << shift) - 1;
+    }
+}
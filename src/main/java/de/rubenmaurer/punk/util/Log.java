@@ -0,0 +1,372 @@
+package de.rubenmaurer.punk.util;
+
+import de.rubenmaurer.punk.Settings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous log for debug and error output.
+ * Callers only check the level and enqueue the raw event into a lock-free {@link MpscQueue},
+ * a single background thread renders the events and writes them in batches.
+ * Until {@link #open(File)} is called the events are written to System.err.
+ * If the queue is full, events are dropped and counted instead of blocking the caller,
+ * except for errors: those are written by the caller itself, so they are never lost.
+ *
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Log {
+
+    /**
+     * Log levels, each level includes the ones before it.
+     *
+     * @author Ruben Maurer
+     * @version 1.0
+     * @since 1.0
+     */
+    public enum Level {
+        OFF, ERROR, DEBUG
+    }
+
+    /**
+     * Max. amount of events written in one batch.
+     */
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Time the writer sleeps if there is nothing to write, in milliseconds.
+     */
+    private static final long IDLE_WAIT = 10;
+
+    /**
+     * Format of the date of dated events.
+     */
+    private static final String DATE_FORMAT = "yyyy-MM-dd hh:mm:ss";
+
+    /**
+     * Level used if the configured one is invalid.
+     */
+    private static final Level DEFAULT_LEVEL = Level.DEBUG;
+
+    /**
+     * The current level.
+     */
+    private static volatile Level level = parse(Settings.logLevel());
+
+    /**
+     * The pending events.
+     */
+    private static final MpscQueue<Event> queue = new MpscQueue<>(Settings.logQueue());
+
+    /**
+     * Amount of events written so far.
+     */
+    private static volatile long written;
+
+    /**
+     * Amount of dropped events.
+     */
+    private static final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Amount of dropped events already reported in the log.
+     */
+    private static long reported;
+
+    /**
+     * The log file, null if the events are written to System.err.
+     */
+    private static volatile FileChannel file;
+
+    /**
+     * Is the writer waiting for new events?
+     */
+    private static volatile boolean idle;
+
+    /**
+     * The writer thread.
+     */
+    private static final Thread writer = new Thread(Log::drain, "pricefield-log");
+
+    static {
+        writer.setDaemon(true);
+        writer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush));
+    }
+
+    /**
+     * Hidden constructor, the log is static.
+     */
+    private Log() {
+    }
+
+    /**
+     * Parse the name of a level, ignoring its case.
+     * An invalid name is reported once and the default level is used instead.
+     *
+     * @param name the name, e.g. 'debug'
+     * @return the level
+     */
+    static Level parse(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            Terminal.printError(Template.get("INVALID_LOG_LEVEL").single("level", name).single("fallback", DEFAULT_LEVEL).render());
+            return DEFAULT_LEVEL;
+        }
+    }
+
+    /**
+     * Is a level enabled?
+     * Check this before building an expensive message.
+     *
+     * @param check the level to check
+     * @return is enabled?
+     */
+    public static boolean enabled(Level check) {
+        return check != Level.OFF && check.ordinal() <= level.ordinal();
+    }
+
+    /**
+     * Set the current level.
+     *
+     * @param level the level
+     */
+    public static void level(Level level) {
+        Log.level = level;
+    }
+
+    /**
+     * Log a dated debug event, rendered with the 'DEBUG' template.
+     *
+     * @param level the level
+     * @param type the type, e.g. RECV
+     * @param message the message
+     */
+    public static void debug(Level level, String type, String message) {
+        if (enabled(level)) enqueue(level, new Event(System.currentTimeMillis(), "DEBUG", type, message));
+    }
+
+    /**
+     * Log an event rendered with the 'LOG' template.
+     *
+     * @param level the level
+     * @param type the type, e.g. PARSER
+     * @param message the message
+     */
+    public static void log(Level level, String type, String message) {
+        if (enabled(level)) enqueue(level, new Event(0, "LOG", type, message));
+    }
+
+    /**
+     * Log already rendered text, it is written as it is.
+     *
+     * @param level the level
+     * @param text the text
+     */
+    public static void text(Level level, String text) {
+        if (enabled(level)) enqueue(level, new Event(0, null, null, text));
+    }
+
+    /**
+     * Write the events to a file from now on.
+     * Pending events are written to the previous target first. The file is opened for appending,
+     * so other streams appending to the same file do not overwrite the events.
+     *
+     * @param target the file
+     * @throws IOException if the file can not be opened
+     */
+    public static void open(File target) throws IOException {
+        flush();
+
+        file = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Wait until every event logged so far is written.
+     */
+    public static void flush() {
+        long until = queue.added();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (written < until && writer.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Enqueue an event and wake up the writer if it waits.
+     * If the queue is full, an error is written right away and any other event is dropped.
+     *
+     * @param level the level of the event
+     * @param event the event
+     */
+    private static void enqueue(Level level, Event event) {
+        if (queue.offer(event)) {
+            if (idle) LockSupport.unpark(writer);
+            return;
+        }
+
+        if (level == Level.ERROR) {
+            String date = event.time != 0 ? new SimpleDateFormat(DATE_FORMAT).format(new Date(event.time)) : "";
+            write(new StringBuilder(event.text(date)), ByteBuffer.allocate(0));
+            return;
+        }
+
+        dropped.incrementAndGet();
+    }
+
+    /**
+     * Loop of the writer thread.
+     */
+    private static void drain() {
+        SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+        StringBuilder batch = new StringBuilder();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+        long second = -1;
+        String date = "";
+
+        while (true) {
+            int count = 0;
+
+            for (Event event = queue.poll(); event != null; event = count < BATCH_SIZE ? queue.poll() : null) {
+                if (event.template != null && event.time / 1000 != second) {
+                    second = event.time / 1000;
+                    date = format.format(new Date(event.time));
+                }
+
+                batch.append(event.text(date));
+
+                count++;
+            }
+
+            long lost = dropped.get();
+            if (lost != reported) {
+                batch.append(Template.get("LOG_DROPPED").single("count", lost - reported).render()).append(System.lineSeparator());
+                reported = lost;
+            }
+
+            if (batch.length() > 0) {
+                buffer = write(batch, buffer);
+                batch.setLength(0);
+                written += count;
+                continue;
+            }
+
+            idle = true;
+            if (queue.added() == written) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT));
+            idle = false;
+        }
+    }
+
+    /**
+     * Write a batch to the current target.
+     * Called by the writer and, for errors which did not fit into the queue, by any other thread.
+     *
+     * @param batch the batch
+     * @param buffer the buffer to use
+     * @return the buffer, grown if the batch did not fit
+     */
+    private static ByteBuffer write(StringBuilder batch, ByteBuffer buffer) {
+        byte[] bytes = batch.toString().getBytes(Charset.defaultCharset());
+        FileChannel target = file;
+
+        if (target == null) {
+            System.err.write(bytes, 0, bytes.length);
+            System.err.flush();
+            return buffer;
+        }
+
+        if (bytes.length > buffer.capacity()) buffer = ByteBuffer.allocate(bytes.length);
+
+        buffer.clear();
+        buffer.put(bytes).flip();
+
+        try {
+            while (buffer.hasRemaining()) target.write(buffer);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+
+        return buffer;
+    }
+
+    /**
+     * A single log event.
+     */
+    private static final class Event {
+
+        /**
+         * Time of the event, only used by dated templates.
+         */
+        private final long time;
+
+        /**
+         * Template to render, null if the message is already rendered.
+         */
+        private final String template;
+
+        /**
+         * Type of the event.
+         */
+        private final String type;
+
+        /**
+         * The message.
+         */
+        private final String message;
+
+        /**
+         * Create a new event.
+         *
+         * @param time the time
+         * @param template the template
+         * @param type the type
+         * @param message the message
+         */
+        private Event(long time, String template, String type, String message) {
+            this.time = time;
+            this.template = template;
+            this.type = type;
+            this.message = message;
+        }
+
+        /**
+         * Get the text to write, an already rendered message as it is, otherwise the rendered event and a line break.
+         *
+         * @param date the formatted time of the event
+         * @return the text
+         */
+        private String text(String date) {
+            return template == null ? message : render(date) + System.lineSeparator();
+        }
+
+        /**
+         * Render the event.
+         *
+         * @param date the formatted time of the event
+         * @return the rendered event
+         */
+        private String render(String date) {
+            Template rendered = Template.get(template).single("type", type).single("message", message);
+            if (time != 0) rendered.single("date", date);
+
+            return rendered.render();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.rubenmaurer.punk.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * Every slot carries a sequence number which tells producers and the consumer whether
+ * the slot is free or filled, so neither side ever takes a lock.
+ * A full queue rejects new entries instead of blocking the producer.
+ *
+ * @param <T> the type of the entries
+ * @author Ruben Maurer
+ * @version 1.0
+ * @since 1.0
+ */
+class MpscQueue<T> {
+
+    /**
+     * The slots.
+     */
+    private final Object[] slots;
+
+    /**
+     * Sequence number of every slot.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Mask to map a position onto a slot.
+     */
+    private final int mask;
+
+    /**
+     * Position of the next entry to add, shared by all producers.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Position of the next entry to take, only touched by the consumer.
+     */
+    private long head;
+
+    /**
+     * Create a new queue.
+     *
+     * @param capacity the min. capacity, rounded up to the next power of two
+     */
+    MpscQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    /**
+     * Add an entry. Safe to call from any thread.
+     *
+     * @param entry the entry
+     * @return added? false if the queue is full
+     */
+    boolean offer(T entry) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long sequence = sequences.get(slot);
+
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[slot] = entry;
+                    sequences.lazySet(slot, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Take the oldest entry. Must only be called by the consumer.
+     *
+     * @return the entry, null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) return null;
+
+        T entry = (T) slots[slot];
+        slots[slot] = null;
+        sequences.lazySet(slot, head + slots.length);
+        head++;
+
+        return entry;
+    }
+
+    /**
+     * Get the amount of entries added so far.
+     *
+     * @return the amount
+     */
+    long added() {
+        return tail.get();
+    }
+
+    /**
+     * Get the capacity.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return slots.length;
+    }
+}
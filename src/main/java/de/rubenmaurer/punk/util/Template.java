@@ -5,8 +5,6 @@ import org.stringtemplate.v4.STGroup;
 import org.stringtemplate.v4.STGroupFile;
 
 import java.lang.management.ManagementFactory;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 /**
  * Helper for accessing string templates.
@@ -27,6 +25,11 @@ public class Template {
      */
     private static STGroup templates;
 
+    /**
+     * Is the application started from the IDE? Checked once, the JVM arguments do not change.
+     */
+    private static final boolean IDE = ManagementFactory.getRuntimeMXBean().getInputArguments().contains("-Xdebug");
+
     /**
      * Constructor for a new template.
      *
@@ -43,58 +46,28 @@ public class Template {
      * @return the loaded template
      */
     public static Template get(String template) {
-        if (ManagementFactory.getRuntimeMXBean().getInputArguments().contains("-Xdebug")) {
-            if (templates == null) templates = new STGroupFile("defs.stg");
-            return new Template(templates.getInstanceOf(template));
-        }
-
-        if (templates == null) templates = new STGroupFile("resources/defs.stg");
-        return new Template(templates.getInstanceOf(template));
+        return new Template(group().getInstanceOf(template));
     }
 
     /**
-     * Get a 'RECV' log message.
+     * Get the group of available templates, loaded on first use.
+     * Synchronized, so concurrent evaluations never load the group twice.
      *
-     * @param message the message
-     * @return the log messaage
+     * @return the group
      */
-    static String recv(String message) {
-        return Template.get("DEBUG")
-                .single("date", new SimpleDateFormat("yyyy-MM-dd hh:mm:ss").format(new Date()))
-                .single("type", "RECV")
-                .single("message", message).render();
+    private static synchronized STGroup group() {
+        if (templates == null) templates = new STGroupFile(resource("defs.stg"));
+        return templates;
     }
 
     /**
-     * Get a 'SEND' log message.
+     * Get the path of a template file on the classpath.
      *
-     * @param message the message
-     * @return the log messaage
+     * @param file the file, relative to the resources
+     * @return the path
      */
-    static String send(String message) {
-        return Template.get("DEBUG")
-                .single("date", new SimpleDateFormat("yyyy-MM-dd hh:mm:ss").format(new Date()))
-                .single("type", "SEND")
-                .single("message", message).render();
-    }
-
-    /**
-     * Get an 'ERROR' log message.
-     *
-     * @param message the message
-     * @return the log messaage
-     */
-    static String erro(String message) {
-        return Template.get("DEBUG")
-                .single("date", new SimpleDateFormat("yyyy-MM-dd hh:mm:ss").format(new Date()))
-                .single("type", "ERROR")
-                .single("message", message).render();
-    }
-
-    static String log(String type, String message) {
-        return Template.get("LOG")
-                .single("type", type)
-                .single("message", message).render();
+    static String resource(String file) {
+        return IDE ? file : "resources/" + file;
     }
 
     /**
@@ -163,48 +163,57 @@ public class Terminal {
     }
 
     public static void printLastResponse(String... responses) {
-        if (responses == null) return;
+        if (responses == null || !Log.enabled(Log.Level.DEBUG)) return;
 
-        System.err.println(Template.get("LAST_RESPONSE")
+        Log.text(Log.Level.DEBUG, Template.get("LAST_RESPONSE")
                 .single("response", responses)
                 .single("date", new SimpleDateFormat("yyyy-MM-dd hh:mm:ss").format(new Date()))
-                .single("count", String.valueOf(responses.length)).render());
+                .single("count", String.valueOf(responses.length)).render() + System.lineSeparator());
     }
 
     /* === LOGGING === */
 
     /**
-     * Print a 'RECV' message.
+     * Log a 'RECV' message.
      *
      * @param message the message
      */
     public static void debugRecv(String message) {
-        System.err.println(Template.recv(message));
+        Log.debug(Log.Level.DEBUG, "RECV", message);
     }
 
     /**
-     * Print a 'SEND' message.
+     * Log a 'SEND' message.
      *
      * @param message the message
      */
     public static void debugSend(String message) {
-        System.err.println(Template.send(message));
+        Log.debug(Log.Level.DEBUG, "SEND", message);
     }
 
     /**
-     * Print a 'ERROR' message.
+     * Log a 'DROP' message, a message which was not sent.
+     *
+     * @param message the message
+     */
+    public static void debugDrop(String message) {
+        Log.debug(Log.Level.DEBUG, "DROP", message);
+    }
+
+    /**
+     * Log a 'ERROR' message.
      *
      * @param message the message
      */
     public static void debugErro(String message) {
-        System.err.println(Template.erro(message));
+        Log.debug(Log.Level.ERROR, "ERROR", message);
     }
 
     public static void devLog(String message) {
-        System.err.println(Template.log("DEV", message));
+        Log.log(Log.Level.DEBUG, "DEV", message);
     }
 
     public static void parserLog(String message) {
-        System.err.println(Template.log("PARSER", message));
+        Log.log(Log.Level.DEBUG, "PARSER", message);
     }
 }
@@ -0,0 +1,217 @@
+package de.rubenmaurer.punk.core.akka;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.pattern.Patterns;
+import de.rubenmaurer.punk.Settings;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionHandlerTest {
+
+    @Test
+    void everyLineIsWritten() throws Exception {
+        ConnectionState state = send(1000);
+
+        assertEquals(1000, state.written());
+        assertTrue(state.queued() > 0);
+    }
+
+    @Test
+    void overflowIsCounted() throws Exception {
+        // far more writes than the tiny queue holds, every line is either written or counted as dropped
+        ConnectionState state = send(10000, 2);
+
+        assertTrue(state.overflowed() > 0);
+        assertEquals(10000, state.written() + state.overflowed());
+    }
+
+    @Test
+    void connectsFromLocalAddress() throws Exception {
+        ActorSystem system = ActorSystem.create("test");
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            CompletableFuture<InetAddress> peer = CompletableFuture.supplyAsync(() -> {
+                try (Socket socket = server.accept()) {
+                    return socket.getInetAddress();
+                } catch (Exception e) {
+                    return null;
+                }
+            });
+
+            ConnectionState state = new ConnectionState();
+            ActorRef handler = system.actorOf(ConnectionHandler.props("127.0.0.1", server.getLocalPort(), state, new Latencies()));
+            InetSocketAddress local = new InetSocketAddress("127.0.0.2", 0);
+
+            assertTrue((Boolean) Patterns.ask(handler, local, Duration.ofSeconds(3)).toCompletableFuture().get());
+            assertEquals(local.getAddress(), peer.get(3, TimeUnit.SECONDS));
+            assertTrue(state.connectTime() > 0);
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    void suspendedHandlerDoesNotRead() throws Exception {
+        ActorSystem system = ActorSystem.create("test");
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return server.accept();
+                } catch (Exception e) {
+                    return null;
+                }
+            });
+
+            ActorRef handler = system.actorOf(ConnectionHandler.props("localhost", server.getLocalPort(), new ConnectionState(), new Latencies()));
+            assertTrue((Boolean) Patterns.ask(handler, "connect", Duration.ofSeconds(3)).toCompletableFuture().get());
+
+            AtomicInteger received = new AtomicInteger();
+            handler.tell((Listener) (message, time) -> received.incrementAndGet(), ActorRef.noSender());
+            handler.tell("suspend", ActorRef.noSender());
+
+            try (Socket socket = accepted.get(3, TimeUnit.SECONDS)) {
+                Thread.sleep(200);
+                socket.getOutputStream().write("PING a\r\nPING b\r\n".getBytes(StandardCharsets.UTF_8));
+                socket.getOutputStream().flush();
+
+                Thread.sleep(500);
+                assertEquals(0, received.get());
+
+                handler.tell("resume", ActorRef.noSender());
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+                while (received.get() < 2 && System.nanoTime() < deadline) Thread.sleep(10);
+
+                assertEquals(2, received.get());
+            }
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    void askFailsIfConnectFails() throws Exception {
+        ActorSystem system = ActorSystem.create("test");
+
+        try {
+            int port;
+            try (ServerSocket closed = new ServerSocket(0)) {
+                port = closed.getLocalPort();
+            }
+
+            ActorRef handler = system.actorOf(ConnectionHandler.props("localhost", port, new ConnectionState(), new Latencies()));
+            CompletableFuture<Object> connected = Patterns.ask(handler, "connect", Duration.ofSeconds(3)).toCompletableFuture();
+            CompletableFuture<Object> answer = Patterns.ask(handler, Ask.create("PING", Expectation.command("PONG")), Duration.ofSeconds(3)).toCompletableFuture();
+
+            assertFalse((Boolean) connected.get());
+            ExecutionException failure = assertThrows(ExecutionException.class, answer::get);
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    void metAskIsAnsweredAtOnce() throws Exception {
+        ActorSystem system = ActorSystem.create("test");
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            ActorRef handler = system.actorOf(ConnectionHandler.props("localhost", server.getLocalPort(), new ConnectionState(), new Latencies()));
+            assertTrue((Boolean) Patterns.ask(handler, "connect", Duration.ofSeconds(3)).toCompletableFuture().get());
+
+            // no reply is expected, so the server staying silent does not delay the answer
+            CompletableFuture<Object> answer = Patterns.ask(handler, Ask.create("PRIVMSG chloe :Wowser", Expectation.lines(0)), Duration.ofSeconds(30)).toCompletableFuture();
+
+            assertEquals(Collections.emptyList(), answer.get(1, TimeUnit.SECONDS));
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    void askFailsIfConnectionCloses() throws Exception {
+        ActorSystem system = ActorSystem.create("test");
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return server.accept();
+                } catch (Exception e) {
+                    return null;
+                }
+            });
+
+            ConnectionState state = new ConnectionState();
+            ActorRef handler = system.actorOf(ConnectionHandler.props("localhost", server.getLocalPort(), state, new Latencies()));
+            assertTrue((Boolean) Patterns.ask(handler, "connect", Duration.ofSeconds(3)).toCompletableFuture().get());
+
+            // the server never answers and closes the connection, the ask fails long before it times out
+            CompletableFuture<Object> answer = Patterns.ask(handler, Ask.create("PING", Expectation.command("PONG")), Duration.ofSeconds(30)).toCompletableFuture();
+            Thread.sleep(200);
+            accepted.get(3, TimeUnit.SECONDS).close();
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> answer.get(3, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof ConnectionClosedException);
+            assertTrue(state.isClosed());
+        } finally {
+            system.terminate();
+        }
+    }
+
+    private static ConnectionState send(int count) throws Exception {
+        return send(count, Settings.writeQueue());
+    }
+
+    private static ConnectionState send(int count, int capacity) throws Exception {
+        ActorSystem system = ActorSystem.create("test");
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            // reads until the client stays silent for a second
+            CompletableFuture<Long> received = CompletableFuture.supplyAsync(() -> {
+                long lines = 0;
+
+                try (Socket socket = server.accept();
+                     BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                    socket.setSoTimeout(1000);
+                    while (reader.readLine() != null) lines++;
+                } catch (SocketTimeoutException e) {
+                    return lines;
+                } catch (Exception e) {
+                    return -1L;
+                }
+
+                return lines;
+            });
+
+            ConnectionState state = new ConnectionState();
+            ActorRef handler = system.actorOf(ConnectionHandler.props("localhost", server.getLocalPort(), state, new Latencies(), capacity));
+            assertTrue((Boolean) Patterns.ask(handler, "connect", Duration.ofSeconds(3)).toCompletableFuture().get());
+
+            for (int i = 0; i < count; i++) handler.tell(String.format("PRIVMSG chloe :Wowser %d", i), ActorRef.noSender());
+
+            long lines = received.get(30, TimeUnit.SECONDS);
+            assertEquals(lines, state.written());
+
+            return state;
+        } finally {
+            system.terminate();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.rubenmaurer.punk.core.akka;
+
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpectationTest {
+
+    @Test
+    void thenWaitsForBoth() {
+        Expectation expectation = Expectation.welcome().then(Expectation.joined());
+
+        // the end of names before the welcome burst completed belongs to nobody
+        assertFalse(expectation.offer(IrcMessage.parse(":irc.example.net 366 max #Blackwell :End of NAMES list")));
+        assertFalse(expectation.offer(IrcMessage.parse(":irc.example.net 001 max :Welcome")));
+        assertFalse(expectation.offer(IrcMessage.parse(":irc.example.net 376 max :End of MOTD command")));
+        assertFalse(expectation.met());
+        assertFalse(expectation.offer(IrcMessage.parse(":max!max@localhost JOIN #Blackwell")));
+        assertTrue(expectation.offer(IrcMessage.parse(":irc.example.net 366 max #Blackwell :End of NAMES list")));
+        assertTrue(expectation.met());
+    }
+
+    @Test
+    void thenStopsOnError() {
+        Expectation expectation = Expectation.welcome().then(Expectation.joined());
+
+        assertFalse(expectation.offer(IrcMessage.parse(":irc.example.net 433 * max :Nickname is already in use")));
+        assertTrue(expectation.offer(IrcMessage.parse(":irc.example.net 403 max #Blackwell :No such channel")));
+    }
+
+    @Test
+    void endSplitsPipelinedReplies() {
+        List<IrcMessage> reply = Arrays.asList(IrcMessage.parse(":irc.example.net 001 max :Welcome"),
+                IrcMessage.parse(":irc.example.net 422 max :MOTD File is missing"),
+                IrcMessage.parse(":max!max@localhost JOIN #Blackwell"),
+                IrcMessage.parse(":irc.example.net 366 max #Blackwell :End of NAMES list"));
+
+        assertEquals(2, Expectation.welcome().end(reply));
+        assertEquals(4, Expectation.command("PONG").end(reply));
+    }
+}
@@ -0,0 +1,37 @@
+package de.rubenmaurer.punk.core.akka;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatenciesTest {
+
+    @Test
+    void commandOfAsk() {
+        assertEquals("JOIN", Ask.create("join #Blackwell", 1).command());
+        assertEquals("PING", Ask.create("PING", 1).command());
+        assertEquals("USER+NICK", Ask.create(Arrays.asList("USER max * * :Maxine Caulfield", "NICK max"), Expectation.welcome()).command());
+        assertEquals("AAAAAAAAAAAAAAAA", Ask.create(new String(new char[600]).replace('\0', 'a'), 1).command());
+    }
+
+    @Test
+    void summaryPerCommand() {
+        Latencies latencies = new Latencies();
+        latencies.record("PING", 1_000_000, 2_000_000);
+        latencies.record("PING", 3_000_000, 4_000_000);
+        latencies.unanswered("WHO");
+
+        Latencies total = new Latencies();
+        total.add(latencies);
+        total.add(latencies);
+
+        // percentiles are reported as the upper end of their bucket, capped by the max
+        List<String> summary = total.summary();
+        assertEquals(2, summary.size());
+        assertEquals("- PING: 4, first byte p50 1.003 ms, p99 3.000 ms, complete p50 2.007 ms, p99 4.000 ms, max 4.000 ms, 0 unanswered", summary.get(0));
+        assertEquals("- WHO: 0, 2 unanswered", summary.get(1));
+    }
+}
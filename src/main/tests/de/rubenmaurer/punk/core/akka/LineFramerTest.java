@@ -0,0 +1,62 @@
+package de.rubenmaurer.punk.core.akka;
+
+import akka.util.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineFramerTest {
+
+    private List<String> lines = new LinkedList<>();
+
+    private int feed(LineFramer framer, String data) {
+        return framer.feed(ByteString.fromString(data, "UTF-8"), l -> lines.add(l.decodeString(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void completeLines() {
+        LineFramer framer = new LineFramer();
+
+        assertEquals(2, feed(framer, ":srv 001 max :Welcome\r\n:srv 002 max :Your host\r\n"));
+        assertEquals(2, lines.size());
+        assertEquals(":srv 002 max :Your host", lines.get(1));
+        assertEquals(0, framer.pending());
+    }
+
+    @Test
+    void lineSplitAcrossSegments() {
+        LineFramer framer = new LineFramer();
+
+        assertEquals(0, feed(framer, ":srv 001 max :Wel"));
+        assertEquals(0, feed(framer, "come\r"));
+        assertEquals(1, feed(framer, "\nPONG"));
+        assertEquals(1, feed(framer, "\r\n"));
+
+        assertEquals(":srv 001 max :Welcome", lines.get(0));
+        assertEquals("PONG", lines.get(1));
+        assertEquals(2, framer.lineCount());
+    }
+
+    @Test
+    void utf8SplitInsideCharacter() {
+        LineFramer framer = new LineFramer();
+        byte[] bytes = "PRIVMSG #caf\u00e9 :\u00f1\r\n".getBytes(StandardCharsets.UTF_8);
+
+        framer.feed(ByteString.fromArray(bytes, 0, 13), l -> lines.add(l.decodeString(StandardCharsets.UTF_8)));
+        framer.feed(ByteString.fromArray(bytes, 13, bytes.length - 13), l -> lines.add(l.decodeString(StandardCharsets.UTF_8)));
+
+        assertEquals("PRIVMSG #caf\u00e9 :\u00f1", lines.get(0));
+    }
+
+    @Test
+    void emptyLinesAreSkipped() {
+        LineFramer framer = new LineFramer();
+
+        assertEquals(1, feed(framer, "\r\n\r\nPONG\n"));
+        assertEquals(1, framer.lineCount());
+    }
+}
@@ -0,0 +1,137 @@
+package de.rubenmaurer.punk.core.akka;
+
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplyLogTest {
+
+    private static IrcMessage reply(int code, String text) {
+        return IrcMessage.parse(String.format("%03d %s", code, text));
+    }
+
+    private static List<String> texts(List<IrcMessage> messages) {
+        return messages.stream().map(m -> m.param(0)).collect(Collectors.toList());
+    }
+
+    @Test
+    void allAndLast() {
+        ReplyLog log = new ReplyLog();
+        for (int i = 0; i < 10; i++) log.add(IrcMessage.parse(String.format(":srv 352 max #c u%d h s n%d H :0 real", i, i)));
+
+        assertEquals(10, log.all(352).size());
+        assertEquals(Arrays.asList(":srv 352 max #c u8 h s n8 H :0 real", ":srv 352 max #c u9 h s n9 H :0 real"),
+                log.last(352, 2).stream().map(IrcMessage::raw).collect(Collectors.toList()));
+        assertEquals(10, log.count(352));
+        assertEquals(0, log.count(315));
+        assertTrue(log.all(315).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void latestOfSeveralCodes() {
+        ReplyLog log = new ReplyLog();
+        log.add(reply(1, "welcome"));
+        log.add(reply(2, "host"));
+        log.add(reply(1, "again"));
+
+        LogQuery query = LogQuery.latest(1, 3, 2, 1200);
+        List<IrcMessage> latest = (List<IrcMessage>) log.answer(query);
+
+        assertEquals(4, latest.size());
+        assertEquals("again", latest.get(0).param(0));
+        assertTrue(latest.get(1).isEmpty());
+        assertEquals("host", latest.get(2).param(0));
+        assertTrue(latest.get(3).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> latest.set(1, reply(3, "created")));
+    }
+
+    @Test
+    void repliesKeepSemicolons() {
+        ReplyLog log = new ReplyLog();
+        log.add(IrcMessage.parse(":srv 332 max #c :a;b;;c"));
+
+        assertEquals("a;b;;c", log.last(332, 1).get(0).trailing());
+    }
+
+    @Test
+    void onlyNumericsAreLogged() {
+        ReplyLog log = new ReplyLog();
+        log.add(IrcMessage.parse(":max!maxine@host PRIVMSG chloe :error 404 here"));
+
+        assertEquals(0, log.size());
+        assertEquals(0, log.count(404));
+    }
+
+    @Test
+    void sinceMarkInOrder() {
+        ReplyLog log = new ReplyLog();
+        log.add(reply(1, "welcome"));
+
+        long mark = log.mark();
+        log.add(reply(353, "names"));
+        log.add(reply(332, "topic"));
+        log.add(reply(366, "end"));
+
+        assertEquals(Arrays.asList("names", "topic", "end"), texts(log.since(mark)));
+        assertEquals(4, log.since(0).size());
+    }
+
+    @Test
+    void answersAreImmutable() {
+        ReplyLog log = new ReplyLog();
+        log.add(reply(1, "welcome"));
+
+        List<IrcMessage> all = log.all(1);
+        assertThrows(UnsupportedOperationException.class, () -> all.add(reply(1, "more")));
+
+        log.add(reply(1, "again"));
+        assertEquals(1, all.size());
+    }
+
+    @Test
+    void evictsOldestOfAllCodes() {
+        ReplyLog log = new ReplyLog(new Retention(3, 0, 0));
+        log.add(reply(1, "a"));
+        log.add(reply(2, "b"));
+        log.add(reply(1, "c"));
+        log.add(reply(3, "d"));
+
+        assertEquals(3, log.size());
+        assertEquals(1, log.evicted());
+        assertEquals(Arrays.asList("c"), texts(log.all(1)));
+        assertEquals(Arrays.asList("b", "c", "d"), texts(log.since(0)));
+    }
+
+    @Test
+    void evictsByBytesAndAge() {
+        // "001 aa" takes 12 bytes
+        ReplyLog log = new ReplyLog(new Retention(0, 24, 1000));
+        log.add(reply(1, "aa"), 0);
+        log.add(reply(1, "bb"), 10);
+        log.add(reply(1, "cc"), 20);
+
+        assertEquals(Arrays.asList("bb", "cc"), texts(log.all(1)));
+        assertEquals(24, log.bytes());
+
+        log.add(reply(2, "d"), 1015);
+        assertEquals(Arrays.asList("cc"), texts(log.all(1)));
+        assertEquals(2, log.evicted());
+    }
+
+    @Test
+    void longRunStaysBounded() {
+        ReplyLog log = new ReplyLog(new Retention(10, 0, 0));
+        for (int i = 0; i < 1000; i++) log.add(reply(i % 2 == 0 ? 1 : 372, String.valueOf(i)));
+
+        assertEquals(5, log.count(1));
+        assertEquals(Arrays.asList("996", "998"), texts(log.last(1, 2)));
+        assertEquals(Arrays.asList("990", "991", "992"), texts(log.since(0)).subList(0, 3));
+        assertEquals(990, log.evicted());
+    }
+}
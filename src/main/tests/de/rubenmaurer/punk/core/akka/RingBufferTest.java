@@ -0,0 +1,50 @@
+package de.rubenmaurer.punk.core.akka;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void keepsNewestEntries() {
+        RingBuffer<String> buffer = new RingBuffer<>(new Retention(20, 0, 0), s -> s.length() * 2L);
+        for (int i = 0; i < 100; i++) buffer.add(String.valueOf(i), 0);
+
+        assertEquals(20, buffer.size());
+        assertEquals(80, buffer.evicted());
+        assertEquals("99", buffer.last(0));
+    }
+
+    @Test
+    void boundedByBytes() {
+        RingBuffer<String> buffer = new RingBuffer<>(new Retention(0, 10, 0), s -> s.length() * 2L);
+        buffer.add("abc", 0);
+        buffer.add("def", 0);
+
+        assertEquals(1, buffer.size());
+        assertEquals(6, buffer.bytes());
+        assertEquals("def", buffer.last(0));
+    }
+
+    @Test
+    void expiredEntriesAreGone() {
+        RingBuffer<String> buffer = new RingBuffer<>(new Retention(0, 0, 100), s -> s.length() * 2L);
+        buffer.add("old", 0);
+        buffer.add("new", 50);
+
+        assertEquals(2, buffer.size());
+        assertEquals("new", buffer.last(101));
+        assertEquals(1, buffer.size());
+        assertEquals(1, buffer.evicted());
+    }
+
+    @Test
+    void newestEntryNeverExpires() {
+        RingBuffer<String> buffer = new RingBuffer<>(new Retention(0, 0, 100), s -> s.length() * 2L);
+        buffer.add("last", 0);
+
+        assertEquals("last", buffer.last(10000));
+        assertEquals(0, buffer.evicted());
+    }
+}
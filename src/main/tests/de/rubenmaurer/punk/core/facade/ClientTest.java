@@ -3,6 +3,11 @@ package de.rubenmaurer.punk.core.facade;
 import de.rubenmaurer.punk.Settings;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class ClientTest {
 
     @Test
@@ -14,4 +19,20 @@ class ClientTest {
 
         System.out.println(c.lastResponse());
     }
-}
\ No newline at end of file
+
+    @Test
+    void generatedClientsAreDistinct() throws Exception {
+        Settings.storeOverride("debug", "true");
+        Set<String> nicknames = new HashSet<>();
+
+        for (int i = 0; i < 20000; i++) {
+            Client c = Client.create(i);
+
+            assertTrue(c.nickname().length() <= 9, c.nickname());
+            assertTrue(nicknames.add(c.nickname()), c.nickname());
+        }
+
+        assertEquals(Client.Preset.KATE.nickname(), Client.create(10).nickname());
+        assertEquals("victori12", Client.create(138).nickname());
+    }
+}
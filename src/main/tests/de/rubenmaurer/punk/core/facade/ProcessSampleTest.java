@@ -0,0 +1,38 @@
+package de.rubenmaurer.punk.core.facade;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessSampleTest {
+
+    @Test
+    void samplesAProcessTree() throws Exception {
+        Process shell = new ProcessBuilder("sh", "-c", "sleep 5 & wait").start();
+
+        try {
+            Thread.sleep(200);
+            ProcessSample sample = ProcessSample.of(ProcessTree.pid(shell));
+
+            assertEquals(2, sample.processes());
+            assertEquals(2, sample.threads());
+            assertTrue(sample.rss() > 0);
+            assertTrue(sample.fds() >= 6);
+        } finally {
+            ProcessTree.signal("KILL", ProcessTree.descendants(ProcessTree.pid(shell)));
+            shell.destroyForcibly().waitFor();
+        }
+    }
+
+    @Test
+    void vanishedProcessIsEmpty() throws Exception {
+        Process process = new ProcessBuilder("true").start();
+        long pid = ProcessTree.pid(process);
+        process.waitFor();
+
+        ProcessSample sample = ProcessSample.of(pid);
+
+        assertEquals(0, sample.processes());
+        assertEquals(0, sample.rss());
+    }
+}
@@ -0,0 +1,65 @@
+package de.rubenmaurer.punk.core.irc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IrcMessageTest {
+
+    @Test
+    void numericReply() {
+        IrcMessage message = IrcMessage.parse(":irc.example.net 352 max #c maxine host irc.example.net max H :0 Maxine Caulfield");
+
+        assertEquals("irc.example.net", message.prefix());
+        assertEquals("352", message.command());
+        assertEquals(352, message.numeric());
+        assertEquals(7, message.paramCount());
+        assertEquals("#c", message.param(1));
+        assertEquals("0 Maxine Caulfield", message.trailing());
+    }
+
+    @Test
+    void commandWithoutPrefix() {
+        IrcMessage message = IrcMessage.parse("PING :irc.example.net");
+
+        assertNull(message.prefix());
+        assertTrue(message.is("ping"));
+        assertEquals(-1, message.numeric());
+        assertEquals(0, message.paramCount());
+        assertEquals("irc.example.net", message.trailing());
+    }
+
+    @Test
+    void codeInsideTextIsNoNumeric() {
+        IrcMessage message = IrcMessage.parse(":max!maxine@host PRIVMSG chloe :not found 404 here");
+
+        assertTrue(message.is("PRIVMSG"));
+        assertEquals(-1, message.numeric());
+        assertEquals("not found 404 here", message.trailing());
+    }
+
+    @Test
+    void multipleSpaces() {
+        IrcMessage message = IrcMessage.parse(":srv  001   max  :Welcome");
+
+        assertEquals(1, message.numeric());
+        assertEquals(1, message.paramCount());
+        assertEquals("max", message.param(0));
+        assertEquals("Welcome", message.trailing());
+    }
+
+    @Test
+    void fifteenthParameterIsTrailing() {
+        IrcMessage message = IrcMessage.parse("CMD 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16");
+
+        assertEquals(14, message.paramCount());
+        assertEquals("15 16", message.trailing());
+    }
+
+    @Test
+    void emptyLine() {
+        assertTrue(IrcMessage.parse("").isEmpty());
+        assertTrue(IrcMessage.EMPTY.isEmpty());
+        assertEquals("", IrcMessage.EMPTY.command());
+    }
+}
@@ -0,0 +1,54 @@
+package de.rubenmaurer.punk.core.irc;
+
+import akka.util.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineEncoderTest {
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) sb.append(s);
+
+        return sb.toString();
+    }
+
+    @Test
+    void matchesByteString() {
+        String[] lines = { "", "PING irc.example.net", "PRIVMSG #Blackwell :ümlaut ✓ 😀", "broken \uD800 surrogate",
+                repeat("PRIVMSG chloe :Wowser ", 200), repeat("😀", 1000) };
+
+        for (Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII, StandardCharsets.UTF_16)) {
+            LineEncoder encoder = new LineEncoder(charset);
+
+            // twice, so the reused buffers are checked as well
+            for (int round = 0; round < 2; round++) {
+                for (String line : lines) {
+                    assertEquals(ByteString.fromString(line + "\r\n", charset.name()), encoder.encode(line), charset + " " + line);
+                }
+            }
+        }
+    }
+
+    @Test
+    void resultIsACopy() {
+        LineEncoder encoder = new LineEncoder(StandardCharsets.UTF_8);
+        ByteString first = encoder.encode("NICK max");
+        encoder.encode("NICK chloe");
+
+        assertEquals("NICK max\r\n", first.utf8String());
+    }
+
+    @Test
+    void pipelinedLines() {
+        LineEncoder encoder = new LineEncoder(StandardCharsets.UTF_8);
+
+        assertEquals(ByteString.fromString("NICK max\r\nUSER max * * :Maxine Caulfield\r\nJOIN #Blackwell\r\n", "UTF-8"),
+                encoder.encode(Arrays.asList("NICK max", "USER max * * :Maxine Caulfield", "JOIN #Blackwell")));
+    }
+}
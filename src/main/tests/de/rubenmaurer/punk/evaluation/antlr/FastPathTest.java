@@ -0,0 +1,99 @@
+package de.rubenmaurer.punk.evaluation.antlr;
+
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.Response;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastPathTest {
+
+    private static final Object[][] WELL_FORMED = {
+            { Response.WELCOME, ":irc.example.net 001 max :Welcome to the Internet Relay Network max!maxine@localhost" },
+            { Response.MY_INFO, ":irc.example.net 004 max irc.example.net chirc-0.3.9 ao mtov" },
+            { Response.LUSER_CLIENT, ":irc.example.net 251 max :There are 1 users and 0 services on 1 servers" },
+            { Response.WHO_IS_USER, ":irc.example.net 311 max chloe elisabeth localhost * :Chloe Elisabeth Price" },
+            { Response.NAME_RPLY, ":irc.example.net 353 max = #Blackwell :@max chloe" },
+            { Response.END_OF_NAMES, ":irc.example.net 366 max #Blackwell :End of NAMES list" }
+    };
+
+    private static Client max;
+    private static Client chloe;
+    private static Client h;
+
+    @BeforeAll
+    static void clients() throws Exception {
+        Settings.storeOverride("debug", "true");
+
+        max = Client.create(Client.Preset.MAX);
+        chloe = Client.create(Client.Preset.CHLOE);
+        h = Client.create("H", "h", "H");
+    }
+
+    private static boolean accepts(Response response, String line, Map<String, String> values) {
+        return FastPath.accepts(max, chloe, response, line, values);
+    }
+
+    private static Map<String, String> wellFormedValues() {
+        Map<String, String> values = new HashMap<>();
+        values.put("channel", "#Blackwell");
+        values.put("names", "@max chloe");
+
+        return values;
+    }
+
+    @Test
+    void acceptsWellFormedReplies() {
+        for (Object[] reply : WELL_FORMED) {
+            assertTrue(accepts((Response) reply[0], (String) reply[1], wellFormedValues()), (String) reply[1]);
+        }
+    }
+
+    @Test
+    void agreesWithAntlr() {
+        Settings.storeOverride("fastPathCheck", "true");
+        long accepted = Parser.fastPathAccepted();
+
+        try {
+            // with the check enabled every accepted reply is parsed by ANTLR too, which throws if it disagrees
+            for (Object[] reply : WELL_FORMED) {
+                Parser.parse(max, chloe, (Response) reply[0], IrcMessage.parse((String) reply[1]), wellFormedValues());
+            }
+
+            assertEquals(accepted + WELL_FORMED.length, Parser.fastPathAccepted());
+            assertEquals(0, Parser.fastPathMismatches());
+        } finally {
+            Settings.storeOverride("fastPathCheck", "false");
+        }
+    }
+
+    @Test
+    void handsFailuresToAntlr() {
+        Map<String, String> values = new HashMap<>();
+        values.put("channel", "#Blackwell");
+
+        // wrong nick, wrong code, wrong channel, missing value
+        assertFalse(accepts(Response.END_OF_MOTD, ":srv 376 chloe :End of MOTD command", values));
+        assertFalse(accepts(Response.END_OF_MOTD, ":srv 375 max :End of MOTD command", values));
+        assertFalse(accepts(Response.END_OF_NAMES, ":srv 366 max #Arcadia :End of NAMES list", values));
+        assertFalse(accepts(Response.MOTD, ":srv 372 max :- Hello", values));
+
+        // characters unknown to the lexer, keywords inside names and trailing garbage
+        assertFalse(accepts(Response.END_OF_MOTD, ":srv_1 376 max :End of MOTD command", values));
+        assertFalse(FastPath.accepts(max, h, Response.END_OF_WHO_IS, ":srv 318 max H :End of WHOIS list", values));
+        assertFalse(accepts(Response.END_OF_MOTD, ":srv 376 max :End of MOTD command ", values));
+    }
+
+    @Test
+    void onlyCommonNumericsAreCovered() {
+        assertTrue(FastPath.covers(Response.END_OF_MOTD));
+        assertFalse(FastPath.covers(Response.NONE));
+        assertFalse(FastPath.covers(Response.LIST));
+    }
+}
@@ -0,0 +1,136 @@
+package de.rubenmaurer.punk.evaluation.antlr;
+
+import de.rubenmaurer.punk.IRCParser;
+import de.rubenmaurer.punk.Settings;
+import de.rubenmaurer.punk.core.facade.Client;
+import de.rubenmaurer.punk.core.irc.IrcMessage;
+import de.rubenmaurer.punk.evaluation.Response;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 2000;
+
+    private static final String[] CHANNELS = {"#Blackwell", "#Arcadia", "#Bay", "#Prescott", "#Vortex", "#Junkyard", "#Lighthouse", "#Diner"};
+    private static final String[] MESSAGES = {"Wowser", "Hella", "Rewind", "Tsunami"};
+
+    private static Client max;
+    private static Client chloe;
+
+    @BeforeAll
+    static void clients() throws Exception {
+        Settings.storeOverride("debug", "true");
+
+        max = Client.create(Client.Preset.MAX);
+        chloe = Client.create(Client.Preset.CHLOE);
+    }
+
+    @Test
+    void requestIsImmutable() {
+        Map<String, String> values = new HashMap<>();
+        values.put("channel", "#Blackwell");
+
+        ParseRequest request = ParseRequest.create(max, Response.NONE, IrcMessage.parse("PONG irc.example.net"), values);
+        ParseRequest pong = request.withRule(IRCParser.RULE_pong);
+        values.put("channel", "#Arcadia");
+
+        assertEquals(IRCParser.RULE_response, request.rule());
+        assertEquals(IRCParser.RULE_pong, pong.rule());
+        assertEquals("#Blackwell", pong.values().get("channel"));
+        assertThrows(UnsupportedOperationException.class, () -> pong.values().put("channel", "#Arcadia"));
+    }
+
+    @Test
+    void ruleOnlyAppliesToItsRequest() {
+        HashMap<String, String> values = new HashMap<>();
+        values.put("target", "#Blackwell");
+        values.put("message", "Wowser");
+
+        ParseRequest request = ParseRequest.create(chloe, max, Response.NONE,
+                IrcMessage.parse(":chloe!elisabeth@irc.example.net PRIVMSG #Blackwell :Wowser"), values);
+
+        Parser.parse(request.withRule(IRCParser.RULE_private_message));
+        assertThrows(RuntimeException.class, () -> Parser.parse(request.withRule(IRCParser.RULE_pong)));
+        Parser.parse(request.withRule(IRCParser.RULE_private_message));
+    }
+
+    @Test
+    void concurrentRequestsDoNotInterfere() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Future<List<String>>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    List<String> failures = new ArrayList<>();
+
+                    for (int i = 0; i < ROUNDS; i++) {
+                        try {
+                            round(thread, i);
+                        } catch (Throwable e) {
+                            failures.add(e.getMessage());
+                        }
+                    }
+
+                    return failures;
+                }));
+            }
+
+            for (Future<List<String>> result : results) assertEquals(new ArrayList<>(), result.get(2, TimeUnit.MINUTES));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse one of several messages, each with its own rule and values.
+     */
+    private static void round(int thread, int i) {
+        String channel = CHANNELS[thread % CHANNELS.length];
+        String message = MESSAGES[i % MESSAGES.length];
+
+        HashMap<String, String> values = new HashMap<>();
+        values.put("channel", channel);
+        values.put("target", channel);
+        values.put("message", message);
+        values.put("topic", message);
+
+        switch ((thread + i) % 5) {
+            case 0:
+                Parser.parse(ParseRequest.create(max, Response.NONE, IrcMessage.parse("PONG irc.example.net"))
+                        .withRule(IRCParser.RULE_pong));
+                break;
+            case 1:
+                Parser.parse(ParseRequest.create(chloe, max, Response.NONE,
+                        IrcMessage.parse(String.format(":chloe!elisabeth@irc.example.net PRIVMSG %s :%s", channel, message)), values)
+                        .withRule(IRCParser.RULE_private_message));
+                break;
+            case 2:
+                Parser.parse(max, Response.END_OF_NAMES,
+                        IrcMessage.parse(String.format(":irc.example.net 366 max %s :End of NAMES list", channel)), values);
+                break;
+            case 3:
+                Parser.parse(ParseRequest.create(max, Response.TOPIC,
+                        IrcMessage.parse(String.format(":max!maxine@irc.example.net TOPIC %s :%s", channel, message)), values)
+                        .withRule(IRCParser.RULE_topic));
+                break;
+            default:
+                IrcMessage wrong = IrcMessage.parse(String.format(":chloe!elisabeth@irc.example.net PRIVMSG %s :%s", channel, message));
+                assertThrows(RuntimeException.class, () -> Parser.parse(ParseRequest.create(chloe, max, Response.NONE, wrong, values)
+                        .withRule(IRCParser.RULE_pong)));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.rubenmaurer.punk.evaluation.antlr;
+
+import de.rubenmaurer.punk.IRCLexer;
+import de.rubenmaurer.punk.IRCParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParsingEngineTest {
+
+    private static String llError(String line) {
+        IRCLexer lexer = new IRCLexer(CharStreams.fromString(line));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(PricefieldErrorListener.INSTANCE);
+
+        IRCParser parser = new IRCParser(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(PricefieldErrorListener.INSTANCE);
+
+        return assertThrows(ParseCancellationException.class, parser::response).getMessage();
+    }
+
+    @Test
+    void validLineNeedsNoFallback() {
+        long fallbacks = ParsingEngine.fallbacks();
+        String tree = ParsingEngine.get().parse(":srv 366 max #c :End of NAMES list", IRCParser.RULE_response).getText();
+
+        assertEquals(":srv 366 max #c :End of NAMES list", tree);
+        assertEquals(fallbacks, ParsingEngine.fallbacks());
+    }
+
+    @Test
+    void errorsMatchFullPrediction() {
+        String line = ":srv 366 max #c End of NAMES list";
+        ParseCancellationException e = assertThrows(ParseCancellationException.class,
+                () -> ParsingEngine.get().parse(line, IRCParser.RULE_response));
+
+        assertEquals(llError(line), e.getMessage());
+    }
+
+    @Test
+    void engineIsReusable() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ParseCancellationException.class, () -> ParsingEngine.get().parse(":srv 001 max", IRCParser.RULE_pong));
+            assertEquals("PONG", ParsingEngine.get().parse("PONG", IRCParser.RULE_pong).getText());
+        }
+    }
+}
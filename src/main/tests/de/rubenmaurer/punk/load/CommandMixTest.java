@@ -0,0 +1,43 @@
+package de.rubenmaurer.punk.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandMixTest {
+
+    @Test
+    void picksByWeight() {
+        CommandMix mix = new CommandMix("privmsg:70, JOIN:20,ping:10");
+        Map<Command, Integer> picked = new EnumMap<>(Command.class);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100000; i++) picked.merge(mix.next(random), 1, Integer::sum);
+
+        assertNull(picked.get(Command.PART));
+        assertEquals(70000, picked.get(Command.PRIVMSG), 1000);
+        assertEquals(20000, picked.get(Command.JOIN), 1000);
+        assertEquals("privmsg:70,join:20,ping:10", mix.toString());
+    }
+
+    @Test
+    void invalidMix() {
+        for (String mix : new String[] { "", "privmsg", "privmsg:x", "kick:10", "ping:-1", "ping:0", "nick:10" }) {
+            assertThrows(IllegalArgumentException.class, () -> new CommandMix(mix), mix);
+        }
+    }
+
+    @Test
+    void restrictedMix() {
+        Set<Command> churn = EnumSet.of(Command.JOIN, Command.PART, Command.NICK);
+
+        assertEquals("join:40,part:40,nick:20", new CommandMix("join:40,part:40,nick:20", churn).toString());
+        assertThrows(IllegalArgumentException.class, () -> new CommandMix("join:40,privmsg:10", churn));
+    }
+}
@@ -0,0 +1,33 @@
+package de.rubenmaurer.punk.load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendTest {
+
+    @Test
+    void fitsALine() {
+        Trend trend = Trend.of(new double[] { 0, 10, 20, 30 }, new double[] { 100, 120, 140, 160 });
+
+        assertEquals(2, trend.slope(), 1e-9);
+        assertEquals(1, trend.fit(), 1e-9);
+        assertEquals(200, trend.at(50), 1e-9);
+    }
+
+    @Test
+    void constantSeriesHasNoTrend() {
+        Trend trend = Trend.of(new double[] { 0, 10, 20 }, new double[] { 54, 54, 54 });
+
+        assertEquals(0, trend.slope(), 1e-9);
+        assertEquals(0, trend.fit(), 1e-9);
+        assertEquals(54, trend.at(100), 1e-9);
+    }
+
+    @Test
+    void noiseFitsBadly() {
+        Trend trend = Trend.of(new double[] { 0, 1, 2, 3, 4, 5 }, new double[] { 10, 30, 10, 30, 10, 30 });
+
+        assertTrue(trend.fit() < 0.5);
+    }
+}
@@ -0,0 +1,56 @@
+package de.rubenmaurer.punk.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncoderTest {
+
+    private static final List<String> VALUES = Arrays.asList(
+            "max", "", "Maxine Caulfield", "#Blackwell", "ümlaut ✓ 😀", "a<b>c", "back\\slash \"quoted\"",
+            "$dollar {brace}", "tab\there", "line\nbreak", "carriage\rreturn", "both\r\nend", null);
+
+    private static String template(String name, List<String> parameters, String[] values) {
+        Template template = Template.get(name);
+        for (int i = 0; i < values.length; i++) template.single(parameters.get(i), values[i]);
+
+        return template.render();
+    }
+
+    @Test
+    void everyRequestIsCompiled() {
+        assertEquals(13, Encoder.names().size());
+        for (String name : Encoder.names()) assertTrue(Encoder.get(name).compiled(), name);
+    }
+
+    @Test
+    void rendersLikeStringTemplate() {
+        for (String name : Encoder.names()) {
+            Encoder encoder = Encoder.get(name);
+            List<String> parameters = encoder.parameters();
+
+            for (int v = 0; v < VALUES.size(); v++) {
+                String[] values = new String[parameters.size()];
+                for (int i = 0; i < values.length; i++) values[i] = VALUES.get((v + i) % VALUES.size());
+
+                String expected = template(name, parameters, values);
+                String actual = encoder.render(values);
+
+                for (Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16)) {
+                    assertArrayEquals(expected.getBytes(charset), actual.getBytes(charset), name + " " + Arrays.toString(values));
+                }
+            }
+        }
+    }
+
+    @Test
+    void missingValuesAreEmpty() {
+        assertEquals(Template.get("part").single("channel", "Blackwell").render(), Encoder.get("part").render("Blackwell"));
+        assertThrows(IllegalArgumentException.class, () -> Encoder.get("nope"));
+    }
+}
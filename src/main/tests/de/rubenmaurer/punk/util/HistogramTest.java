@@ -0,0 +1,65 @@
+package de.rubenmaurer.punk.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    void bucketsCoverEveryValue() {
+        long[] values = { 0, 1, 255, 256, 257, 511, 512, 1000, 123456789, Long.MAX_VALUE };
+
+        for (long value : values) {
+            int index = Histogram.index(value);
+
+            assertTrue(Histogram.highest(index) >= value, String.valueOf(value));
+            assertTrue(index == 0 || Histogram.highest(index - 1) < value, String.valueOf(value));
+        }
+    }
+
+    @Test
+    void percentilesWithinOnePercent() {
+        Random random = new Random(42);
+        Histogram histogram = new Histogram();
+        long[] values = new long[100000];
+
+        for (int i = 0; i < values.length; i++) {
+            // log-normal, like latencies in microseconds
+            values[i] = (long) Math.exp(6 + 2 * random.nextGaussian());
+            histogram.record(values[i]);
+        }
+
+        Arrays.sort(values);
+        for (double p : new double[] { 50, 90, 99, 99.9, 100 }) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long reported = histogram.percentile(p);
+
+            assertTrue(reported >= exact && reported <= exact * 1.01 + 1, p + ": " + exact + " " + reported);
+        }
+
+        assertEquals(values[values.length - 1], histogram.max());
+        assertEquals(values[0], histogram.min());
+    }
+
+    @Test
+    void concurrentRecordsAndAdd() {
+        Histogram histogram = new Histogram();
+        IntStream.range(0, 8).parallel().forEach(t -> {
+            for (int i = 0; i < 10000; i++) histogram.record(i);
+        });
+
+        Histogram total = new Histogram();
+        total.add(histogram);
+        total.add(histogram);
+
+        assertEquals(160000, total.count());
+        assertEquals(9999, total.max());
+        assertEquals(4999.5, total.mean(), 0.001);
+        assertEquals(0, new Histogram().percentile(99));
+    }
+}
@@ -0,0 +1,20 @@
+package de.rubenmaurer.punk.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogTest {
+
+    @Test
+    void parseIgnoresCase() {
+        assertEquals(Log.Level.ERROR, Log.parse("error"));
+        assertEquals(Log.Level.OFF, Log.parse(" Off "));
+    }
+
+    @Test
+    void invalidLevelFallsBack() {
+        assertEquals(Log.Level.DEBUG, Log.parse("verbose"));
+        assertEquals(Log.Level.DEBUG, Log.parse(null));
+    }
+}
@@ -0,0 +1,56 @@
+package de.rubenmaurer.punk.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscQueueTest {
+
+    @Test
+    void rejectsWhenFull() {
+        MpscQueue<String> queue = new MpscQueue<>(3);
+        assertEquals(4, queue.capacity());
+
+        for (int i = 0; i < 4; i++) assertTrue(queue.offer(String.valueOf(i)));
+        assertFalse(queue.offer("4"));
+
+        assertEquals("0", queue.poll());
+        assertTrue(queue.offer("4"));
+        assertEquals(5, queue.added());
+    }
+
+    @Test
+    void keepsOrderOfEveryProducer() throws InterruptedException {
+        MpscQueue<int[]> queue = new MpscQueue<>(1024);
+        int producers = 4;
+        int amount = 50000;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < amount; i++) {
+                    while (!queue.offer(new int[] { producer, i })) Thread.yield();
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        int[] next = new int[producers];
+        for (int received = 0; received < producers * amount; ) {
+            int[] entry = queue.poll();
+            if (entry == null) continue;
+
+            assertEquals(next[entry[0]]++, entry[1]);
+            received++;
+        }
+
+        for (Thread thread : threads) thread.join();
+        assertNull(queue.poll());
+    }
+}